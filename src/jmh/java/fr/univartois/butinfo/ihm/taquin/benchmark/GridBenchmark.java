@@ -0,0 +1,129 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.univartois.butinfo.ihm.taquin.model.Grid;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+
+/**
+ * La classe GridBenchmark mesure les performances des opérations de la grille du
+ * Taquin, pour différentes tailles de grille.
+ *
+ * Le paramètre {@code observed} indique si les tuiles observables de la grille ont été
+ * créées (comme lorsqu'une vue est attachée à la grille).
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+    /**
+     * Le nombre de déplacements précalculés (une puissance de 2).
+     */
+    private static final int NB_MOVES = 1 << 12;
+
+    /**
+     * La taille de la grille.
+     */
+    @Param({ "3", "4", "5", "6", "7", "8", "9", "10" })
+    private int size;
+
+    /**
+     * Si les tuiles observables de la grille ont été créées.
+     */
+    @Param({ "false", "true" })
+    private boolean observed;
+
+    /**
+     * La grille sur laquelle les opérations sont mesurées.
+     */
+    private Grid grid;
+
+    /**
+     * Les déplacements réalisés par le benchmark de {@link Grid#push(Move)}.
+     */
+    private Move[] moves;
+
+    /**
+     * L'indice du prochain déplacement à réaliser.
+     */
+    private int next;
+
+    /**
+     * Prépare la grille et les déplacements utilisés par les mesures.
+     */
+    @Setup
+    public void setUp() {
+        grid = new Grid(size);
+        if (observed) {
+            grid.get(0, 0);
+        }
+        grid.shuffle();
+
+        SplittableRandom random = new SplittableRandom(size);
+        moves = new Move[NB_MOVES];
+        for (int i = 0; i < NB_MOVES; i++) {
+            moves[i] = Move.of(random.nextInt(4));
+        }
+    }
+
+    /**
+     * Mesure un déplacement sur la grille.
+     *
+     * @return Si le déplacement a eu lieu.
+     */
+    @Benchmark
+    public boolean push() {
+        next = (next + 1) & (NB_MOVES - 1);
+        return grid.push(moves[next]);
+    }
+
+    /**
+     * Mesure la vérification de l'ordre des tuiles.
+     *
+     * @return Si les tuiles sont ordonnées.
+     */
+    @Benchmark
+    public boolean isOrdered() {
+        return grid.isOrdered();
+    }
+
+    /**
+     * Mesure le mélange de la grille.
+     *
+     * @return La grille mélangée.
+     */
+    @Benchmark
+    public Grid shuffle() {
+        grid.shuffle();
+        return grid;
+    }
+
+}
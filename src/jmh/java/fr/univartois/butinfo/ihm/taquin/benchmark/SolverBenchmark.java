@@ -0,0 +1,162 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.solver.ISolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.IdaStarSolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.ParallelIdaStarSolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.PatternDatabaseHeuristic;
+import fr.univartois.butinfo.ihm.taquin.model.solver.Solution;
+import fr.univartois.butinfo.ihm.taquin.model.solver.WalkingDistanceHeuristic;
+
+/**
+ * La classe SolverBenchmark mesure le temps de résolution d'un corpus fixe d'instances.
+ *
+ * Le corpus est lu depuis une ressource contenant une instance par ligne (les valeurs
+ * des tuiles ligne par ligne, {@code 0} désignant la case vide), et chaque appel du
+ * benchmark résout l'instance suivante du corpus.
+ * Un autre corpus (par exemple les 100 instances de Korf, converties vers la
+ * configuration ordonnée de ce projet) peut être utilisé via le paramètre
+ * {@code corpus}.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 30)
+@Fork(1)
+public class SolverBenchmark {
+
+    /**
+     * La ressource contenant le corpus d'instances.
+     */
+    @Param({ "instances-4x4.txt" })
+    private String corpus;
+
+    /**
+     * Le solveur dont les performances sont mesurées.
+     */
+    @Param({ "ida-pdb", "parallel-ida-pdb", "ida-wd" })
+    private String solver;
+
+    /**
+     * Les instances du corpus.
+     */
+    private List<IBoard> instances;
+
+    /**
+     * Le solveur utilisé.
+     */
+    private ISolver instance;
+
+    /**
+     * L'indice de la prochaine instance à résoudre.
+     */
+    private int next;
+
+    /**
+     * Charge le corpus et prépare le solveur.
+     */
+    @Setup
+    public void setUp() {
+        instances = load(corpus);
+        if ("ida-wd".equals(solver)) {
+            instance = new IdaStarSolver(WalkingDistanceHeuristic.withLinearConflict(4));
+            return;
+        }
+
+        PatternDatabaseHeuristic heuristic = PatternDatabaseHeuristic.standard();
+        if ("parallel-ida-pdb".equals(solver)) {
+            instance = new ParallelIdaStarSolver(heuristic);
+        } else {
+            instance = new IdaStarSolver(heuristic);
+        }
+    }
+
+    /**
+     * Libère les threads du solveur, s'il en utilise.
+     */
+    @TearDown
+    public void tearDown() {
+        if (instance instanceof ParallelIdaStarSolver) {
+            ((ParallelIdaStarSolver) instance).close();
+        }
+    }
+
+    /**
+     * Mesure la résolution de l'instance suivante du corpus.
+     *
+     * @return La solution trouvée.
+     */
+    @Benchmark
+    public Solution solve() {
+        IBoard board = instances.get(next);
+        next = (next + 1) % instances.size();
+        return instance.solve(board);
+    }
+
+    /**
+     * Lit un corpus d'instances.
+     *
+     * @param name Le nom de la ressource contenant le corpus.
+     *
+     * @return Les instances du corpus.
+     */
+    private static List<IBoard> load(String name) {
+        List<IBoard> boards = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                SolverBenchmark.class.getResourceAsStream(name), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] values = line.trim().split("\\s+");
+                int[] cells = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    cells[i] = Integer.parseInt(values[i]);
+                }
+
+                IBoard board = IBoard.create((int) Math.round(Math.sqrt(cells.length)));
+                board.load(cells);
+                boards.add(board);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return boards;
+    }
+
+}
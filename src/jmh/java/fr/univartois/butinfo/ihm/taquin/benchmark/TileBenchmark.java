@@ -0,0 +1,101 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.univartois.butinfo.ihm.taquin.model.Tile;
+
+/**
+ * La classe TileBenchmark mesure les performances de l'échange des valeurs de deux
+ * tuiles, avec et sans observateur attaché à leurs propriétés.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileBenchmark {
+
+    /**
+     * Des tuiles sans observateur.
+     */
+    private Tile first;
+
+    /**
+     * Une autre tuile sans observateur.
+     */
+    private Tile second;
+
+    /**
+     * Des tuiles observées (comme lorsqu'une vue leur est liée).
+     */
+    private Tile observedFirst;
+
+    /**
+     * Une autre tuile observée.
+     */
+    private Tile observedSecond;
+
+    /**
+     * Le nombre de notifications reçues par les observateurs.
+     */
+    private int notifications;
+
+    /**
+     * Prépare les tuiles utilisées par les mesures.
+     */
+    @Setup
+    public void setUp() {
+        first = new Tile(1);
+        second = new Tile(0);
+        observedFirst = new Tile(1);
+        observedSecond = new Tile(0);
+        observedFirst.getValueProperty().addListener((p, o, n) -> notifications++);
+        observedSecond.getValueProperty().addListener((p, o, n) -> notifications++);
+    }
+
+    /**
+     * Mesure l'échange de deux tuiles sans observateur.
+     *
+     * @return La valeur de la première tuile.
+     */
+    @Benchmark
+    public int exchange() {
+        first.exchange(second);
+        return first.getValue();
+    }
+
+    /**
+     * Mesure l'échange de deux tuiles observées.
+     *
+     * @return Le nombre de notifications reçues.
+     */
+    @Benchmark
+    public int exchangeObserved() {
+        observedFirst.exchange(observedSecond);
+        return notifications;
+    }
+
+}
@@ -8,9 +8,14 @@
 package fr.univartois.butinfo.ihm.taquin;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
 
 import fr.univartois.butinfo.ihm.taquin.controller.TaquinController;
 import fr.univartois.butinfo.ihm.taquin.model.Taquin;
+import fr.univartois.butinfo.ihm.taquin.model.board.GoalLayout;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+import fr.univartois.butinfo.ihm.taquin.model.save.GameSaver;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -27,6 +32,18 @@ import javafx.stage.Stage;
  */
 public class TaquinApplication extends Application {
 
+    /**
+     * La taille par defaut de la grille, lorsqu'elle n'est pas precisee par l'option
+     * {@code --size=N}.
+     */
+    private static final String DEFAULT_SIZE = "4";
+
+    /**
+     * Le service enregistrant les parties, ou {@code null} si le journal des parties
+     * n'a pas pu etre ouvert.
+     */
+    private GameSaver saver;
+
     /**
      * Cette methode permet d'initialiser l'affichage de la fenetre de l'application.
      *
@@ -48,25 +65,66 @@ public class TaquinApplication extends Application {
 
         // On cree enfin le jeu, et on l'associe au controleur.
         TaquinController controller = fxmlLoader.getController();
-        Taquin taquin = new Taquin(4);
+        Taquin taquin = new Taquin(getTopology());
         controller.setModel(taquin);
         controller.setScene(scene);
         taquin.setController(controller);
-        taquin.startGame();
+
+        // On reprend la derniere partie si elle n'etait pas terminee.
+        try {
+            saver = GameSaver.openDefault();
+            taquin.setSaver(saver);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Games will not be saved: " + e.getMessage());
+        }
+        if ((saver == null) || !taquin.resumeGame(saver.getLog().latest())) {
+            taquin.startGame();
+        }
     
         // Enfin, on affiche la fenetre.
         stage.show();
     }
 
+    /**
+     * Cette methode est appelee a la fermeture de l'application, pour terminer
+     * l'enregistrement des parties.
+     */
+    @Override
+    public void stop() throws IOException {
+        if (saver != null) {
+            saver.close();
+        }
+    }
+
+    /**
+     * Donne la topologie de la grille demandee sur la ligne de commande.
+     * La forme est donnee par l'option {@code --size=N} (grille carree) ou
+     * {@code --size=LxC} (grille de {@code L} lignes et {@code C} colonnes), et la
+     * disposition finale par l'option {@code --goal=standard|blank-first|snake}.
+     *
+     * @return La topologie de la grille demandee.
+     */
+    private Topology getTopology() {
+        Map<String, String> options = getParameters().getNamed();
+        String[] size = options.getOrDefault("size", DEFAULT_SIZE).split("x");
+        int height = Integer.parseInt(size[0]);
+        int width = (size.length > 1) ? Integer.parseInt(size[1]) : height;
+        String goal = options.getOrDefault("goal", "standard");
+        return Topology.of(height, width,
+                GoalLayout.valueOf(goal.toUpperCase().replace('-', '_')));
+    }
+
     /**
      * Cette methode execute l'application JavaFX.
      *
-     * @param args Les arguments de la ligne de commande (dont on ne tient pas compte).
+     * @param args Les arguments de la ligne de commande, parmi lesquels les options
+     *        {@code --size=N} (ou {@code --size=LxC}) et {@code --goal=...} donnant la
+     *        forme et la disposition finale de la grille.
      *
      * @see #launch(String...)
      */
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
 
 }
@@ -0,0 +1,425 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.Metrics;
+import fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic;
+import fr.univartois.butinfo.ihm.taquin.model.solver.IdaStarSolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.LinearConflictHeuristic;
+import fr.univartois.butinfo.ihm.taquin.model.solver.PatternDatabaseHeuristic;
+import fr.univartois.butinfo.ihm.taquin.model.solver.Solution;
+import fr.univartois.butinfo.ihm.taquin.model.solver.TranspositionTable;
+import fr.univartois.butinfo.ihm.taquin.model.solver.WalkingDistanceHeuristic;
+
+/**
+ * La classe TaquinBatch est le point d'entrée du solveur en ligne de commande, qui
+ * fonctionne sans JavaFX.
+ *
+ * Les instances sont lues (depuis un fichier, ou depuis l'entrée standard) à raison
+ * d'une par ligne : les valeurs des tuiles, ligne par ligne, séparées par des espaces ou
+ * des virgules, {@code 0} désignant la case vide.
+ * Elles sont résolues par un groupe de threads, et chaque résultat est écrit sur la
+ * sortie standard, au format JSON (un objet par ligne), dès que l'instance est résolue.
+ * Le nombre d'instances en cours de résolution est borné, de sorte que la mémoire
+ * utilisée ne dépend pas du nombre d'instances lues.
+ *
+ * Avec l'option {@code --metrics}, un résumé des mesures des solveurs (voir
+ * {@link Metrics}) est écrit sur la sortie d'erreur à la fin de la résolution.
+ *
+ * Avec l'option {@code --table=MB}, tous les threads partagent une table de
+ * transposition de la taille donnée (voir {@link TranspositionTable}), quelle que soit
+ * l'heuristique utilisée.
+ *
+ * Avec l'option {@code --heuristic=wd}, les grilles 4x4 sont résolues en retenant la
+ * plus grande estimation entre la distance de marche et les conflits linéaires (voir
+ * {@link WalkingDistanceHeuristic}) plutôt qu'avec la base de motifs.
+ * Cette heuristique n'est chargée qu'à la première grille 4x4 : si son chargement
+ * échoue, chaque instance concernée produit un résultat décrivant l'erreur.
+ *
+ * Avec l'option {@code --timeout=MS}, la résolution d'une instance est abandonnée
+ * après le nombre de millisecondes donné, et son résultat indique l'erreur
+ * {@code "Timed out"}.
+ *
+ * Usage : {@code taquin-batch [--threads=N] [--heuristic=lc|pdb|wd] [--table=MB]
+ * [--timeout=MS] [--metrics] [fichier]}.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class TaquinBatch {
+
+    /**
+     * Le nombre d'instances pouvant attendre d'être résolues, par thread.
+     */
+    private static final int PENDING_PER_THREAD = 4;
+
+    /**
+     * Les threads résolvant les instances.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Les autorisations limitant le nombre d'instances en cours de résolution.
+     */
+    private final Semaphore pending;
+
+    /**
+     * Le solveur utilisant la distance de Manhattan et les conflits linéaires.
+     */
+    private final IdaStarSolver linearConflictSolver;
+
+    /**
+     * La table de transposition partagée par les threads, ou {@code null} si aucune
+     * table n'est utilisée.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * L'heuristique à utiliser pour les grilles 4x4 ({@code lc}, {@code pdb} ou
+     * {@code wd}).
+     */
+    private final String heuristic;
+
+    /**
+     * Le délai (en millisecondes) après lequel la résolution d'une instance est
+     * abandonnée, ou {@code 0} si elle n'est jamais abandonnée.
+     */
+    private final long timeout;
+
+    /**
+     * Le thread demandant l'arrêt des résolutions ayant dépassé le délai, ou
+     * {@code null} si aucun délai n'est imposé.
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Le flux sur lequel les résultats sont écrits.
+     */
+    private final Writer output;
+
+    /**
+     * Construit une nouvelle instance de TaquinBatch.
+     *
+     * @param threads Le nombre de threads résolvant les instances.
+     * @param heuristic L'heuristique à utiliser pour les grilles 4x4 ({@code lc},
+     *        {@code pdb} ou {@code wd}).
+     * @param table La table de transposition partagée par les threads, ou {@code null}
+     *        pour n'en utiliser aucune.
+     * @param timeout Le délai (en millisecondes) après lequel la résolution d'une
+     *        instance est abandonnée, ou {@code 0} pour n'imposer aucun délai.
+     * @param output Le flux sur lequel écrire les résultats.
+     */
+    private TaquinBatch(int threads, String heuristic, TranspositionTable table,
+            long timeout, Writer output) {
+        this.linearConflictSolver = new IdaStarSolver(new LinearConflictHeuristic(),
+                IdaStarSolver.DEFAULT_MAX_DEPTH, table);
+        this.table = table;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.pending = new Semaphore(threads * PENDING_PER_THREAD);
+        this.heuristic = heuristic;
+        this.timeout = timeout;
+        this.timer = (timeout == 0) ? null
+                : Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "taquin-batch-timer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.output = output;
+    }
+
+    /**
+     * Lit et résout toutes les instances d'un flux.
+     *
+     * @param input Le flux contenant les instances.
+     *
+     * @throws IOException Si une erreur se produit lors de la lecture du flux.
+     * @throws InterruptedException Si le thread est interrompu pendant l'attente des
+     *         résultats.
+     */
+    private void run(BufferedReader input) throws IOException, InterruptedException {
+        long id = 0;
+        for (String line = input.readLine(); line != null; line = input.readLine()) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+
+            // On attend qu'une place se libère avant de soumettre l'instance.
+            pending.acquire();
+            long instance = id++;
+            String description = line;
+            executor.execute(() -> {
+                try {
+                    write(solve(instance, description));
+                } finally {
+                    pending.release();
+                }
+            });
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Résout une instance, et décrit le résultat au format JSON.
+     * Toute erreur, y compris l'échec du chargement de l'heuristique, est décrite dans
+     * le résultat, de sorte que chaque instance produit exactement une ligne.
+     *
+     * @param id L'identifiant de l'instance (son rang dans le flux).
+     * @param line La description de l'instance.
+     *
+     * @return La description du résultat.
+     */
+    private String solve(long id, String line) {
+        StringBuilder json = new StringBuilder("{\"id\":").append(id);
+        AtomicBoolean stop = new AtomicBoolean();
+        ScheduledFuture<?> deadline = (timer == null) ? null
+                : timer.schedule(() -> stop.set(true), timeout, TimeUnit.MILLISECONDS);
+        try {
+            IBoard board = parse(line);
+            Solution solution = solverFor(board).solve(board, stop);
+            json.append(",\"size\":").append(board.size());
+            json.append(",\"length\":").append(solution.length());
+            json.append(",\"moves\":\"").append(solution).append('"');
+            json.append(",\"nodes\":").append(solution.getNodes());
+            json.append(",\"millis\":").append(
+                    TimeUnit.NANOSECONDS.toMillis(solution.getNanos()));
+
+        } catch (CancellationException e) {
+            json.append(",\"error\":\"Timed out\"");
+
+        } catch (RuntimeException e) {
+            json.append(",\"error\":\"").append(escape(String.valueOf(e.getMessage())))
+                    .append('"');
+
+        } catch (LinkageError e) {
+            // L'heuristique n'a pas pu être chargée (ExceptionInInitializerError au
+            // premier chargement, NoClassDefFoundError ensuite).
+            Throwable cause = (e.getCause() == null) ? e : e.getCause();
+            json.append(",\"error\":\"")
+                    .append(escape("Heuristic unavailable: " + cause))
+                    .append('"');
+
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Choisit le solveur à utiliser pour une grille.
+     * Les solveurs sont peu coûteux à construire : seules leurs heuristiques sont
+     * partagées.
+     *
+     * @param board La grille à résoudre.
+     *
+     * @return Le solveur à utiliser.
+     */
+    private IdaStarSolver solverFor(IBoard board) {
+        if (board.size() == 4) {
+            if ("pdb".equals(heuristic)) {
+                return solverWith(PatternDatabaseSolver.HEURISTIC);
+            }
+            if ("wd".equals(heuristic)) {
+                return solverWith(WalkingDistanceSolver.HEURISTIC);
+            }
+        }
+        return linearConflictSolver;
+    }
+
+    /**
+     * Construit un solveur utilisant la table de transposition partagée.
+     *
+     * @param guide L'heuristique guidant la recherche.
+     *
+     * @return Le solveur construit.
+     */
+    private IdaStarSolver solverWith(IHeuristic guide) {
+        return new IdaStarSolver(guide, IdaStarSolver.DEFAULT_MAX_DEPTH, table);
+    }
+
+    /**
+     * Écrit le résultat d'une instance sur la sortie.
+     *
+     * @param result La description du résultat.
+     */
+    private void write(String result) {
+        synchronized (output) {
+            try {
+                output.write(result);
+                output.write('\n');
+                output.flush();
+
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Lit la description d'une instance.
+     *
+     * @param line La description de l'instance.
+     *
+     * @return La grille décrite.
+     *
+     * @throws IllegalArgumentException Si la description n'est pas valide.
+     */
+    static IBoard parse(String line) {
+        String[] values = line.trim().split("[\\s,]+");
+        int size = (int) Math.round(Math.sqrt(values.length));
+        if (size * size != values.length) {
+            throw new IllegalArgumentException("Not a square grid: " + values.length + " cells");
+        }
+
+        int[] cells = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            cells[i] = Integer.parseInt(values[i]);
+        }
+        IBoard board = IBoard.create(size);
+        board.load(cells);
+        return board;
+    }
+
+    /**
+     * Échappe une chaîne de caractères pour l'écrire dans une chaîne JSON.
+     *
+     * @param text La chaîne à échapper.
+     *
+     * @return La chaîne échappée.
+     */
+    private static String escape(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if ((c == '"') || (c == '\\')) {
+                builder.append('\\').append(c);
+            } else if (c < ' ') {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Exécute le solveur en ligne de commande.
+     *
+     * @param args Les options, suivies éventuellement du fichier contenant les
+     *        instances.
+     *
+     * @throws IOException Si une erreur se produit lors de la lecture des instances.
+     * @throws InterruptedException Si le thread est interrompu pendant la résolution.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String heuristic = "pdb";
+        TranspositionTable table = null;
+        long timeout = 0;
+        Path file = null;
+
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--threads=")) {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                    if (threads < 1) {
+                        throw new IllegalArgumentException("No thread: " + threads);
+                    }
+                } else if (arg.matches("--heuristic=(lc|pdb|wd)")) {
+                    heuristic = arg.substring("--heuristic=".length());
+                } else if (arg.startsWith("--table=")) {
+                    table = new TranspositionTable(
+                            Integer.parseInt(arg.substring("--table=".length())));
+                } else if (arg.startsWith("--timeout=")) {
+                    timeout = Long.parseLong(arg.substring("--timeout=".length()));
+                    if (timeout < 1) {
+                        throw new IllegalArgumentException("Invalid timeout: " + timeout);
+                    }
+                } else if (arg.equals("--metrics")) {
+                    Metrics.setEnabled(true);
+                } else if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                } else {
+                    file = Path.of(arg);
+                }
+            }
+
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: taquin-batch [--threads=N] [--heuristic=lc|pdb|wd] "
+                    + "[--table=MB] [--timeout=MS] [--metrics] [file]");
+            System.exit(2);
+        }
+
+        Writer output = new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        try (BufferedReader input = (file == null)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            new TaquinBatch(threads, heuristic, table, timeout, output).run(input);
+        }
+
+        if (Metrics.isEnabled()) {
+            System.err.println(Metrics.summary());
+        }
+    }
+
+    /**
+     * La classe PatternDatabaseSolver ne charge la base de motifs que lorsqu'une grille
+     * 4x4 doit être résolue.
+     */
+    private static final class PatternDatabaseSolver {
+
+        /**
+         * La base de motifs 6-6-3.
+         */
+        private static final IHeuristic HEURISTIC = PatternDatabaseHeuristic.standard();
+
+    }
+
+    /**
+     * La classe WalkingDistanceSolver ne charge la table des distances de marche que
+     * lorsqu'une grille 4x4 doit être résolue.
+     */
+    private static final class WalkingDistanceSolver {
+
+        /**
+         * L'heuristique combinant la distance de marche et les conflits linéaires.
+         */
+        private static final IHeuristic HEURISTIC =
+                WalkingDistanceHeuristic.withLinearConflict(4);
+
+    }
+
+}
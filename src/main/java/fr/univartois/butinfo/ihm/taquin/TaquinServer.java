@@ -0,0 +1,520 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.Metrics;
+import fr.univartois.butinfo.ihm.taquin.model.session.GameSnapshot;
+import fr.univartois.butinfo.ihm.taquin.model.session.SessionManager;
+
+/**
+ * La classe TaquinServer est le point d'entrée d'un serveur HTTP permettant à des
+ * programmes (par exemple des bots) de jouer des parties hébergées par un
+ * {@link SessionManager}, sans JavaFX.
+ *
+ * Le serveur n'écoute que sur l'adresse locale, et expose les requêtes suivantes :
+ * <ul>
+ * <li>{@code POST /games?size=N[&seed=S]} crée une partie, sur une grille de taille
+ * comprise entre {@value #MIN_SIZE} et {@value #MAX_SIZE} ;</li>
+ * <li>{@code GET /games/ID} donne l'état d'une partie ;</li>
+ * <li>{@code POST /games/ID/move?m=U} réalise un déplacement ;</li>
+ * <li>{@code POST /games/ID/moves} réalise les déplacements dont les symboles forment le
+ * corps de la requête (par exemple {@code UULDR}), d'au plus {@value #MAX_BODY}
+ * octets ;</li>
+ * <li>{@code DELETE /games/ID} termine une partie.</li>
+ * </ul>
+ * L'état d'une partie est décrit en JSON compact ({@code {"id":0,"size":4,"moves":3,
+ * "ordered":false,"cells":[...]}}), ou en binaire avec le paramètre
+ * {@code format=bin} : la taille, le nombre de déplacements (sur 4 octets chacun), un
+ * octet valant {@code 1} si la grille est ordonnée, puis les tuiles (sur 2 octets
+ * chacune).
+ * Après un déplacement, l'état indique aussi s'il a eu lieu ({@code "applied":true}),
+ * et après une suite de déplacements, combien ont eu lieu ({@code "applied":3}) : au
+ * format binaire, cette valeur est ajoutée à la fin, sur 4 octets.
+ * Un corps trop grand est refusé avec le code 413.
+ *
+ * Les requêtes ne bloquent aucun thread en attendant leur résultat : la réponse est
+ * écrite d'un seul bloc, de taille connue, dès que la voie de la partie a exécuté la
+ * commande.
+ * Les connexions étant persistantes, un client peut envoyer ses requêtes à la suite sans
+ * attendre les réponses.
+ *
+ * Usage : {@code taquin-server [--port=N] [--lanes=N] [--threads=N] [--metrics]}.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class TaquinServer implements AutoCloseable {
+
+    /**
+     * Le port d'écoute par défaut.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * La plus petite taille des grilles des parties créées.
+     */
+    public static final int MIN_SIZE = 2;
+
+    /**
+     * La plus grande taille des grilles des parties créées, qui borne la mémoire allouée
+     * pour chaque requête.
+     */
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * La taille maximale (en octets) du corps d'une requête, qui borne la mémoire
+     * allouée pour le lire.
+     */
+    public static final int MAX_BODY = 64 * 1024;
+
+    /**
+     * Le préfixe des chemins des requêtes.
+     */
+    private static final String CONTEXT = "/games";
+
+    /**
+     * Le type des réponses au format JSON.
+     */
+    private static final String JSON = "application/json";
+
+    /**
+     * Le type des réponses au format binaire.
+     */
+    private static final String BINARY = "application/octet-stream";
+
+    /**
+     * Le serveur HTTP.
+     */
+    private final HttpServer server;
+
+    /**
+     * Les threads lisant les requêtes et écrivant les réponses.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Le gestionnaire des parties.
+     */
+    private final SessionManager sessions;
+
+    /**
+     * Construit une nouvelle instance de TaquinServer, écoutant sur l'adresse locale.
+     *
+     * @param port Le port d'écoute, ou {@code 0} pour en choisir un libre.
+     * @param threads Le nombre de threads lisant les requêtes et écrivant les réponses.
+     * @param sessions Le gestionnaire des parties.
+     *
+     * @throws IOException Si le serveur ne peut pas écouter sur le port donné.
+     */
+    public TaquinServer(int port, int threads, SessionManager sessions) throws IOException {
+        this.sessions = sessions;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "taquin-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(CONTEXT, this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Démarre ce serveur.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Donne le port sur lequel ce serveur écoute.
+     *
+     * @return Le port d'écoute.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Traite une requête.
+     *
+     * @param exchange L'échange HTTP.
+     */
+    private void handle(HttpExchange exchange) {
+        try {
+            route(exchange).whenCompleteAsync((response, error) -> {
+                if (error == null) {
+                    send(exchange, 200, response);
+                } else {
+                    fail(exchange, (error instanceof CompletionException)
+                            ? error.getCause() : error);
+                }
+            }, executor);
+
+        } catch (RuntimeException | IOException e) {
+            fail(exchange, e);
+        }
+    }
+
+    /**
+     * Exécute la commande correspondant à une requête.
+     *
+     * @param exchange L'échange HTTP.
+     *
+     * @return La réponse à venir.
+     *
+     * @throws IOException Si le corps de la requête ne peut pas être lu.
+     * @throws NoSuchElementException Si aucune commande ne correspond à la requête.
+     * @throws IllegalArgumentException Si les paramètres de la requête ne sont pas
+     *         valides.
+     */
+    private CompletableFuture<Response> route(HttpExchange exchange) throws IOException {
+        URI uri = exchange.getRequestURI();
+        String method = exchange.getRequestMethod();
+        String[] path = uri.getPath().substring(CONTEXT.length()).split("/");
+        boolean binary = "bin".equals(parameter(uri, "format"));
+
+        if ((path.length <= 1) && "POST".equals(method)) {
+            int size = Integer.parseInt(parameter(uri, "size", "4"));
+            if ((size < MIN_SIZE) || (size > MAX_SIZE)) {
+                throw new IllegalArgumentException("Size must be between " + MIN_SIZE
+                        + " and " + MAX_SIZE + ": " + size);
+            }
+            String seed = parameter(uri, "seed");
+            long id = sessions.create(size, (seed == null)
+                    ? ThreadLocalRandom.current().nextLong() : Long.parseLong(seed));
+            return sessions.state(id).thenApply(state -> describe(state, binary));
+        }
+
+        if (path.length < 2) {
+            throw new NoSuchElementException("Unknown request: " + method + " " + uri);
+        }
+
+        long id = Long.parseLong(path[1]);
+        String action = (path.length > 2) ? path[2] : "";
+        if ("GET".equals(method) && action.isEmpty()) {
+            return sessions.state(id).thenApply(state -> describe(state, binary));
+        }
+
+        if ("DELETE".equals(method) && action.isEmpty()) {
+            sessions.remove(id);
+            return CompletableFuture.completedFuture(new Response(JSON, "{}"));
+        }
+
+        if ("POST".equals(method) && "move".equals(action)) {
+            String symbol = parameter(uri, "m", "");
+            if (symbol.length() != 1) {
+                throw new IllegalArgumentException("Expected one move: " + symbol);
+            }
+            return sessions.push(id, Move.of(symbol.charAt(0))).thenCombine(
+                    sessions.state(id),
+                    (applied, state) -> describe(state, applied, binary));
+        }
+
+        if ("POST".equals(method) && "moves".equals(action)) {
+            return sessions.pushAll(id, readMoves(exchange)).thenCombine(
+                    sessions.state(id),
+                    (applied, state) -> describe(state, applied, binary));
+        }
+
+        throw new NoSuchElementException("Unknown request: " + method + " " + uri);
+    }
+
+    /**
+     * Lit les symboles des déplacements envoyés dans le corps d'une requête.
+     * Les blancs sont ignorés.
+     * Au plus {@value #MAX_BODY} octets sont lus, que la taille du corps soit annoncée
+     * ou non.
+     *
+     * @param exchange L'échange HTTP.
+     *
+     * @return Les déplacements lus.
+     *
+     * @throws IOException Si le corps de la requête ne peut pas être lu.
+     * @throws BodyTooLargeException Si le corps de la requête est trop grand.
+     * @throws IllegalArgumentException Si l'un des symboles ne représente aucun
+     *         déplacement.
+     */
+    private static List<Move> readMoves(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if ((length != null) && (Long.parseLong(length.trim()) > MAX_BODY)) {
+            throw new BodyTooLargeException(length);
+        }
+
+        byte[] bytes;
+        try (InputStream body = exchange.getRequestBody()) {
+            bytes = body.readNBytes(MAX_BODY + 1);
+        }
+        if (bytes.length > MAX_BODY) {
+            throw new BodyTooLargeException("more than " + MAX_BODY);
+        }
+
+        List<Move> moves = new ArrayList<>();
+        for (byte b : bytes) {
+            if (!Character.isWhitespace(b)) {
+                moves.add(Move.of((char) b));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Décrit l'état d'une partie.
+     *
+     * @param state L'état de la partie.
+     * @param binary Si l'état doit être décrit au format binaire.
+     *
+     * @return La réponse décrivant l'état de la partie.
+     */
+    private static Response describe(GameSnapshot state, boolean binary) {
+        return describe(state, null, binary);
+    }
+
+    /**
+     * Décrit l'état d'une partie, après une commande l'ayant modifiée.
+     *
+     * @param state L'état de la partie.
+     * @param applied Si le déplacement a eu lieu ({@link Boolean}), le nombre de
+     *        déplacements ayant eu lieu ({@link Integer}), ou {@code null} si aucune
+     *        commande n'a été exécutée.
+     * @param binary Si l'état doit être décrit au format binaire.
+     *
+     * @return La réponse décrivant l'état de la partie.
+     */
+    private static Response describe(GameSnapshot state, Object applied, boolean binary) {
+        int cells = state.getSize() * state.getSize();
+        if (binary) {
+            ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + 1 + cells * 2
+                    + ((applied == null) ? 0 : Integer.BYTES));
+            buffer.putInt(state.getSize()).putInt(state.getNbMoves());
+            buffer.put((byte) (state.isOrdered() ? 1 : 0));
+            for (int i = 0; i < cells; i++) {
+                buffer.putShort((short) state.get(i));
+            }
+            if (applied instanceof Boolean) {
+                buffer.putInt(((Boolean) applied) ? 1 : 0);
+            } else if (applied != null) {
+                buffer.putInt((Integer) applied);
+            }
+            return new Response(BINARY, buffer.array());
+        }
+
+        StringBuilder json = new StringBuilder(64 + 6 * cells);
+        json.append("{\"id\":").append(state.getId());
+        json.append(",\"size\":").append(state.getSize());
+        json.append(",\"moves\":").append(state.getNbMoves());
+        json.append(",\"ordered\":").append(state.isOrdered());
+        if (applied != null) {
+            json.append(",\"applied\":").append(applied);
+        }
+        json.append(",\"cells\":[");
+        for (int i = 0; i < cells; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(state.get(i));
+        }
+        return new Response(JSON, json.append("]}").toString());
+    }
+
+    /**
+     * Donne la valeur d'un paramètre d'une requête.
+     *
+     * @param uri L'adresse de la requête.
+     * @param name Le nom du paramètre.
+     *
+     * @return La valeur du paramètre, ou {@code null} s'il est absent.
+     */
+    private static String parameter(URI uri, String name) {
+        return parameter(uri, name, null);
+    }
+
+    /**
+     * Donne la valeur d'un paramètre d'une requête.
+     *
+     * @param uri L'adresse de la requête.
+     * @param name Le nom du paramètre.
+     * @param missing La valeur à renvoyer si le paramètre est absent.
+     *
+     * @return La valeur du paramètre, ou {@code missing}.
+     */
+    private static String parameter(URI uri, String name, String missing) {
+        String query = uri.getQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (pair.startsWith(name + "=")) {
+                    return pair.substring(name.length() + 1);
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Répond à une requête ayant échoué.
+     *
+     * @param exchange L'échange HTTP.
+     * @param error L'erreur survenue.
+     */
+    private static void fail(HttpExchange exchange, Throwable error) {
+        int status = 400;
+        if (error instanceof NoSuchElementException) {
+            status = 404;
+        } else if (error instanceof BodyTooLargeException) {
+            status = 413;
+        }
+        String message = String.valueOf(error.getMessage()).replace("\\", "\\\\")
+                .replace("\"", "\\\"");
+        send(exchange, status, new Response(JSON, "{\"error\":\"" + message + "\"}"));
+    }
+
+    /**
+     * Envoie une réponse d'un seul bloc.
+     *
+     * @param exchange L'échange HTTP.
+     * @param status Le code de la réponse.
+     * @param response La réponse à envoyer.
+     */
+    private static void send(HttpExchange exchange, int status, Response response) {
+        try (OutputStream output = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", response.type);
+            exchange.sendResponseHeaders(status, response.body.length);
+            output.write(response.body);
+
+        } catch (IOException e) {
+            // Le client s'est déconnecté : il n'y a personne à qui répondre.
+            exchange.close();
+        }
+    }
+
+    /**
+     * Arrête ce serveur, ainsi que le gestionnaire des parties.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        sessions.close();
+    }
+
+    /**
+     * Exécute le serveur.
+     *
+     * @param args Les options du serveur.
+     *
+     * @throws IOException Si le serveur ne peut pas écouter sur le port demandé.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int lanes = Runtime.getRuntime().availableProcessors();
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--lanes=")) {
+                lanes = Integer.parseInt(arg.substring("--lanes=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.equals("--metrics")) {
+                Metrics.setEnabled(true);
+            } else {
+                System.err.println("Usage: taquin-server [--port=N] [--lanes=N] "
+                        + "[--threads=N] [--metrics]");
+                System.exit(2);
+            }
+        }
+
+        TaquinServer server = new TaquinServer(port, threads, new SessionManager(lanes));
+        server.start();
+        System.err.println("Listening on http://localhost:" + server.getPort() + CONTEXT);
+    }
+
+    /**
+     * La classe Response représente une réponse prête à être envoyée d'un seul bloc.
+     */
+    private static final class Response {
+
+        /**
+         * Le type du contenu de la réponse.
+         */
+        private final String type;
+
+        /**
+         * Le contenu de la réponse.
+         */
+        private final byte[] body;
+
+        /**
+         * Construit une nouvelle réponse.
+         *
+         * @param type Le type du contenu de la réponse.
+         * @param body Le contenu de la réponse.
+         */
+        private Response(String type, byte[] body) {
+            this.type = type;
+            this.body = body;
+        }
+
+        /**
+         * Construit une nouvelle réponse textuelle.
+         *
+         * @param type Le type du contenu de la réponse.
+         * @param body Le contenu de la réponse.
+         */
+        private Response(String type, String body) {
+            this(type, body.getBytes(StandardCharsets.UTF_8));
+        }
+
+    }
+
+    /**
+     * La classe BodyTooLargeException signale qu'une requête a un corps plus grand que
+     * {@value TaquinServer#MAX_BODY} octets.
+     */
+    private static final class BodyTooLargeException extends IllegalArgumentException {
+
+        /**
+         * L'identifiant de sérialisation de cette classe.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Construit une nouvelle instance de BodyTooLargeException.
+         *
+         * @param length La taille du corps de la requête.
+         */
+        private BodyTooLargeException(String length) {
+            super("Request body too large: " + length + " bytes");
+        }
+
+    }
+
+}
@@ -0,0 +1,242 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.controller;
+
+import fr.univartois.butinfo.ihm.taquin.model.Grid;
+import fr.univartois.butinfo.ihm.taquin.model.IGridListener;
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+/**
+ * La classe BoardCanvas affiche une grille du Taquin sur un unique {@link Canvas}.
+ *
+ * Chaque tuile est dessinée directement à partir du morceau de l'image source qui lui
+ * correspond : aucun nœud, aucune image ni aucun écouteur n'est créé par case.
+ * Après un déplacement, seules les deux cases échangées sont redessinées (et après une
+ * suite de déplacements, seules les cases qu'elle a modifiées).
+ * Le temps d'initialisation et la mémoire utilisée par la vue ne dépendent donc
+ * quasiment pas de la taille de la grille.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class BoardCanvas extends Canvas implements IGridListener {
+
+    /**
+     * La taille maximale (en pixels) de la grille affichée.
+     */
+    private static final double MAX_BOARD_SIZE = 800;
+
+    /**
+     * La taille (en pixels) à partir de laquelle les tuiles sont séparées.
+     */
+    private static final double MIN_SPACED_SIZE = 8;
+
+    /**
+     * La couleur de l'emplacement vide.
+     */
+    private static final Color EMPTY_COLOR = Color.WHITESMOKE;
+
+    /**
+     * La couleur de la mise en évidence d'une tuile.
+     */
+    private static final Color HIGHLIGHT_COLOR = Color.GOLD;
+
+    /**
+     * L'état brut de la grille affichée.
+     */
+    private final IBoard board;
+
+    /**
+     * La topologie de la grille affichée.
+     */
+    private final Topology topology;
+
+    /**
+     * Le nombre de lignes de la grille.
+     */
+    private final int rows;
+
+    /**
+     * Le nombre de colonnes de la grille.
+     */
+    private final int columns;
+
+    /**
+     * L'image affichée par la grille ordonnée.
+     */
+    private final Image source;
+
+    /**
+     * La largeur (en pixels) du morceau de l'image source affiché par une tuile.
+     */
+    private final double sourceWidth;
+
+    /**
+     * La hauteur (en pixels) du morceau de l'image source affiché par une tuile.
+     */
+    private final double sourceHeight;
+
+    /**
+     * La taille (en pixels) d'une case.
+     */
+    private final double cellSize;
+
+    /**
+     * L'espace (en pixels) séparant les tuiles.
+     */
+    private final double gap;
+
+    /**
+     * L'indice de la case mise en évidence, ou {@code -1} s'il n'y en a aucune.
+     */
+    private int highlighted = -1;
+
+    /**
+     * Construit une nouvelle instance de BoardCanvas, et l'enregistre comme écouteur de
+     * la grille affichée.
+     *
+     * @param grid La grille à afficher.
+     * @param source L'image affichée par la grille ordonnée.
+     */
+    public BoardCanvas(Grid grid, Image source) {
+        this.board = grid.getBoard();
+        this.topology = board.topology();
+        this.rows = topology.height();
+        this.columns = topology.width();
+        this.source = source;
+        this.sourceWidth = source.getWidth() / columns;
+        this.sourceHeight = source.getHeight() / rows;
+        this.cellSize = Math.min(TileBackgrounds.TILE_SIZE,
+                MAX_BOARD_SIZE / Math.max(rows, columns));
+        this.gap = (cellSize >= MIN_SPACED_SIZE) ? 1 : 0;
+        setWidth(cellSize * columns);
+        setHeight(cellSize * rows);
+        grid.setListener(this);
+        drawAll();
+    }
+
+    /**
+     * Donne l'indice de la case affichée à une position donnée.
+     *
+     * @param x L'abscisse de la position (en pixels).
+     * @param y L'ordonnée de la position (en pixels).
+     *
+     * @return L'indice de la case, ou {@code -1} si la position est hors de la grille.
+     */
+    public int cellAt(double x, double y) {
+        int row = (int) (y / cellSize);
+        int column = (int) (x / cellSize);
+        if ((x < 0) || (y < 0) || (row >= rows) || (column >= columns)) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    /**
+     * Met en évidence une case de la grille, à la place de la précédente.
+     *
+     * @param index L'indice de la case à mettre en évidence, ou {@code -1} pour n'en
+     *        mettre aucune en évidence.
+     */
+    public void setHighlighted(int index) {
+        int previous = highlighted;
+        highlighted = index;
+        if (previous >= 0) {
+            drawCell(previous);
+        }
+        if (index >= 0) {
+            drawCell(index);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.IGridListener#cellsExchanged(int, int)
+     */
+    @Override
+    public void cellsExchanged(int first, int second) {
+        drawCell(first);
+        drawCell(second);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.IGridListener#cellsChanged(int[], int)
+     */
+    @Override
+    public void cellsChanged(int[] cells, int count) {
+        for (int i = 0; i < count; i++) {
+            drawCell(cells[i]);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.IGridListener#gridChanged()
+     */
+    @Override
+    public void gridChanged() {
+        drawAll();
+    }
+
+    /**
+     * Dessine toutes les cases de la grille.
+     */
+    private void drawAll() {
+        GraphicsContext context = getGraphicsContext2D();
+        context.setFill(EMPTY_COLOR);
+        context.fillRect(0, 0, getWidth(), getHeight());
+        for (int i = 0; i < topology.cells(); i++) {
+            drawCell(i);
+        }
+    }
+
+    /**
+     * Dessine une case de la grille.
+     *
+     * @param index L'indice de la case à dessiner.
+     */
+    private void drawCell(int index) {
+        GraphicsContext context = getGraphicsContext2D();
+        double x = (index % columns) * cellSize;
+        double y = (index / columns) * cellSize;
+        context.setFill(EMPTY_COLOR);
+        context.fillRect(x, y, cellSize, cellSize);
+
+        int value = board.get(index);
+        if (value == 0) {
+            return;
+        }
+
+        // La tuile affiche le morceau de l'image correspondant à sa place.
+        int goal = topology.goalIndex(value);
+        context.drawImage(source, (goal % columns) * sourceWidth,
+                (goal / columns) * sourceHeight,
+                sourceWidth, sourceHeight, x + gap, y + gap, cellSize - 2 * gap,
+                cellSize - 2 * gap);
+
+        if (index == highlighted) {
+            double width = Math.max(1, cellSize / 20);
+            context.setStroke(HIGHLIGHT_COLOR);
+            context.setLineWidth(width);
+            context.strokeRect(x + width / 2, y + width / 2, cellSize - width,
+                    cellSize - width);
+        }
+    }
+
+}
@@ -0,0 +1,278 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.univartois.butinfo.ihm.taquin.model.Taquin;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import javafx.animation.AnimationTimer;
+
+/**
+ * La classe SolutionPlayer rejoue automatiquement une suite de déplacements sur la
+ * grille du Taquin, à une vitesse donnée.
+ *
+ * La lecture est cadencée par les images affichées par JavaFX : à chaque image, les
+ * déplacements dus depuis la précédente (d'après la vitesse de lecture) sont réalisés
+ * en une seule fois par {@link Taquin#applyMoves(List)}.
+ * Lorsque l'affichage prend du retard, ou que la vitesse dépasse le nombre d'images par
+ * seconde, les états intermédiaires ne sont donc pas affichés, et aucun travail ne
+ * s'accumule sur le thread de JavaFX.
+ *
+ * Les déplacements peuvent aussi être reçus en continu, par paquets (voir
+ * {@link #stream()}) : la lecture commence alors dès le premier paquet, et attend les
+ * suivants si elle les rattrape.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class SolutionPlayer extends AnimationTimer {
+
+    /**
+     * La vitesse de lecture par défaut (en déplacements par seconde).
+     */
+    public static final double DEFAULT_SPEED = 8;
+
+    /**
+     * La vitesse de lecture minimale (en déplacements par seconde).
+     */
+    private static final double MIN_SPEED = 1;
+
+    /**
+     * La vitesse de lecture maximale (en déplacements par seconde).
+     */
+    private static final double MAX_SPEED = 1 << 16;
+
+    /**
+     * Le nombre de nanosecondes dans une seconde.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Le jeu sur lequel les déplacements sont réalisés.
+     */
+    private final Taquin taquin;
+
+    /**
+     * Les déplacements à rejouer.
+     */
+    private List<Move> moves = List.of();
+
+    /**
+     * L'indice du prochain déplacement à rejouer.
+     */
+    private int position;
+
+    /**
+     * La vitesse de lecture (en déplacements par seconde).
+     */
+    private double speed = DEFAULT_SPEED;
+
+    /**
+     * Le nombre (fractionnaire) de déplacements dus, mais pas encore réalisés.
+     */
+    private double credit;
+
+    /**
+     * L'instant (en nanosecondes) de la dernière image traitée, ou {@code -1} si aucune
+     * image n'a été traitée depuis le démarrage de la lecture.
+     */
+    private long lastFrame = -1;
+
+    /**
+     * Si la lecture est en cours.
+     */
+    private boolean playing;
+
+    /**
+     * Si d'autres déplacements sont attendus pour la suite de déplacements en cours.
+     */
+    private boolean streaming;
+
+    /**
+     * Construit une nouvelle instance de SolutionPlayer.
+     *
+     * @param taquin Le jeu sur lequel les déplacements sont réalisés.
+     */
+    public SolutionPlayer(Taquin taquin) {
+        this.taquin = taquin;
+    }
+
+    /**
+     * Commence la lecture d'une nouvelle suite de déplacements, à partir de l'état
+     * courant de la grille.
+     *
+     * @param solution Les déplacements à rejouer.
+     */
+    public void play(List<Move> solution) {
+        this.moves = solution;
+        this.position = 0;
+        resume();
+    }
+
+    /**
+     * Commence la lecture d'une nouvelle suite de déplacements reçue en continu, à
+     * partir de l'état courant de la grille.
+     * Les déplacements sont ajoutés avec {@link #append(List)}, jusqu'à l'appel de
+     * {@link #endStream()}.
+     */
+    public void stream() {
+        this.moves = new ArrayList<>();
+        this.position = 0;
+        this.streaming = true;
+        resume();
+    }
+
+    /**
+     * Ajoute des déplacements à la suite de déplacements reçue en continu.
+     *
+     * @param batch Les déplacements à ajouter.
+     */
+    public void append(List<Move> batch) {
+        if (streaming) {
+            moves.addAll(batch);
+        }
+    }
+
+    /**
+     * Indique que la suite de déplacements reçue en continu est complète.
+     */
+    public void endStream() {
+        streaming = false;
+    }
+
+    /**
+     * Met la lecture en pause.
+     */
+    public void pause() {
+        playing = false;
+        stop();
+    }
+
+    /**
+     * Reprend la lecture, si elle n'est pas terminée.
+     */
+    public void resume() {
+        if (!isFinished()) {
+            playing = true;
+            credit = 0;
+            lastFrame = -1;
+            start();
+        }
+    }
+
+    /**
+     * Met la lecture en pause si elle est en cours, et la reprend sinon.
+     */
+    public void togglePause() {
+        if (playing) {
+            pause();
+        } else {
+            resume();
+        }
+    }
+
+    /**
+     * Arrête définitivement la lecture en cours.
+     */
+    public void cancel() {
+        pause();
+        moves = List.of();
+        position = 0;
+        streaming = false;
+    }
+
+    /**
+     * Réalise le prochain déplacement, en mettant la lecture en pause.
+     */
+    public void step() {
+        pause();
+        advance(1);
+    }
+
+    /**
+     * Modifie la vitesse de lecture.
+     * La vitesse est bornée entre 1 et 65536 déplacements par seconde.
+     *
+     * @param movesPerSecond La nouvelle vitesse (en déplacements par seconde).
+     */
+    public void setSpeed(double movesPerSecond) {
+        this.speed = Math.max(MIN_SPEED, Math.min(MAX_SPEED, movesPerSecond));
+    }
+
+    /**
+     * Donne la vitesse de lecture.
+     *
+     * @return La vitesse (en déplacements par seconde).
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Indique si la lecture est en cours.
+     *
+     * @return Si la lecture est en cours (et non en pause ou terminée).
+     */
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Indique si tous les déplacements ont été rejoués.
+     *
+     * @return Si la lecture est terminée.
+     */
+    public boolean isFinished() {
+        return (position >= moves.size()) && !streaming;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see javafx.animation.AnimationTimer#handle(long)
+     */
+    @Override
+    public void handle(long now) {
+        if (lastFrame >= 0) {
+            credit += (now - lastFrame) * speed / NANOS_PER_SECOND;
+        }
+        lastFrame = now;
+
+        int due = (int) Math.min(credit, moves.size() - position);
+        if (due > 0) {
+            credit -= due;
+            advance(due);
+
+        } else if (position >= moves.size()) {
+            // Les déplacements suivants ne sont pas encore arrivés : le retard pris en
+            // les attendant n'a pas à être rattrapé.
+            credit = 0;
+        }
+
+        if (isFinished()) {
+            pause();
+        }
+    }
+
+    /**
+     * Réalise les prochains déplacements en une seule fois.
+     *
+     * @param count Le nombre de déplacements à réaliser.
+     */
+    private void advance(int count) {
+        int end = Math.min(position + count, moves.size());
+        if (position < end) {
+            taquin.applyMoves(moves.subList(position, end));
+            position = end;
+        }
+    }
+
+}
@@ -7,28 +7,19 @@
 
 package fr.univartois.butinfo.ihm.taquin.controller;
 
-import java.net.URL;
-
-
+import java.util.concurrent.CompletableFuture;
 
 import fr.univartois.butinfo.ihm.taquin.model.Grid;
 import fr.univartois.butinfo.ihm.taquin.model.ITaquinController;
 import fr.univartois.butinfo.ihm.taquin.model.Taquin;
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.value.ObservableValue;
 import javafx.fxml.FXML;
 import javafx.scene.Scene;
-import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import javafx.scene.input.MouseEvent;
-import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundImage;
-import javafx.scene.layout.BackgroundPosition;
-import javafx.scene.layout.BackgroundRepeat;
-import javafx.scene.layout.BackgroundSize;
 import javafx.scene.layout.GridPane;
 
 /**
@@ -39,9 +30,7 @@ import javafx.scene.layout.GridPane;
  * @version 0.1.0
  */
 public class TaquinController implements ITaquinController {
-	
-	
-	
+
     /**
      * Le label affichant le nombre de deplacements realises par l'utilisateur.
      */
@@ -49,15 +38,25 @@ public class TaquinController implements ITaquinController {
     private Label nbMoves;
 
     /**
-     * La grille affichant les boutons permettant de jouer au Taquin.
+     * La grille dans laquelle le plateau du Taquin est affiche.
      */
     @FXML
     private GridPane gridPane;
 
     /**
-     * Les boutons representant les tuiles deu jeu du Taquin.
+     * Le plateau affichant les tuiles du jeu du Taquin.
+     */
+    private BoardCanvas canvas;
+
+    /**
+     * La grille affichee par ce controleur.
      */
-    private Button[][] buttons;
+    private Grid grid;
+
+    /**
+     * Le lecteur rejouant automatiquement les solutions calculees.
+     */
+    private SolutionPlayer player;
 
     /**
      * Le modele du Taquin avec lequel ce controleur interagit.
@@ -76,6 +75,7 @@ public class TaquinController implements ITaquinController {
     @Override
     public void setModel(Taquin taquin) {
         this.taquin = taquin;
+        this.player = new SolutionPlayer(taquin);
     }
 
     /*
@@ -87,34 +87,19 @@ public class TaquinController implements ITaquinController {
      */
     @Override
     public void initGrid(Grid grid) {
-    	buttons = new Button[grid.size()][grid.size()];
-    	 for (int i = 0; i < grid.size(); i++) {
-             for (int j = 0; j < grid.size(); j++) {
-            	 int value =grid.get(i, j).getValue();
-            	 buttons[i][j]= new Button();
-                 buttons[i][j]= createButton(i,j,value);
-                 gridPane.add(buttons[i][j], j, i);
-                 buttons[i][j].setPrefHeight(100);
-                 buttons[i][j].setPrefWidth(100);
-                // buttons[i][j].textProperty().bind(grid.get(i, j).getValueProperty().asString());
-                 grid.get(i, j).getValueProperty().isNotEqualTo(0);
-                 buttons[i][j].visibleProperty().bind(grid.get(i, j).getValueProperty().isNotEqualTo(0));
-                 buttons[i][j].setBackground(createBackground(grid.get(i, j).getValue()));
-                 Button currentButton= buttons[i][j];
-                 grid.get(i, j).getValueProperty().addListener(
-                		    (p, o, n) -> currentButton.setBackground(createBackground(n)));
-
-             }}
-    }
-    private Button createButton(int row,int column,int value) {
-    	Button button = new Button();
-    	//button.setText(Integer.toString(value));
-    	//button.setOnAction(e -> taquin.push(row,column));
-    	 button.addEventFilter(MouseEvent.MOUSE_CLICKED, e -> taquin.push(row,column));
-    	return button;
-    	
+        this.grid = grid;
+        canvas = new BoardCanvas(grid, TileBackgrounds.sourceImage());
+        canvas.setOnMouseClicked(e -> {
+            int index = canvas.cellAt(e.getX(), e.getY());
+            if (index >= 0) {
+                canvas.setHighlighted(-1);
+                player.cancel();
+                taquin.push(index / grid.width(), index % grid.width());
+            }
+        });
+        gridPane.add(canvas, 0, 0);
     }
-    
+
     /*
      * (non-Javadoc)
      * 
@@ -134,12 +119,7 @@ public class TaquinController implements ITaquinController {
      */
     @Override
     public void startGame() {
-        int size = buttons.length;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                buttons[i][j].setDisable(false);
-            }
-        }
+        canvas.setDisable(false);
     }
 
     /**
@@ -147,6 +127,7 @@ public class TaquinController implements ITaquinController {
      */
     @FXML
     public void restart() {
+        player.cancel();
         taquin.restartGame();
     }
 
@@ -157,46 +138,97 @@ public class TaquinController implements ITaquinController {
      */
     @Override
     public void endGame() {
-        int size = buttons.length;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                buttons[i][j].setDisable(true);
-            }
-        }
-    }
-
-    /**
-     * Determine l'arrière-plan de la tuile ayant l'indice donne.
-     *
-     * @param index L'indice de la tuile.
-     *
-     * @return L'arrière-plan associé à la tuile.
-     */
-    private Background createBackground(Number index) {
-        URL urlImage = getClass().getResource("../view/images/iut-" + index + ".jpg");
-        BackgroundImage backgroundImage = new BackgroundImage(
-                new Image(urlImage.toExternalForm(), 100, 100, true, false),
-                BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
-                BackgroundPosition.DEFAULT, BackgroundSize.DEFAULT);
-        return new Background(backgroundImage);
+        canvas.setDisable(true);
     }
 
 	public void setScene(Scene scene) {
 		this.scene = scene;
 		scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
-		    if (e.getCode() == KeyCode.UP) {
-		        taquin.pushUp();
-		    } else if (e.getCode() == KeyCode.LEFT) {
-		        taquin.pushLeft();
-		    } else if (e.getCode() == KeyCode.DOWN) {
-		        taquin.pushDown();
-		    } else if (e.getCode() == KeyCode.RIGHT) {
-		        taquin.pushRight();
+		    canvas.setHighlighted(-1);
+		    if (e.getCode() == KeyCode.H) {
+		        showHint();
+		    } else if (e.getCode() == KeyCode.S) {
+		        playSolution();
+		    } else if (e.getCode() == KeyCode.SPACE) {
+		        player.togglePause();
+		    } else if (e.getCode() == KeyCode.N) {
+		        player.step();
+		    } else if ((e.getCode() == KeyCode.ADD) || (e.getCode() == KeyCode.PLUS)) {
+		        player.setSpeed(2 * player.getSpeed());
+		    } else if ((e.getCode() == KeyCode.SUBTRACT) || (e.getCode() == KeyCode.MINUS)) {
+		        player.setSpeed(player.getSpeed() / 2);
+		    } else if (isMove(e)) {
+		        // Le joueur reprend la main : la solution en cours n'est plus valable.
+		        player.cancel();
+		        push(e);
 		    }
 		    e.consume();
 		});
 
 	}
+
+    /**
+     * Verifie si une touche correspond a un deplacement (ou a son annulation).
+     *
+     * @param e L'evenement de la touche pressee.
+     *
+     * @return Si la touche correspond a un deplacement.
+     */
+    private static boolean isMove(KeyEvent e) {
+        KeyCode code = e.getCode();
+        return (e.isShortcutDown() && ((code == KeyCode.Z) || (code == KeyCode.Y)))
+                || code.isArrowKey();
+    }
+
+    /**
+     * Realise le deplacement correspondant a une touche.
+     *
+     * @param e L'evenement de la touche pressee.
+     */
+    private void push(KeyEvent e) {
+        if (e.isShortcutDown() && (e.getCode() == KeyCode.Z)) {
+            taquin.undo();
+        } else if (e.isShortcutDown() && (e.getCode() == KeyCode.Y)) {
+            taquin.redo();
+        } else if (e.getCode() == KeyCode.UP) {
+            taquin.pushUp();
+        } else if (e.getCode() == KeyCode.LEFT) {
+            taquin.pushLeft();
+        } else if (e.getCode() == KeyCode.DOWN) {
+            taquin.pushDown();
+        } else if (e.getCode() == KeyCode.RIGHT) {
+            taquin.pushRight();
+        }
+    }
+
+    /**
+     * Calcule une solution pour la grille courante, et la rejoue automatiquement au fur
+     * et a mesure qu'elle est calculee.
+     * La recherche est realisee en dehors du thread de JavaFX, et s'arrete si le joueur
+     * se deplace entre-temps.
+     */
+    private void playSolution() {
+        player.cancel();
+        CompletableFuture<Integer> solving = taquin.streamSolutionAsync(player::append);
+        player.stream();
+        solving.whenComplete((length, error) -> player.endStream());
+    }
+
+    /**
+     * Met en evidence la tuile a pousser pour se rapprocher de la solution.
+     * La recherche est realisee en dehors du thread de JavaFX, et son resultat est
+     * ignore si le joueur se deplace entre-temps.
+     */
+    private void showHint() {
+        taquin.hintAsync().thenAccept(move -> {
+            if (move != null) {
+                IBoard board = grid.getBoard();
+                canvas.setHighlighted(
+                        board.topology().neighbor(board.emptyIndex(), move.ordinal()));
+            }
+        });
+    }
+
 	@FunctionalInterface
 	public interface ChangeListener<T> {
 	    void changed(ObservableValue<? extends T> observable,
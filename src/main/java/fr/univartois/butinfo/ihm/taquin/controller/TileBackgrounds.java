@@ -0,0 +1,71 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.controller;
+
+import java.net.URL;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+/**
+ * La classe TileBackgrounds assemble l'image affichée par une grille ordonnée, à partir
+ * des images des tuiles fournies avec l'application.
+ * Chaque tuile lit ensuite son morceau de cette image (voir {@link BoardCanvas}), ce qui
+ * permet d'afficher des grilles de n'importe quelle taille.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class TileBackgrounds {
+
+    /**
+     * Le chemin des images des tuiles, à compléter par l'indice de la tuile.
+     */
+    private static final String IMAGES = "/fr/univartois/butinfo/ihm/taquin/view/images/iut-";
+
+    /**
+     * La taille de la grille pour laquelle une image par tuile est disponible.
+     */
+    private static final int IMAGES_SIZE = 4;
+
+    /**
+     * La taille (en pixels) d'une tuile.
+     */
+    public static final int TILE_SIZE = 100;
+
+    /**
+     * Empêche l'instanciation de cette classe utilitaire.
+     */
+    private TileBackgrounds() {
+        throw new AssertionError("No TileBackgrounds instances for you!");
+    }
+
+    /**
+     * Donne l'image complète affichée par une grille ordonnée, dans laquelle chaque
+     * tuile peut lire son morceau.
+     * Les images des tuiles sont copiées directement à leur place dans cette image.
+     *
+     * @return L'image réassemblée à partir des images des tuiles.
+     */
+    public static Image sourceImage() {
+        int cells = IMAGES_SIZE * IMAGES_SIZE;
+        WritableImage image = new WritableImage(IMAGES_SIZE * TILE_SIZE,
+                IMAGES_SIZE * TILE_SIZE);
+        for (int value = 0; value < cells; value++) {
+            URL urlImage = TileBackgrounds.class.getResource(IMAGES + value + ".jpg");
+            Image tile = new Image(urlImage.toExternalForm(), TILE_SIZE, TILE_SIZE, true, false);
+            int cell = (value == 0) ? (cells - 1) : (value - 1);
+            image.getPixelWriter().setPixels((cell % IMAGES_SIZE) * TILE_SIZE,
+                    (cell / IMAGES_SIZE) * TILE_SIZE, (int) tile.getWidth(),
+                    (int) tile.getHeight(), tile.getPixelReader(), 0, 0);
+        }
+        return image;
+    }
+
+}
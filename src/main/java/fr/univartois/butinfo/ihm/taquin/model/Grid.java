@@ -7,11 +7,23 @@
 
 package fr.univartois.butinfo.ihm.taquin.model;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.Shuffler;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.Metrics;
 
 /**
  * La classe Grid represente la grille sur laquelle se joue le jeu du Taquin.
  *
+ * L'etat de la grille est stocke dans un {@link IBoard}, qui ne depend pas de JavaFX.
+ * Les tuiles observables ne sont creees que lorsqu'une vue les demande, et ne sont
+ * alors synchronisees qu'avec les cases modifiees par chaque deplacement.
+ *
  * @author Theo journee
  *
  * @version 0.1.0
@@ -19,36 +31,65 @@ import java.util.Random;
 public class Grid {
 
     /**
-     * Le genarateur de nombres aleatoires utilise pour melanger les tuiles sur cette
-     * grille.
+     * L'inverse de la proportion de cases modifiees par une suite de deplacements
+     * au-delà de laquelle la grille est mise à jour entierement plutot que case par case.
      */
-    private static final Random RANDOM = new Random();
+    private static final int BATCH_REFRESH_RATIO = 4;
 
     /**
-     * Le nombre de permutations à realiser au moment de melanger les tuiles sur la
-     * grille.
+     * Le nombre de lignes de la grille.
+     */
+    private final int height;
+
+    /**
+     * Le nombre de colonnes de la grille.
+     */
+    private final int width;
+
+    /**
+     * L'etat brut de la grille.
+     */
+    private final IBoard board;
+
+    /**
+     * Les tuiles presentes sur cette grille, creees à la premiere demande d'une vue.
+     */
+    private Tile[][] allTiles;
+
+    /**
+     * L'ecouteur notifie des modifications de cette grille, s'il y en a un.
+     */
+    private IGridListener listener;
+
+    /**
+     * Si une suite de deplacements est en cours, pendant laquelle les notifications sont
+     * differees.
      */
-    private static final int NB_PERMUTATIONS = 1000;
+    private boolean batching;
 
     /**
-     * La taille de la grille (en nombre de tuiles).
+     * Les indices des cases modifiees depuis le debut de la suite de deplacements en
+     * cours, ou {@code null} si aucune suite n'a encore ete realisee.
      */
-    private final int size;
+    private int[] changedCells;
 
     /**
-     * Les tuiles presentes sur cette grille.
+     * Les cases modifiees depuis le debut de la suite de deplacements en cours, ou
+     * {@code null} si aucune suite n'a encore ete realisee.
      */
-    private final Tile[][] allTiles;
+    private boolean[] changed;
 
     /**
-     * La ligne  se trouve la tuile vide.
+     * Le nombre de cases modifiees depuis le debut de la suite de deplacements en cours,
+     * ou {@code -1} si elles sont trop nombreuses pour etre notifiees individuellement.
      */
-    private int emptyRow;
+    private int changedCount;
 
     /**
-     * La colonne se trouve la tuile vide.
+     * Le genarateur de nombres aleatoires utilise pour melanger les tuiles sur cette
+     * grille.
      */
-    private int emptyColumn;
+    private SplittableRandom random = new SplittableRandom();
 
     /**
      * Construit une nouvelle instance de Grid.
@@ -56,90 +97,130 @@ public class Grid {
      * @param size La taille de la grille à construire.
      */
     public Grid(int size) {
-        this.size = size;
-        this.allTiles = new Tile[size][size];
-        initialize();
+        this(Topology.of(size));
+    }
+
+    /**
+     * Construit une nouvelle instance de Grid, de forme et de disposition finale
+     * quelconques.
+     *
+     * @param topology La topologie de la grille à construire.
+     */
+    public Grid(Topology topology) {
+        this.height = topology.height();
+        this.width = topology.width();
+        this.board = IBoard.create(topology);
     }
 
     /**
-     * Initialise cette grille en creant les tuiles qu'elle contient.
+     * Initialise les tuiles observables de cette grille à partir de son etat brut.
      */
     private void initialize() {
-        // On cree les tuiles dans l'orde.
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                int value = i * size + j + 1;
-                if (value == size * size) {
-                    value = 0;
-                }
-                allTiles[i][j] = new Tile(value);
+        allTiles = new Tile[height][width];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                allTiles[i][j] = new Tile(board.get(i, j));
             }
         }
-
-        // On s'assure que la tuile vide est dans le coin inferieur droit.
-        emptyRow = size - 1;
-        emptyColumn = size - 1;
     }
 
     /**
-     * Reinitialise cette grille en reordonnant les tuiles qu'elle contient.
+     * Met à jour toutes les tuiles observables de cette grille, si elles existent.
      */
-    public void reset() {
-        // On remet les tuiles dans l'orde.
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                int value = i * size + j + 1;
-                if (value == size * size) {
-                    value = 0;
-                }
-                allTiles[i][j].setValue(value);
+    private void synchronize() {
+        if (listener != null) {
+            listener.gridChanged();
+        }
+
+        if (allTiles == null) {
+            return;
+        }
+
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                allTiles[i][j].setValue(board.get(i, j));
             }
         }
+    }
+
+    /**
+     * Modifie l'ecouteur notifie des modifications de cette grille.
+     * Les vues utilisant un ecouteur n'ont pas besoin des tuiles observables, qui ne sont
+     * alors jamais creees.
+     *
+     * @param listener L'ecouteur a notifier, ou {@code null} pour n'en notifier aucun.
+     */
+    public void setListener(IGridListener listener) {
+        this.listener = listener;
+    }
 
-        // On s'assure que la tuile vide est dans le coin inferieur droit.
-        emptyRow = size - 1;
-        emptyColumn = size - 1;
+    /**
+     * Reinitialise cette grille en reordonnant les tuiles qu'elle contient.
+     */
+    public void reset() {
+        board.reset();
+        synchronize();
     }
 
     /**
-     * Donne la taille de la grille (en nombre de tuiles).
+     * Donne la taille de la grille (en nombre de tuiles par côté pour une grille carrée,
+     * sa plus grande dimension sinon).
      *
      * @return La taille de la grille.
      */
     public int size() {
-        return size;
+        return Math.max(height, width);
     }
 
     /**
-     * Vérifie si un indice donné se trouve bien sur la grille.
+     * Donne le nombre de lignes de la grille.
      *
-     * @param i L'indice à vérifier.
+     * @return Le nombre de lignes.
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Donne le nombre de colonnes de la grille.
      *
-     * @return Si l'indice est bien sur cette grille.
+     * @return Le nombre de colonnes.
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Donne l'etat brut de cette grille, sur lequel les solveurs peuvent travailler
+     * sans passer par les tuiles observables.
+     *
+     * Toute modification directe de cet etat doit etre suivie d'un appel à
+     * {@link #refresh()}.
+     *
+     * @return L'etat brut de la grille.
+     */
+    public IBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Met à jour les tuiles observables après une modification directe de l'etat brut
+     * de la grille.
      */
-    public boolean checkIndex(int i) {
-        return (0 <= i) && (i < size);
+    public void refresh() {
+        synchronize();
     }
 
     /**
-     * Vérifie si une position donnée dans la grille est voisine de la tuile vide.
+     * Vérifie si une position donnée se trouve bien sur la grille.
      *
      * @param row La ligne à vérifier.
      * @param column La colonne à vérifier.
      *
-     * @return Si la position donnée est voisine de la tuile vide.
+     * @return Si la position est bien sur cette grille.
      */
-    private boolean isNearEmpty(int row, int column) {
-        if (!checkIndex(row) || !checkIndex(column)) {
-            // La position est en dehors de la grille.
-            return false;
-        }
-
-        // On compare la position avec celle de la tuile vide.
-        return ((row - 1 == emptyRow) && (column == emptyColumn))
-                || ((row + 1 == emptyRow) && (column == emptyColumn))
-                || ((row == emptyRow) && (column - 1 == emptyColumn))
-                || ((row == emptyRow) && (column + 1 == emptyColumn));
+    public boolean checkIndex(int row, int column) {
+        return (0 <= row) && (row < height) && (0 <= column) && (column < width);
     }
 
     /**
@@ -151,6 +232,9 @@ public class Grid {
      * @return La tuile à la position demandée.
      */
     public Tile get(int row, int column) {
+        if (allTiles == null) {
+            initialize();
+        }
         return allTiles[row][column];
     }
 
@@ -163,25 +247,154 @@ public class Grid {
      * @return Si un déplacement a effectivement eu lieu.
      */
     public boolean push(int row, int column) {
-        if (isNearEmpty(row, column)) {
-            Tile empty = allTiles[emptyRow][emptyColumn];
-            Tile other = allTiles[row][column];
-            empty.exchange(other);
-            emptyRow = row;
-            emptyColumn = column;
+        if (!checkIndex(row, column)) {
+            // La position est en dehors de la grille.
+            return false;
+        }
+
+        int empty = board.emptyIndex();
+        if (board.push(row * width + column)) {
+            exchange(empty);
             return true;
         }
 
         return false;
     }
 
+    /**
+     * Realise un deplacement sur cette grille.
+     *
+     * @param move Le deplacement à realiser.
+     *
+     * @return Si un déplacement a effectivement eu lieu.
+     */
+    public boolean push(Move move) {
+        int empty = board.emptyIndex();
+        if (board.push(move)) {
+            exchange(empty);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Repercute sur les tuiles observables le dernier deplacement realise sur l'etat
+     * brut de la grille.
+     *
+     * @param previousEmpty L'indice de la case qui etait vide avant le deplacement.
+     */
+    private void exchange(int previousEmpty) {
+        if (Metrics.isEnabled()) {
+            Metrics.recordMove();
+        }
+
+        int empty = board.emptyIndex();
+        if (batching) {
+            markChanged(previousEmpty);
+            markChanged(empty);
+            return;
+        }
+
+        if (listener != null) {
+            listener.cellsExchanged(previousEmpty, empty);
+        }
+
+        if (allTiles != null) {
+            Tile before = allTiles[previousEmpty / width][previousEmpty % width];
+            Tile after = allTiles[empty / width][empty % width];
+            before.exchange(after);
+        }
+    }
+
+    /**
+     * Realise une suite de deplacements sur cette grille, en ignorant ceux qui sont
+     * impossibles.
+     * Les deplacements sont realises sur l'etat brut de la grille, et les tuiles
+     * observables et l'ecouteur ne sont notifies qu'une seule fois, à la fin.
+     *
+     * @param moves Les deplacements à realiser.
+     *
+     * @return Le nombre de deplacements effectivement realises.
+     */
+    public int applyMoves(List<Move> moves) {
+        beginBatch();
+        int applied = 0;
+        for (Move move : moves) {
+            if (push(move)) {
+                applied++;
+            }
+        }
+        endBatch();
+        return applied;
+    }
+
+    /**
+     * Commence une suite de deplacements : jusqu'à l'appel de {@link #endBatch()}, les
+     * modifications de la grille ne sont pas repercutees sur les tuiles observables ni
+     * sur l'ecouteur, mais seulement memorisees.
+     */
+    public void beginBatch() {
+        if (changed == null) {
+            changed = new boolean[height * width];
+            changedCells = new int[(height * width) / BATCH_REFRESH_RATIO];
+        }
+        batching = true;
+        changedCount = 0;
+    }
+
+    /**
+     * Termine une suite de deplacements, en repercutant en une seule fois toutes les
+     * modifications de la grille : case par case si elles sont peu nombreuses, et sur
+     * la grille entiere sinon.
+     */
+    public void endBatch() {
+        batching = false;
+        if (changedCount < 0) {
+            synchronize();
+            return;
+        }
+
+        for (int i = 0; i < changedCount; i++) {
+            int cell = changedCells[i];
+            changed[cell] = false;
+            if (allTiles != null) {
+                allTiles[cell / width][cell % width].setValue(board.get(cell));
+            }
+        }
+        if ((listener != null) && (changedCount > 0)) {
+            listener.cellsChanged(changedCells, changedCount);
+        }
+    }
+
+    /**
+     * Memorise qu'une case a ete modifiee pendant la suite de deplacements en cours.
+     *
+     * @param cell L'indice de la case modifiee.
+     */
+    private void markChanged(int cell) {
+        if ((changedCount < 0) || changed[cell]) {
+            return;
+        }
+
+        if (changedCount == changedCells.length) {
+            // Trop de cases ont ete modifiees : la grille sera mise à jour entierement.
+            Arrays.fill(changed, false);
+            changedCount = -1;
+            return;
+        }
+
+        changed[cell] = true;
+        changedCells[changedCount++] = cell;
+    }
+
     /**
      * Pousse la case situé sous l'emplacement vide dans cet emplacement.
      *
      * @return Si un déplacement a effectivement eu lieu.
      */
     public boolean pushUp() {
-        return push(emptyRow + 1, emptyColumn);
+        return push(Move.UP);
     }
 
     /**
@@ -190,7 +403,7 @@ public class Grid {
      * @return Si un déplacement a effectivement eu lieu.
      */
     public boolean pushRight() {
-        return push(emptyRow, emptyColumn - 1);
+        return push(Move.RIGHT);
     }
 
     /**
@@ -199,7 +412,7 @@ public class Grid {
      * @return Si un déplacement a effectivement eu lieu.
      */
     public boolean pushDown() {
-        return push(emptyRow - 1, emptyColumn);
+        return push(Move.DOWN);
     }
 
     /**
@@ -208,62 +421,88 @@ public class Grid {
      * @return Si un deplacement a effectivement eu lieu.
      */
     public boolean pushLeft() {
-        return push(emptyRow, emptyColumn + 1);
+        return push(Move.LEFT);
     }
 
     /**
-     * Melange les tuiles de cette grille, en respectant la regle du deplacement des
-     * tuiles par l'intermédiaire de la tuile vide.
+     * Modifie le generateur de nombres aleatoires utilise pour melanger les tuiles sur
+     * cette grille, par exemple pour reproduire un melange à partir de son germe.
+     *
+     * @param random Le generateur à utiliser.
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Melange les tuiles de cette grille, en tirant uniformement une configuration
+     * parmi toutes celles qu'il est possible de resoudre.
      *
      * Il est important de preciser que l'on ne peut pas juste mélanger les valeurs sans
-     * respecter cette règle, car cela pourrait creer des combinaisons qu'il n'est pas
-     * possible de resoudre.
+     * verifier la parite de la permutation obtenue, car cela pourrait creer des
+     * combinaisons qu'il n'est pas possible de resoudre.
+     *
+     * @see Shuffler#permute(IBoard, SplittableRandom)
      */
     public void shuffle() {
-        for (int i = 0; i < NB_PERMUTATIONS; i++) {
-            int row;
-            int col;
-
-            do {
-                // On commence par choisir la ligne (relativement à la case vide).
-                row = RANDOM.nextInt(-1, 2);
-
-                if (row == 0) {
-                    // La ligne est la meme que celle de l'emplacement vide.
-                    // Il faut donc forcer le changement de colonne.
-                    col = 2 * RANDOM.nextInt(2) - 1;
-
-                } else {
-                    // La colonne doit rester fixe.
-                    col = 0;
-                }
-
-                // On calcule la position (absolue) de la tuile à deplacer.
-                row += emptyRow;
-                col += emptyColumn;
-
-            } while (!checkIndex(col) || !checkIndex(row));
+        long start = System.nanoTime();
+        Shuffler.permute(board, random);
+        if (Metrics.isEnabled()) {
+            Metrics.recordShuffle(size(), 0, start);
+        }
+        synchronize();
+    }
 
-            // On pousse la tuile selectionnée.
-            push(row, col);
+    /**
+     * Melange les tuiles de cette grille en realisant des deplacements au hasard, en
+     * respectant la regle du deplacement des tuiles par l'intermédiaire de la tuile
+     * vide.
+     * Plus le nombre de deplacements est faible, plus la grille obtenue est facile.
+     *
+     * Les deplacements sont realises sur l'etat brut de la grille, et les tuiles
+     * observables ne sont mises à jour qu'une seule fois à la fin du melange.
+     *
+     * @param nbMoves Le nombre de deplacements à realiser.
+     *
+     * @see Shuffler#walk(IBoard, int, SplittableRandom)
+     */
+    public void walk(int nbMoves) {
+        long start = System.nanoTime();
+        Shuffler.walk(board, nbMoves, random);
+        if (Metrics.isEnabled()) {
+            Metrics.recordShuffle(size(), nbMoves, start);
         }
+        synchronize();
     }
 
     /**
      * Verifie si les tuiles sont ordonnees sur la grille.
+     * Cette verification ne parcourt pas la grille : elle s'appuie sur le nombre de
+     * tuiles mal placees, maintenu à chaque deplacement.
      *
      * @return Si les tuiles sont ordonnees.
      */
     public boolean isOrdered() {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                int value = i * size + j + 1;
-                if ((value != size * size) && (value != allTiles[i][j].getValue())) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return board.isOrdered();
+    }
+
+    /**
+     * Donne le nombre de tuiles qui ne sont pas à leur place sur la grille.
+     *
+     * @return Le nombre de tuiles mal placees.
+     */
+    public int getMisplacedCount() {
+        return board.misplaced();
+    }
+
+    /**
+     * Donne la distance (de Manhattan) entre la grille et la configuration ordonnee,
+     * c'est-à-dire la somme des distances entre chaque tuile et sa place.
+     *
+     * @return La distance de la grille à la configuration ordonnee.
+     */
+    public int getManhattanDistance() {
+        return board.manhattan();
     }
 
 }
@@ -0,0 +1,48 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model;
+
+/**
+ * L'interface IGridListener définit le contrat des objets notifiés des modifications
+ * d'une {@link Grid}.
+ *
+ * Contrairement aux tuiles observables, un tel écouteur ne nécessite la création
+ * d'aucun objet par case : il convient donc aux vues des grandes grilles.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public interface IGridListener {
+
+    /**
+     * Notifie cet écouteur que les valeurs de deux cases ont été échangées par un
+     * déplacement.
+     *
+     * @param first L'indice de la première case modifiée.
+     * @param second L'indice de la seconde case modifiée.
+     */
+    void cellsExchanged(int first, int second);
+
+    /**
+     * Notifie cet écouteur que les valeurs de plusieurs cases ont été modifiées par une
+     * suite de déplacements.
+     *
+     * @param cells Les indices des cases modifiées, sans doublon.
+     * @param count Le nombre de cases modifiées, c'est-à-dire le nombre d'indices à lire
+     *        dans {@code cells}.
+     */
+    void cellsChanged(int[] cells, int count);
+
+    /**
+     * Notifie cet écouteur que l'ensemble de la grille a pu être modifié (par exemple
+     * lors d'un mélange).
+     */
+    void gridChanged();
+
+}
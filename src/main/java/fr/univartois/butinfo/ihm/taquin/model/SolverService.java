@@ -0,0 +1,253 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.solver.ISolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.IStreamingSolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.Solution;
+import javafx.application.Platform;
+
+/**
+ * La classe SolverService exécute les solveurs en dehors du thread de JavaFX, pour que
+ * l'interface graphique reste fluide pendant les recherches.
+ *
+ * Les recherches sont réalisées par un nombre borné de threads, et le nombre de
+ * recherches en attente est lui aussi borné.
+ * Chacune travaille sur une copie de la grille, et son résultat est transmis par un
+ * {@link CompletableFuture} complété sur le thread de JavaFX (par
+ * {@link Platform#runLater(Runnable)}).
+ * Annuler ce {@link CompletableFuture} interrompt le thread réalisant la recherche.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class SolverService implements AutoCloseable {
+
+    /**
+     * Le nombre de recherches pouvant attendre d'être exécutées, par défaut.
+     */
+    private static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    /**
+     * Le nombre de déplacements transmis à la fois par une résolution en continu.
+     */
+    private static final int STREAM_BATCH = 512;
+
+    /**
+     * Les threads réalisant les recherches.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * L'exécuteur sur lequel les résultats sont transmis.
+     */
+    private final Executor callbackExecutor;
+
+    /**
+     * Construit une nouvelle instance de SolverService, utilisant un seul thread et
+     * transmettant les résultats sur le thread de JavaFX.
+     */
+    public SolverService() {
+        this(1, DEFAULT_QUEUE_CAPACITY, Platform::runLater);
+    }
+
+    /**
+     * Construit une nouvelle instance de SolverService.
+     *
+     * @param threads Le nombre de threads réalisant les recherches.
+     * @param queueCapacity Le nombre de recherches pouvant attendre d'être exécutées.
+     * @param callbackExecutor L'exécuteur sur lequel les résultats sont transmis.
+     */
+    public SolverService(int threads, int queueCapacity, Executor callbackExecutor) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "taquin-solver");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Calcule de façon asynchrone une suite de déplacements ordonnant une grille.
+     * La grille est copiée avant de rendre la main, et peut donc être modifiée aussitôt.
+     *
+     * @param solver Le solveur à utiliser.
+     * @param board La grille à résoudre.
+     *
+     * @return La solution à venir, qui est complétée sur l'exécuteur des résultats, ou
+     *         exceptionnellement (avec une {@link RejectedExecutionException}) si trop
+     *         de recherches sont déjà en attente.
+     */
+    public CompletableFuture<Solution> solve(ISolver solver, IBoard board) {
+        return submit(board, solver::solve);
+    }
+
+    /**
+     * Calcule de façon asynchrone une suite de déplacements ordonnant une grille, en
+     * transmettant les déplacements par paquets au fur et à mesure qu'ils sont calculés.
+     * La grille est copiée avant de rendre la main, et peut donc être modifiée aussitôt.
+     *
+     * @param solver Le solveur à utiliser.
+     * @param board La grille à résoudre.
+     * @param batches L'action recevant les paquets de déplacements, dans l'ordre, sur
+     *        l'exécuteur des résultats.
+     *        Elle ne reçoit plus rien une fois la résolution annulée.
+     *
+     * @return Le nombre total de déplacements à venir, qui est complété sur l'exécuteur
+     *         des résultats après le dernier paquet.
+     */
+    public CompletableFuture<Integer> stream(IStreamingSolver solver, IBoard board,
+            Consumer<List<Move>> batches) {
+        Batcher batcher = new Batcher(batches);
+        CompletableFuture<Integer> result = submit(board, snapshot -> {
+            int length = solver.solve(snapshot, batcher);
+            batcher.flush();
+            return length;
+        });
+        batcher.result = result;
+        return result;
+    }
+
+    /**
+     * Réalise de façon asynchrone un calcul sur une grille.
+     * La grille est copiée avant de rendre la main, et peut donc être modifiée aussitôt.
+     *
+     * @param <T> Le type du résultat du calcul.
+     *
+     * @param board La grille sur laquelle réaliser le calcul.
+     * @param computation Le calcul à réaliser sur la copie de la grille.
+     *
+     * @return Le résultat à venir, qui est complété sur l'exécuteur des résultats, ou
+     *         exceptionnellement (avec une {@link RejectedExecutionException}) si trop
+     *         de calculs sont déjà en attente.
+     */
+    public <T> CompletableFuture<T> submit(IBoard board, Function<IBoard, T> computation) {
+        IBoard snapshot = board.copy();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                T value = computation.apply(snapshot);
+                callbackExecutor.execute(() -> result.complete(value));
+
+            } catch (CancellationException e) {
+                // La recherche a été interrompue : le résultat est déjà annulé.
+
+            } catch (RuntimeException | Error e) {
+                // Une erreur (par exemple un débordement de pile) doit aussi compléter le
+                // résultat : sinon, ceux qui l'attendent l'attendraient indéfiniment.
+                callbackExecutor.execute(() -> result.completeExceptionally(e));
+            }
+        }, null);
+
+        try {
+            executor.execute(task);
+
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+                executor.purge();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Arrête les threads de ce service, en interrompant les recherches en cours.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * La classe Batcher regroupe les déplacements transmis par un solveur en paquets,
+     * qui sont transmis sur l'exécuteur des résultats.
+     */
+    private final class Batcher implements Consumer<Move> {
+
+        /**
+         * L'action recevant les paquets de déplacements.
+         */
+        private final Consumer<List<Move>> batches;
+
+        /**
+         * Le paquet en cours de remplissage.
+         */
+        private List<Move> batch = new ArrayList<>(STREAM_BATCH);
+
+        /**
+         * Le résultat de la résolution, dont l'annulation interrompt la transmission
+         * des paquets.
+         */
+        private volatile CompletableFuture<?> result;
+
+        /**
+         * Construit une nouvelle instance de Batcher.
+         *
+         * @param batches L'action recevant les paquets de déplacements.
+         */
+        private Batcher(Consumer<List<Move>> batches) {
+            this.batches = batches;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.util.function.Consumer#accept(java.lang.Object)
+         */
+        @Override
+        public void accept(Move move) {
+            batch.add(move);
+            if (batch.size() == STREAM_BATCH) {
+                flush();
+            }
+        }
+
+        /**
+         * Transmet le paquet en cours, s'il n'est pas vide.
+         */
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<Move> full = batch;
+            batch = new ArrayList<>(STREAM_BATCH);
+            callbackExecutor.execute(() -> {
+                CompletableFuture<?> owner = result;
+                if ((owner == null) || !owner.isDone()) {
+                    batches.accept(full);
+                }
+            });
+        }
+
+    }
+
+}
@@ -16,6 +16,27 @@
 
 package fr.univartois.butinfo.ihm.taquin.model;
 
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.MoveJournal;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+import fr.univartois.butinfo.ihm.taquin.model.save.GameCheckpoint;
+import fr.univartois.butinfo.ihm.taquin.model.save.GameRecord;
+import fr.univartois.butinfo.ihm.taquin.model.save.GameSaver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.BidirectionalSolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.ConstructiveSolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.EightPuzzleTable;
+import fr.univartois.butinfo.ihm.taquin.model.solver.ISolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.IStreamingSolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.IdaStarSolver;
+import fr.univartois.butinfo.ihm.taquin.model.solver.PatternDatabaseHeuristic;
+import fr.univartois.butinfo.ihm.taquin.model.solver.Solution;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 
@@ -29,6 +50,42 @@ import javafx.beans.property.SimpleIntegerProperty;
  */
 public class Taquin {
 
+    /**
+     * Le solveur utilise pour suggerer un deplacement au joueur.
+     */
+    private static final ISolver HINT_SOLVER = new BidirectionalSolver();
+
+    /**
+     * Le solveur utilise pour suggerer un deplacement sur le Taquin classique 4x4 : au
+     * dela du budget du parcours bidirectionnel, IDA* y est guide par la base de motifs,
+     * qui n'est chargee que lors de la premiere recherche l'utilisant.
+     */
+    private static final ISolver STANDARD_HINT_SOLVER = new BidirectionalSolver(
+            BidirectionalSolver.DEFAULT_MAX_STATES,
+            board -> PatternDatabaseSolver.INSTANCE.solve(board));
+
+    /**
+     * Le solveur utilise sur les grandes grilles, hors de portee des recherches
+     * optimales.
+     */
+    private static final IStreamingSolver LARGE_SOLVER = new ConstructiveSolver();
+
+    /**
+     * Le service realisant les recherches en dehors du thread de JavaFX.
+     */
+    private final SolverService solverService = new SolverService();
+
+    /**
+     * La recherche asynchrone en cours, annulee des que la grille change.
+     */
+    private CompletableFuture<?> pendingSearch;
+
+    /**
+     * La resolution en continu en cours, dont les deplacements sont rejoues au fur et à
+     * mesure : elle n'est pas annulee par ces deplacements, mais par ceux du joueur.
+     */
+    private CompletableFuture<?> pendingStream;
+
     /**
      * La grille sur laquelle le jeu se deroule.
      */
@@ -39,20 +96,52 @@ public class Taquin {
      */
     private final IntegerProperty nbMoves;
 
+    /**
+     * L'historique des deplacements realises depuis le debut de la partie.
+     */
+    private MoveJournal journal = new MoveJournal();
+
+    /**
+     * Le service enregistrant l'etat de la partie apres chaque deplacement, ou
+     * {@code null} si la partie n'est pas enregistree.
+     */
+    private GameSaver saver;
+
+    /**
+     * L'identifiant de la partie en cours dans le journal des parties.
+     */
+    private long gameId;
+
     /**
      * Le controleur de l'application, avec lequel cette facade interagit pour maintenir
      * la conference avec la vue, et inversement.
      */
     private ITaquinController controller;
 
+    /**
+     * La difficulte des parties : le nombre de deplacements aleatoires realises pour
+     * melanger la grille, ou {@code 0} pour un melange uniforme.
+     */
+    private int difficulty;
+
     /**
      * Construit une nouvelle instance du jeu du Taquin.
      *
      * @param size La taille de la grille sur laquelle le jeu se deroule.
      */
     public Taquin(int size) {
-        nbMoves =new SimpleIntegerProperty(0);
-        this.grid = new Grid(size);
+        this(Topology.of(size));
+    }
+
+    /**
+     * Construit une nouvelle instance du jeu du Taquin, sur une grille de forme et de
+     * disposition finale quelconques.
+     *
+     * @param topology La topologie de la grille sur laquelle le jeu se deroule.
+     */
+    public Taquin(Topology topology) {
+        nbMoves = new SimpleIntegerProperty(0);
+        this.grid = new Grid(topology);
     }
 
     /**
@@ -64,6 +153,42 @@ public class Taquin {
         return grid.size();
     }
 
+    /**
+     * Verifie si le jeu se deroule sur le Taquin classique 3x3, dont toutes les
+     * configurations sont precalculees (voir {@link EightPuzzleTable}).
+     *
+     * @return Si la grille est le Taquin classique 3x3.
+     */
+    private boolean isEightPuzzle() {
+        return grid.getBoard().topology().isStandard(EightPuzzleTable.SIZE);
+    }
+
+    /**
+     * Verifie si la grille est trop grande pour etre resolue de facon optimale, auquel
+     * cas les solutions sont construites ligne par ligne (voir
+     * {@link ConstructiveSolver}).
+     *
+     * @return Si la grille a plus de {@link IBoard#MAX_PACKED_CELLS} cases.
+     */
+    private boolean isLargeGrid() {
+        return grid.getBoard().topology().cells() > IBoard.MAX_PACKED_CELLS;
+    }
+
+    /**
+     * Donne le solveur a utiliser pour suggerer un deplacement sur la grille courante.
+     *
+     * @return Le solveur adapte a la taille de la grille.
+     */
+    private ISolver hintSolver() {
+        if (isLargeGrid()) {
+            return LARGE_SOLVER;
+        }
+        if (grid.getBoard().topology().isStandard(PatternDatabaseHeuristic.STANDARD_SIZE)) {
+            return STANDARD_HINT_SOLVER;
+        }
+        return HINT_SOLVER;
+    }
+
     /**
      * Modifie le contrôleur avec lequel cette façade interagit pour maintenir la
      * cohérence avec la vue, et inversement.
@@ -75,13 +200,80 @@ public class Taquin {
         controller.initGrid(grid);
     }
 
+    /**
+     * Modifie le service enregistrant l'etat de la partie apres chaque deplacement.
+     * Les ecritures sont realisees par le thread de ce service, et non par le thread
+     * appelant.
+     *
+     * @param saver Le service a utiliser, ou {@code null} pour ne plus enregistrer la
+     *        partie.
+     */
+    public void setSaver(GameSaver saver) {
+        this.saver = saver;
+        if (saver != null) {
+            gameId = saver.nextGameId();
+            journal.markUnsaved();
+        }
+    }
+
+    /**
+     * Reprend une partie enregistree, si elle n'est pas terminee et si elle se joue sur
+     * une grille de la meme topologie.
+     *
+     * @param record L'enregistrement de la partie, ou {@code null}.
+     *
+     * @return Si la partie a ete reprise (sinon, aucune partie n'a ete demarree).
+     */
+    public boolean resumeGame(GameRecord record) {
+        if ((record == null) || record.isOrdered()
+                || (record.getTopology() != grid.getBoard().topology())) {
+            return false;
+        }
+
+        int[] cells = new int[grid.getBoard().topology().cells()];
+        record.readBoard().copyTo(cells);
+        grid.getBoard().load(cells);
+        grid.refresh();
+        journal = record.readJournal();
+        nbMoves.set(record.getNbMoves());
+        gameId = record.getGameId();
+        controller.updateMoves(nbMoves);
+        controller.startGame();
+        return true;
+    }
+
+    /**
+     * Modifie la difficulte des prochaines parties.
+     *
+     * @param nbMoves Le nombre de deplacements aleatoires realises pour melanger la
+     *        grille, ou {@code 0} pour tirer uniformement une grille resoluble.
+     */
+    public void setDifficulty(int nbMoves) {
+        this.difficulty = nbMoves;
+    }
+
+    /**
+     * Modifie le germe utilise pour melanger la grille, afin de pouvoir reproduire les
+     * prochaines parties.
+     *
+     * @param seed Le germe du generateur de nombres aleatoires.
+     */
+    public void setSeed(long seed) {
+        grid.setRandom(new SplittableRandom(seed));
+    }
+
     /**
      * Démarre une nouvelle partie.
      */
     public void startGame() {
-        grid.shuffle();
+        if (difficulty > 0) {
+            grid.walk(difficulty);
+        } else {
+            grid.shuffle();
+        }
         controller.updateMoves(nbMoves);
         controller.startGame();
+        checkpoint();
     }
 
     /**
@@ -91,8 +283,10 @@ public class Taquin {
      * @param column La colonne de la case à pousser.
      */
     public void push(int row, int column) {
+        IBoard board = grid.getBoard();
+        int empty = board.emptyIndex();
         if (grid.push(row, column)) {
-            acceptMove();
+            acceptMove(Move.of(board.topology().moveTo(empty, board.emptyIndex())));
         }
     }
 
@@ -101,7 +295,7 @@ public class Taquin {
      */
     public void pushUp() {
         if (grid.pushUp()) {
-            acceptMove();
+            acceptMove(Move.UP);
         }
     }
 
@@ -110,7 +304,7 @@ public class Taquin {
      */
     public void pushRight() {
         if (grid.pushRight()) {
-            acceptMove();
+            acceptMove(Move.RIGHT);
         }
     }
 
@@ -119,7 +313,7 @@ public class Taquin {
      */
     public void pushDown() {
         if (grid.pushDown()) {
-            acceptMove();
+            acceptMove(Move.DOWN);
         }
     }
 
@@ -128,28 +322,386 @@ public class Taquin {
      */
     public void pushLeft() {
         if (grid.pushLeft()) {
-            acceptMove();
+            acceptMove(Move.LEFT);
         }
     }
 
     /**
      * Valide le dernier deplacement demande par l'utilisateur.
+     *
+     * @param move Le deplacement realise.
      */
-    private void acceptMove() {
-    	nbMoves.set(nbMoves.get() + 1);
+    private void acceptMove(Move move) {
+        cancelSearch();
+        journal.record(move);
+        countMoves(1);
+    }
+
+    /**
+     * Met à jour le nombre de deplacements, et termine la partie si les tuiles sont
+     * ordonnees.
+     *
+     * @param delta La variation du nombre de deplacements.
+     */
+    private void countMoves(int delta) {
+    	nbMoves.set(nbMoves.get() + delta);
+        checkpoint();
 
         if (grid.isOrdered()) {
             controller.endGame();
         }
     }
 
+    /**
+     * Soumet l'etat courant de la partie au service d'enregistrement, s'il y en a un.
+     * Les parties dont la disposition finale n'est pas predefinie ne sont pas
+     * enregistrees.
+     */
+    private void checkpoint() {
+        if ((saver != null) && (grid.getBoard().topology().layout() != null)) {
+            try {
+                saver.submit(new GameCheckpoint(gameId, grid.getBoard(), nbMoves.get(),
+                        journal));
+
+            } catch (UncheckedIOException e) {
+                // Un etat precedent n'a pas pu etre ecrit (le service l'a deja signale) :
+                // on soumet l'historique complet, pour que la partie puisse l'etre a
+                // nouveau.
+                journal.markUnsaved();
+                checkpoint();
+            }
+        }
+    }
+
+    /**
+     * Annule le dernier deplacement realise, s'il y en a un.
+     */
+    public void undo() {
+        if (journal.canUndo()) {
+            cancelSearch();
+            boolean ended = grid.isOrdered();
+            grid.push(journal.undo().opposite());
+            if (ended) {
+                // La partie etait terminee : on permet à nouveau de jouer.
+                controller.startGame();
+            }
+            countMoves(-1);
+        }
+    }
+
+    /**
+     * Rejoue le dernier deplacement annule, s'il y en a un.
+     */
+    public void redo() {
+        if (journal.canRedo()) {
+            cancelSearch();
+            grid.push(journal.redo());
+            countMoves(1);
+        }
+    }
+
+    /**
+     * Donne l'historique des deplacements realises depuis le debut de la partie.
+     *
+     * @return Le journal des deplacements.
+     */
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Exporte les deplacements realises depuis le debut de la partie (sans ceux qui ont
+     * ete annules).
+     *
+     * @return Les symboles des deplacements, dans l'ordre.
+     *
+     * @see Move#symbol()
+     */
+    public String exportMoves() {
+        return journal.toString();
+    }
+
+    /**
+     * Rejoue une suite de deplacements exportee par {@link #exportMoves()}, à partir de
+     * l'etat courant de la grille.
+     * Les deplacements impossibles sont ignores.
+     *
+     * @param moves Les symboles des deplacements à rejouer.
+     *
+     * @throws IllegalArgumentException Si l'un des symboles ne represente aucun
+     *         deplacement.
+     *
+     * @see #applyMoves(List)
+     */
+    public void importMoves(String moves) {
+        MoveJournal imported = MoveJournal.parse(moves);
+        cancelSearch();
+        grid.beginBatch();
+        int applied = 0;
+        for (int i = 0; i < imported.size(); i++) {
+            if (applyInBatch(imported.get(i))) {
+                applied++;
+            }
+        }
+        endBatch(applied);
+    }
+
+    /**
+     * Realise une suite de deplacements (par exemple une solution calculee par un
+     * solveur), à partir de l'etat courant de la grille.
+     * Les deplacements impossibles sont ignores.
+     *
+     * Les deplacements sont realises sur l'etat brut de la grille : la vue, le nombre de
+     * deplacements et la fin de la partie ne sont mis à jour qu'une seule fois, à la
+     * fin de la suite.
+     *
+     * @param moves Les deplacements à realiser.
+     *
+     * @return Le nombre de deplacements effectivement realises.
+     */
+    public int applyMoves(List<Move> moves) {
+        grid.beginBatch();
+        int applied = 0;
+        for (Move move : moves) {
+            if (applyInBatch(move)) {
+                applied++;
+            }
+        }
+        endBatch(applied);
+        return applied;
+    }
+
+    /**
+     * Realise un deplacement au sein d'une suite de deplacements, et l'enregistre dans
+     * l'historique s'il a eu lieu.
+     *
+     * @param move Le deplacement à realiser.
+     *
+     * @return Si le deplacement a effectivement eu lieu.
+     */
+    private boolean applyInBatch(Move move) {
+        if (grid.push(move)) {
+            journal.record(move);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Termine une suite de deplacements, en mettant à jour la vue et le nombre de
+     * deplacements en une seule fois.
+     *
+     * @param applied Le nombre de deplacements effectivement realises.
+     */
+    private void endBatch(int applied) {
+        grid.endBatch();
+        if (applied > 0) {
+            cancelPendingSearch();
+            countMoves(applied);
+        }
+    }
+
+    /**
+     * Calcule une suite de deplacements permettant d'ordonner la grille courante.
+     * La grille n'est pas modifiee par cette methode.
+     *
+     * @param solver Le solveur à utiliser.
+     *
+     * @return La solution calculee par le solveur.
+     */
+    public Solution solve(ISolver solver) {
+        return solver.solve(grid.getBoard());
+    }
+
+    /**
+     * Suggere le prochain deplacement a realiser pour ordonner la grille courante.
+     * Sur une grille 3x3, la reponse est lue dans une table precalculee, sans aucune
+     * recherche.
+     *
+     * @return Le deplacement suggere, ou {@code null} si la grille est deja ordonnee.
+     */
+    public Move hint() {
+        if (isEightPuzzle()) {
+            return EightPuzzleTable.standard().bestMove(grid.getBoard());
+        }
+
+        Solution solution = solve(hintSolver());
+        if (solution.length() == 0) {
+            return null;
+        }
+        return solution.get(0);
+    }
+
+    /**
+     * Donne le nombre minimal de deplacements restant a realiser pour ordonner la grille
+     * courante.
+     * Sur une grille 3x3, la reponse est lue dans une table precalculee, sans aucune
+     * recherche ; sur une grille 4x4, elle est calculee avec la base de motifs.
+     * Ce nombre n'est pas disponible sur les grilles de plus de
+     * {@link IBoard#MAX_PACKED_CELLS} cases, hors de portee des recherches optimales.
+     *
+     * @return Le nombre minimal de deplacements restants.
+     *
+     * @throws IllegalStateException Si la grille est trop grande pour etre resolue de
+     *         facon optimale.
+     */
+    public int getMovesRemaining() {
+        if (isEightPuzzle()) {
+            return EightPuzzleTable.standard().distance(grid.getBoard());
+        }
+        if (isLargeGrid()) {
+            throw new IllegalStateException(
+                    "No optimal solver for " + grid.getBoard().topology() + " grids");
+        }
+        return solve(hintSolver()).length();
+    }
+
+    /**
+     * Calcule de facon asynchrone une suite de deplacements permettant d'ordonner la
+     * grille courante, sans bloquer le thread de JavaFX.
+     * La recherche est annulee si la grille change avant qu'elle se termine.
+     *
+     * @param solver Le solveur à utiliser.
+     *
+     * @return La solution a venir, transmise sur le thread de JavaFX.
+     */
+    public CompletableFuture<Solution> solveAsync(ISolver solver) {
+        return track(solverService.solve(solver, grid.getBoard()));
+    }
+
+    /**
+     * Calcule de facon asynchrone une solution optimale pour la grille courante, sans
+     * bloquer le thread de JavaFX.
+     * Sur une grille 3x3, la solution est lue dans une table precalculee ; sur une
+     * grande grille, elle est construite ligne par ligne, et n'est donc plus optimale.
+     * La recherche est annulee si la grille change avant qu'elle se termine.
+     *
+     * @return La solution a venir, transmise sur le thread de JavaFX.
+     */
+    public CompletableFuture<Solution> solveAsync() {
+        if (isEightPuzzle()) {
+            return track(solverService.submit(grid.getBoard(),
+                    board -> EightPuzzleTable.standard().solve(board)));
+        }
+        return solveAsync(hintSolver());
+    }
+
+    /**
+     * Calcule de facon asynchrone une solution pour la grille courante, sans bloquer le
+     * thread de JavaFX, en transmettant ses deplacements par paquets.
+     * Sur une grande grille, les premiers paquets sont transmis bien avant que la
+     * solution soit entierement construite ; sinon, la solution optimale est transmise
+     * en un seul paquet.
+     * La resolution est annulee si le joueur modifie la grille avant qu'elle se termine,
+     * mais pas par les deplacements rejoues avec {@link #applyMoves(List)}.
+     *
+     * @param batches L'action recevant les paquets de deplacements, dans l'ordre, sur le
+     *        thread de JavaFX.
+     *
+     * @return Le nombre total de deplacements a venir, transmis sur le thread de JavaFX
+     *         apres le dernier paquet.
+     */
+    public CompletableFuture<Integer> streamSolutionAsync(Consumer<List<Move>> batches) {
+        if (isLargeGrid()) {
+            cancelSearch();
+            CompletableFuture<Integer> stream = solverService.stream(
+                    LARGE_SOLVER, grid.getBoard(), batches);
+            pendingStream = stream;
+            return stream;
+        }
+
+        return solveAsync().thenApply(solution -> {
+            batches.accept(solution.getMoves());
+            return solution.length();
+        });
+    }
+
+    /**
+     * Suggere de facon asynchrone le prochain deplacement a realiser pour ordonner la
+     * grille courante, sans bloquer le thread de JavaFX.
+     * La recherche est annulee si la grille change avant qu'elle se termine.
+     *
+     * @return Le deplacement suggere a venir (ou {@code null} si la grille est deja
+     *         ordonnee), transmis sur le thread de JavaFX.
+     *
+     * @see #hint()
+     */
+    public CompletableFuture<Move> hintAsync() {
+        if (isEightPuzzle()) {
+            return track(solverService.submit(grid.getBoard(),
+                    board -> EightPuzzleTable.standard().bestMove(board)));
+        }
+
+        ISolver solver = hintSolver();
+        return track(solverService.submit(grid.getBoard(), board -> {
+            Solution solution = solver.solve(board);
+            return (solution.length() == 0) ? null : solution.get(0);
+        }));
+    }
+
+    /**
+     * Enregistre une nouvelle recherche asynchrone, en annulant la precedente.
+     *
+     * @param <T> Le type du resultat de la recherche.
+     *
+     * @param search La recherche a enregistrer.
+     *
+     * @return La recherche enregistree.
+     */
+    private <T> CompletableFuture<T> track(CompletableFuture<T> search) {
+        cancelPendingSearch();
+        pendingSearch = search;
+        return search;
+    }
+
+    /**
+     * Annule la recherche asynchrone et la resolution en continu en cours, s'il y en a.
+     */
+    public void cancelSearch() {
+        cancelPendingSearch();
+        if (pendingStream != null) {
+            pendingStream.cancel(true);
+            pendingStream = null;
+        }
+    }
+
+    /**
+     * Annule la recherche asynchrone en cours, s'il y en a une, en laissant se poursuivre
+     * la resolution en continu.
+     */
+    private void cancelPendingSearch() {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(true);
+            pendingSearch = null;
+        }
+    }
+
     /**
      * Redemarre une nouvelle partie.
      */
     public void restartGame() {
+        cancelSearch();
         grid.reset();
+        journal.clear();
         nbMoves.set(0);
+        if (saver != null) {
+            gameId = saver.nextGameId();
+        }
         startGame();
     }
 
+    /**
+     * La classe PatternDatabaseSolver ne charge la base de motifs que lorsqu'une grille
+     * 4x4 depasse le budget du parcours bidirectionnel.
+     */
+    private static final class PatternDatabaseSolver {
+
+        /**
+         * Le solveur utilisant la base de motifs 6-6-3.
+         */
+        private static final ISolver INSTANCE =
+                new IdaStarSolver(PatternDatabaseHeuristic.standard());
+
+    }
+
 }
@@ -0,0 +1,249 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+/**
+ * La classe AbstractBoard factorise le comportement commun aux différentes
+ * représentations d'une grille du Taquin.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public abstract class AbstractBoard implements IBoard {
+
+    /**
+     * La topologie de cette grille.
+     */
+    protected final Topology topology;
+
+    /**
+     * L'indice de la case vide.
+     */
+    protected int empty;
+
+    /**
+     * Le nombre de tuiles (hors case vide) qui ne sont pas à leur place.
+     */
+    private int misplaced;
+
+    /**
+     * La somme des distances de Manhattan entre les tuiles et leur place.
+     */
+    private int manhattan;
+
+    /**
+     * Construit une nouvelle instance de AbstractBoard.
+     *
+     * @param size La taille de la grille.
+     */
+    protected AbstractBoard(int size) {
+        this(Topology.of(size));
+    }
+
+    /**
+     * Construit une nouvelle instance de AbstractBoard.
+     *
+     * @param topology La topologie de la grille.
+     */
+    protected AbstractBoard(Topology topology) {
+        this.topology = topology;
+        this.empty = topology.goalIndex(0);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#topology()
+     */
+    @Override
+    public Topology topology() {
+        return topology;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#emptyIndex()
+     */
+    @Override
+    public int emptyIndex() {
+        return empty;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#misplaced()
+     */
+    @Override
+    public int misplaced() {
+        return misplaced;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#manhattan()
+     */
+    @Override
+    public int manhattan() {
+        return manhattan;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#push(int)
+     */
+    @Override
+    public boolean push(int index) {
+        if (topology.moveTo(empty, index) < 0) {
+            return false;
+        }
+        move(index);
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.board.IBoard#push(fr.univartois.butinfo.ihm.
+     * taquin.model.board.Move)
+     */
+    @Override
+    public boolean push(Move move) {
+        int index = topology.neighbor(empty, move.ordinal());
+        if (index < 0) {
+            return false;
+        }
+        move(index);
+        return true;
+    }
+
+    /**
+     * Pousse la tuile à l'indice donné dans l'emplacement vide, en mettant à jour les
+     * métriques de la grille.
+     *
+     * @param index L'indice de la case à pousser dans l'emplacement vide.
+     */
+    private void move(int index) {
+        int goal = topology.goalIndex(get(index));
+        misplaced += ((goal == empty) ? 0 : 1) - ((goal == index) ? 0 : 1);
+        manhattan += topology.distance(empty, goal) - topology.distance(index, goal);
+        exchange(index);
+    }
+
+    /**
+     * Recalcule entièrement les métriques de la grille.
+     * Cette méthode doit être appelée après toute modification ne passant pas par un
+     * déplacement.
+     */
+    protected void recount() {
+        misplaced = 0;
+        manhattan = 0;
+        for (int i = 0; i < topology.cells(); i++) {
+            int tile = get(i);
+            if (tile != 0) {
+                int goal = topology.goalIndex(tile);
+                misplaced += (goal == i) ? 0 : 1;
+                manhattan += topology.distance(i, goal);
+            }
+        }
+    }
+
+    /**
+     * Copie dans cette grille la position de la case vide et les métriques d'une autre
+     * grille, dont les tuiles ont déjà été copiées.
+     *
+     * @param other La grille copiée.
+     */
+    protected void copyState(AbstractBoard other) {
+        empty = other.empty;
+        misplaced = other.misplaced;
+        manhattan = other.manhattan;
+    }
+
+    /**
+     * Échange la tuile à l'indice donné avec l'emplacement vide, sans vérifier que ces
+     * cases sont voisines.
+     *
+     * @param index L'indice de la case à pousser dans l'emplacement vide.
+     */
+    protected abstract void exchange(int index);
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#load(int[])
+     */
+    @Override
+    public void load(int[] cells) {
+        int emptyCell = checkPermutation(cells);
+        write(cells);
+        empty = emptyCell;
+        recount();
+    }
+
+    /**
+     * Écrit les valeurs des tuiles dans cette grille, sans les vérifier.
+     *
+     * @param cells Les valeurs des tuiles, indexées par case.
+     */
+    protected abstract void write(int[] cells);
+
+    /**
+     * Vérifie que des valeurs forment une permutation des tuiles de cette grille.
+     *
+     * @param cells Les valeurs à vérifier.
+     *
+     * @return L'indice de la case vide.
+     *
+     * @throws IllegalArgumentException Si les valeurs ne forment pas une permutation.
+     */
+    private int checkPermutation(int[] cells) {
+        int n = topology.cells();
+        if (cells.length != n) {
+            throw new IllegalArgumentException(
+                    "Expected " + n + " cells, got " + cells.length);
+        }
+
+        boolean[] seen = new boolean[n];
+        int emptyCell = -1;
+        for (int i = 0; i < n; i++) {
+            int value = cells[i];
+            if ((value < 0) || (value >= n) || seen[value]) {
+                throw new IllegalArgumentException("Not a permutation of the tiles");
+            }
+            seen[value] = true;
+            if (value == 0) {
+                emptyCell = i;
+            }
+        }
+        return emptyCell;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < topology.cells(); i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(get(i));
+        }
+        return builder.toString();
+    }
+
+}
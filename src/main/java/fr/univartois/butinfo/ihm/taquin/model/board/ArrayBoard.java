@@ -0,0 +1,125 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+/**
+ * La classe ArrayBoard représente une grille de taille quelconque dans un tableau
+ * d'entiers, indexé par case.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class ArrayBoard extends AbstractBoard {
+
+    /**
+     * Les valeurs des tuiles, indexées par case.
+     */
+    private final int[] cells;
+
+    /**
+     * Construit une nouvelle instance de ArrayBoard, dont les tuiles sont ordonnées.
+     *
+     * @param size La taille de la grille.
+     */
+    public ArrayBoard(int size) {
+        this(Topology.of(size));
+    }
+
+    /**
+     * Construit une nouvelle instance de ArrayBoard, dont les tuiles sont ordonnées
+     * selon sa topologie.
+     *
+     * @param topology La topologie de la grille.
+     */
+    public ArrayBoard(Topology topology) {
+        super(topology);
+        this.cells = new int[topology.cells()];
+        reset();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#get(int)
+     */
+    @Override
+    public int get(int index) {
+        return cells[index];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.AbstractBoard#exchange(int)
+     */
+    @Override
+    protected void exchange(int index) {
+        cells[empty] = cells[index];
+        cells[index] = 0;
+        empty = index;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#isOrdered()
+     */
+    @Override
+    public boolean isOrdered() {
+        return misplaced() == 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#reset()
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = topology.goal(i);
+        }
+        empty = topology.goalIndex(0);
+        recount();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#copyTo(int[])
+     */
+    @Override
+    public void copyTo(int[] values) {
+        System.arraycopy(cells, 0, values, 0, cells.length);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.AbstractBoard#write(int[])
+     */
+    @Override
+    protected void write(int[] values) {
+        System.arraycopy(values, 0, cells, 0, cells.length);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#copy()
+     */
+    @Override
+    public IBoard copy() {
+        ArrayBoard copy = new ArrayBoard(topology);
+        copy.write(cells);
+        copy.copyState(this);
+        return copy;
+    }
+
+}
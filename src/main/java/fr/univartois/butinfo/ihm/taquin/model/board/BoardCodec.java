@@ -0,0 +1,401 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * La classe BoardCodec associe à chaque grille d'une taille donnée son rang parmi toutes
+ * les permutations de ses tuiles (code de Lehmer), et inversement.
+ *
+ * Ce rang est une représentation canonique et dense des grilles : il peut servir de clé
+ * dans des tables de hachage ou de dédoublonnage, ou être enregistré dans un fichier.
+ * Jusqu'à 4x4, il tient dans un {@code long} ; au-delà, il est représenté par un tableau
+ * d'octets (gros-boutiste) de taille {@link #rankBytes()}.
+ *
+ * Le rang est calculé sur les positions des tuiles, dans l'ordre de leurs valeurs (en
+ * commençant par la case vide) : les deux derniers chiffres du code sont donc les
+ * positions des deux plus grandes tuiles.
+ * Comme échanger ces deux tuiles change la parité de la grille, les rangs {@code 2k} et
+ * {@code 2k + 1} correspondent toujours à une grille pouvant être ordonnée et à une
+ * autre ne le pouvant pas : {@code rank >>> 1} numérote ainsi de façon dense les grilles
+ * pouvant être ordonnées.
+ *
+ * Aucune de ces méthodes n'alloue d'objet.
+ * Les méthodes manipulant des rangs de type {@code long} n'utilisent aucun état, et
+ * peuvent être appelées depuis plusieurs threads ; les autres utilisent des tableaux de
+ * travail propres à chaque instance, qui ne doit alors pas être partagée entre threads.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class BoardCodec {
+
+    /**
+     * Le nombre maximal de cases des grilles dont le rang tient dans un {@code long}.
+     */
+    public static final int MAX_COMPACT_CELLS = 16;
+
+    /**
+     * La topologie des grilles représentées.
+     */
+    private final Topology topology;
+
+    /**
+     * Le nombre d'octets nécessaires pour représenter le rang d'une grille.
+     */
+    private final int rankBytes;
+
+    /**
+     * Les positions des tuiles, indexées par leur valeur (tableau de travail).
+     */
+    private final int[] positions;
+
+    /**
+     * Les valeurs des cases (tableau de travail).
+     */
+    private final int[] cells;
+
+    /**
+     * Les cases déjà rencontrées (tableau de travail).
+     */
+    private final long[] used;
+
+    /**
+     * Le rang en cours de calcul (tableau de travail).
+     */
+    private final byte[] number;
+
+    /**
+     * Construit une nouvelle instance de BoardCodec.
+     *
+     * @param topology La topologie des grilles représentées.
+     */
+    public BoardCodec(Topology topology) {
+        this.topology = topology;
+        int n = topology.cells();
+        BigInteger count = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) {
+            count = count.multiply(BigInteger.valueOf(i));
+        }
+        this.rankBytes = Math.max(1, (count.subtract(BigInteger.ONE).bitLength() + 7) >>> 3);
+        this.positions = new int[n];
+        this.cells = new int[n];
+        this.used = new long[(n + 63) >>> 6];
+        this.number = new byte[rankBytes];
+    }
+
+    /**
+     * Donne la topologie des grilles représentées.
+     *
+     * @return La topologie des grilles.
+     */
+    public Topology topology() {
+        return topology;
+    }
+
+    /**
+     * Indique si le rang des grilles tient dans un {@code long}.
+     *
+     * @return Si les grilles ont au plus {@value #MAX_COMPACT_CELLS} cases.
+     */
+    public boolean isCompact() {
+        return topology.cells() <= MAX_COMPACT_CELLS;
+    }
+
+    /**
+     * Donne le nombre d'octets nécessaires pour représenter le rang d'une grille.
+     *
+     * @return Le nombre d'octets d'un rang.
+     */
+    public int rankBytes() {
+        return rankBytes;
+    }
+
+    /**
+     * Calcule le rang d'une grille d'au plus {@value #MAX_COMPACT_CELLS} cases.
+     *
+     * @param board La grille à considérer.
+     *
+     * @return Le rang de la grille.
+     *
+     * @throws IllegalStateException Si les grilles sont trop grandes.
+     */
+    public long rank(IBoard board) {
+        checkCompact();
+        long packed = 0;
+        for (int i = 0; i < topology.cells(); i++) {
+            packed |= (long) board.get(i) << (i << 2);
+        }
+        return rankPacked(packed);
+    }
+
+    /**
+     * Calcule le rang d'une grille d'au plus {@value #MAX_COMPACT_CELLS} cases, donnée
+     * sous sa forme compacte (voir {@link PackedBoard#packed()}).
+     *
+     * @param packed Les valeurs des cases, codées sur 4 bits chacune.
+     *
+     * @return Le rang de la grille.
+     *
+     * @throws IllegalStateException Si les grilles sont trop grandes.
+     */
+    public long rankPacked(long packed) {
+        checkCompact();
+        int n = topology.cells();
+        long tilePositions = 0;
+        for (int i = 0; i < n; i++) {
+            tilePositions |= (long) i << (((packed >>> (i << 2)) & 0xF) << 2);
+        }
+
+        int seen = 0;
+        long rank = 0;
+        for (int v = 0; v < n; v++) {
+            int position = (int) ((tilePositions >>> (v << 2)) & 0xF);
+            rank = rank * (n - v) + position - Integer.bitCount(seen & ((1 << position) - 1));
+            seen |= 1 << position;
+        }
+        return rank;
+    }
+
+    /**
+     * Calcule la grille d'au plus {@value #MAX_COMPACT_CELLS} cases ayant un rang donné,
+     * sous sa forme compacte (voir {@link PackedBoard#packed()}).
+     *
+     * @param rank Le rang de la grille.
+     *
+     * @return Les valeurs des cases, codées sur 4 bits chacune.
+     *
+     * @throws IllegalStateException Si les grilles sont trop grandes.
+     */
+    public long unrankPacked(long rank) {
+        checkCompact();
+        int n = topology.cells();
+
+        // Les chiffres du code sont obtenus du dernier au premier.
+        long digits = 0;
+        for (int v = n - 1; v >= 0; v--) {
+            digits |= (rank % (n - v)) << (v << 2);
+            rank /= n - v;
+        }
+
+        int free = (1 << n) - 1;
+        long packed = 0;
+        for (int v = 0; v < n; v++) {
+            int position = select(free, (int) ((digits >>> (v << 2)) & 0xF));
+            packed |= (long) v << (position << 2);
+            free &= ~(1 << position);
+        }
+        return packed;
+    }
+
+    /**
+     * Calcule la grille d'au plus {@value #MAX_COMPACT_CELLS} cases ayant un rang donné.
+     *
+     * @param rank Le rang de la grille.
+     * @param board La grille dans laquelle écrire le résultat.
+     *
+     * @throws IllegalStateException Si les grilles sont trop grandes.
+     */
+    public void unrank(long rank, IBoard board) {
+        long packed = unrankPacked(rank);
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (int) ((packed >>> (i << 2)) & 0xF);
+        }
+        board.load(cells);
+    }
+
+    /**
+     * Calcule le rang d'une grille de taille quelconque.
+     *
+     * @param board La grille à considérer.
+     * @param rank Le tableau de {@link #rankBytes()} octets dans lequel écrire le rang,
+     *        en commençant par les octets de poids fort.
+     */
+    public void rank(IBoard board, byte[] rank) {
+        int n = topology.cells();
+        for (int i = 0; i < n; i++) {
+            positions[board.get(i)] = i;
+        }
+
+        Arrays.fill(used, 0);
+        Arrays.fill(rank, 0, rankBytes, (byte) 0);
+        for (int v = 0; v < n; v++) {
+            int position = positions[v];
+            multiplyAdd(rank, n - v, position - countUsedBefore(position));
+            used[position >>> 6] |= 1L << position;
+        }
+    }
+
+    /**
+     * Calcule la grille de taille quelconque ayant un rang donné.
+     *
+     * @param rank Le tableau de {@link #rankBytes()} octets contenant le rang, en
+     *        commençant par les octets de poids fort.
+     * @param board La grille dans laquelle écrire le résultat.
+     */
+    public void unrank(byte[] rank, IBoard board) {
+        int n = topology.cells();
+        System.arraycopy(rank, 0, number, 0, rankBytes);
+
+        // Les chiffres du code sont obtenus du dernier au premier.
+        for (int v = n - 1; v >= 0; v--) {
+            positions[v] = divide(number, n - v);
+        }
+
+        Arrays.fill(used, 0);
+        for (int v = 0; v < n; v++) {
+            int position = selectUnused(positions[v]);
+            cells[position] = v;
+            used[position >>> 6] |= 1L << position;
+        }
+        board.load(cells);
+    }
+
+    /**
+     * Écrit le rang d'une grille dans un tampon, sur {@link #rankBytes()} octets.
+     *
+     * @param board La grille à écrire.
+     * @param buffer Le tampon dans lequel écrire.
+     */
+    public void write(IBoard board, ByteBuffer buffer) {
+        if (isCompact()) {
+            long rank = rank(board);
+            for (int i = rankBytes - 1; i >= 0; i--) {
+                buffer.put((byte) (rank >>> (i << 3)));
+            }
+
+        } else {
+            rank(board, number);
+            buffer.put(number, 0, rankBytes);
+        }
+    }
+
+    /**
+     * Lit le rang d'une grille dans un tampon, sur {@link #rankBytes()} octets.
+     *
+     * @param buffer Le tampon dans lequel lire.
+     * @param board La grille dans laquelle écrire le résultat.
+     */
+    public void read(ByteBuffer buffer, IBoard board) {
+        if (isCompact()) {
+            long rank = 0;
+            for (int i = 0; i < rankBytes; i++) {
+                rank = (rank << 8) | (buffer.get() & 0xFF);
+            }
+            unrank(rank, board);
+
+        } else {
+            buffer.get(number, 0, rankBytes);
+            unrank(number, board);
+        }
+    }
+
+    /**
+     * Vérifie que le rang des grilles tient dans un {@code long}.
+     *
+     * @throws IllegalStateException Si les grilles sont trop grandes.
+     */
+    private void checkCompact() {
+        if (!isCompact()) {
+            throw new IllegalStateException("Rank does not fit in a long: " + topology);
+        }
+    }
+
+    /**
+     * Donne la position du {@code k}-ième bit à {@code 1} d'un entier.
+     *
+     * @param bits L'entier à considérer.
+     * @param k Le nombre de bits à {@code 1} à ignorer.
+     *
+     * @return La position du bit cherché.
+     */
+    private static int select(long bits, int k) {
+        for (int i = 0; i < k; i++) {
+            bits &= bits - 1;
+        }
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Compte les cases déjà rencontrées avant une position donnée.
+     *
+     * @param position La position à considérer.
+     *
+     * @return Le nombre de cases rencontrées avant cette position.
+     */
+    private int countUsedBefore(int position) {
+        int count = 0;
+        int word = position >>> 6;
+        for (int w = 0; w < word; w++) {
+            count += Long.bitCount(used[w]);
+        }
+        return count + Long.bitCount(used[word] & ((1L << position) - 1));
+    }
+
+    /**
+     * Donne la position de la {@code k}-ième case non encore rencontrée.
+     *
+     * @param k Le nombre de cases non rencontrées à ignorer.
+     *
+     * @return La position de la case cherchée.
+     */
+    private int selectUnused(int k) {
+        int n = topology.cells();
+        for (int w = 0; ; w++) {
+            long free = ~used[w];
+            if (((w + 1) << 6) > n) {
+                free &= (1L << (n & 63)) - 1;
+            }
+            int count = Long.bitCount(free);
+            if (k < count) {
+                return (w << 6) + select(free, k);
+            }
+            k -= count;
+        }
+    }
+
+    /**
+     * Remplace un grand entier {@code x} par {@code x * factor + term}.
+     *
+     * @param x Le grand entier, en commençant par les octets de poids fort.
+     * @param factor Le facteur de la multiplication.
+     * @param term Le terme de l'addition.
+     */
+    private void multiplyAdd(byte[] x, int factor, int term) {
+        int carry = term;
+        for (int i = rankBytes - 1; i >= 0; i--) {
+            int value = (x[i] & 0xFF) * factor + carry;
+            x[i] = (byte) value;
+            carry = value >>> 8;
+        }
+    }
+
+    /**
+     * Divise un grand entier par un petit entier.
+     *
+     * @param x Le grand entier, en commençant par les octets de poids fort, qui est
+     *        remplacé par le quotient de la division.
+     * @param divisor Le diviseur.
+     *
+     * @return Le reste de la division.
+     */
+    private int divide(byte[] x, int divisor) {
+        int remainder = 0;
+        for (int i = 0; i < rankBytes; i++) {
+            int value = (remainder << 8) | (x[i] & 0xFF);
+            x[i] = (byte) (value / divisor);
+            remainder = value % divisor;
+        }
+        return remainder;
+    }
+
+}
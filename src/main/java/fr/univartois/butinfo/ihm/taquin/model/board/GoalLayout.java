@@ -0,0 +1,86 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+/**
+ * L'énumération GoalLayout représente les dispositions prédéfinies des tuiles d'une
+ * grille ordonnée.
+ *
+ * Une disposition est décrite par le parcours suivi par les tuiles, dans l'ordre de
+ * leurs valeurs, et par la place de la case vide : au début ou à la fin de ce parcours.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public enum GoalLayout {
+
+    /**
+     * Les tuiles sont dans l'ordre, ligne par ligne, et la case vide est en bas à droite.
+     */
+    STANDARD(false, false),
+
+    /**
+     * La case vide est en haut à gauche, suivie des tuiles dans l'ordre, ligne par ligne.
+     */
+    BLANK_FIRST(true, false),
+
+    /**
+     * Les tuiles sont dans l'ordre en serpentin : de gauche à droite sur les lignes
+     * paires, de droite à gauche sur les lignes impaires, et la case vide termine le
+     * parcours.
+     */
+    SNAKE(false, true);
+
+    /**
+     * Si la case vide commence le parcours (plutôt que de le terminer).
+     */
+    private final boolean blankFirst;
+
+    /**
+     * Si les lignes impaires sont parcourues de droite à gauche.
+     */
+    private final boolean snake;
+
+    /**
+     * Construit une nouvelle disposition.
+     *
+     * @param blankFirst Si la case vide commence le parcours.
+     * @param snake Si les lignes impaires sont parcourues de droite à gauche.
+     */
+    GoalLayout(boolean blankFirst, boolean snake) {
+        this.blankFirst = blankFirst;
+        this.snake = snake;
+    }
+
+    /**
+     * Calcule la valeur de la tuile attendue sur chaque case d'une grille suivant cette
+     * disposition.
+     *
+     * @param height Le nombre de lignes de la grille.
+     * @param width Le nombre de colonnes de la grille.
+     *
+     * @return Les valeurs attendues ({@code 0} pour l'emplacement vide), indexées par
+     *         case.
+     */
+    public int[] goals(int height, int width) {
+        int cells = height * width;
+        int[] goals = new int[cells];
+        int rank = 0;
+        for (int row = 0; row < height; row++) {
+            for (int i = 0; i < width; i++) {
+                int column = (snake && ((row & 1) != 0)) ? (width - 1 - i) : i;
+                int value = blankFirst ? rank : ((rank + 1) % cells);
+                goals[row * width + column] = value;
+                rank++;
+            }
+        }
+        return goals;
+    }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+/**
+ * L'interface IBoard définit l'état brut d'une grille du Taquin, indépendamment de son
+ * affichage.
+ *
+ * Les cases sont identifiées par leur indice {@code ligne * largeur + colonne}, et la
+ * tuile vide a la valeur {@code 0}.
+ * La forme de la grille et la disposition attendue de ses tuiles sont données par sa
+ * {@link Topology}.
+ * Les implémentations de cette interface n'allouent aucun objet lors des déplacements,
+ * afin de pouvoir être utilisées par les solveurs et les mélangeurs à très haut débit.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public interface IBoard {
+
+    /**
+     * La taille maximale d'une grille pouvant être représentée par un unique
+     * {@code long}.
+     */
+    int MAX_PACKED_SIZE = 4;
+
+    /**
+     * Le nombre maximal de cases d'une grille pouvant être représentée par un unique
+     * {@code long}.
+     */
+    int MAX_PACKED_CELLS = MAX_PACKED_SIZE * MAX_PACKED_SIZE;
+
+    /**
+     * Crée une nouvelle grille ordonnée, en choisissant la représentation la plus
+     * compacte pour la taille demandée.
+     *
+     * @param size La taille de la grille.
+     *
+     * @return La grille créée.
+     */
+    static IBoard create(int size) {
+        return create(Topology.of(size));
+    }
+
+    /**
+     * Crée une nouvelle grille ordonnée de topologie quelconque, en choisissant la
+     * représentation la plus compacte pour son nombre de cases.
+     *
+     * @param topology La topologie de la grille.
+     *
+     * @return La grille créée.
+     */
+    static IBoard create(Topology topology) {
+        if (topology.cells() <= MAX_PACKED_CELLS) {
+            return new PackedBoard(topology);
+        }
+        return new ArrayBoard(topology);
+    }
+
+    /**
+     * Donne la topologie de cette grille.
+     *
+     * @return La topologie de cette grille.
+     */
+    Topology topology();
+
+    /**
+     * Donne la taille de cette grille (en nombre de tuiles par côté pour une grille
+     * carrée, sa plus grande dimension sinon).
+     *
+     * @return La taille de cette grille.
+     */
+    default int size() {
+        return topology().size();
+    }
+
+    /**
+     * Donne la valeur de la tuile sur une case de cette grille.
+     *
+     * @param index L'indice de la case.
+     *
+     * @return La valeur de la tuile ({@code 0} pour l'emplacement vide).
+     */
+    int get(int index);
+
+    /**
+     * Donne la valeur de la tuile à une position de cette grille.
+     *
+     * @param row La ligne de la tuile.
+     * @param column La colonne de la tuile.
+     *
+     * @return La valeur de la tuile ({@code 0} pour l'emplacement vide).
+     */
+    default int get(int row, int column) {
+        return get(topology().index(row, column));
+    }
+
+    /**
+     * Donne l'indice de la case vide de cette grille.
+     *
+     * @return L'indice de la case vide.
+     */
+    int emptyIndex();
+
+    /**
+     * Donne le nombre de tuiles qui ne sont pas à leur place.
+     * Cette valeur est maintenue à chaque déplacement, et ne coûte donc rien à
+     * consulter.
+     *
+     * @return Le nombre de tuiles mal placées (sans compter la case vide).
+     */
+    int misplaced();
+
+    /**
+     * Donne la somme des distances de Manhattan entre les tuiles et leur place.
+     * Cette valeur est maintenue à chaque déplacement, et ne coûte donc rien à
+     * consulter.
+     *
+     * @return La distance de Manhattan de la grille à la configuration ordonnée.
+     */
+    int manhattan();
+
+    /**
+     * Pousse la case à l'indice donné dans l'emplacement vide, si elle en est voisine.
+     *
+     * @param index L'indice de la case à pousser.
+     *
+     * @return Si un déplacement a effectivement eu lieu.
+     */
+    boolean push(int index);
+
+    /**
+     * Réalise un déplacement sur cette grille, s'il est possible.
+     *
+     * @param move Le déplacement à réaliser.
+     *
+     * @return Si un déplacement a effectivement eu lieu.
+     */
+    boolean push(Move move);
+
+    /**
+     * Vérifie si les tuiles sont ordonnées sur cette grille.
+     *
+     * @return Si les tuiles sont ordonnées.
+     */
+    boolean isOrdered();
+
+    /**
+     * Réordonne les tuiles de cette grille.
+     */
+    void reset();
+
+    /**
+     * Copie les valeurs des tuiles de cette grille dans un tableau.
+     *
+     * @param cells Le tableau dans lequel copier les valeurs, indexé par case.
+     */
+    void copyTo(int[] cells);
+
+    /**
+     * Remplace le contenu de cette grille.
+     *
+     * @param cells Les valeurs des tuiles, indexées par case.
+     *
+     * @throws IllegalArgumentException Si les valeurs ne forment pas une permutation
+     *         des tuiles de la grille.
+     */
+    void load(int[] cells);
+
+    /**
+     * Crée une copie indépendante de cette grille.
+     *
+     * @return La copie de cette grille.
+     */
+    IBoard copy();
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+/**
+ * L'énumération Move représente les déplacements qu'il est possible de réaliser sur une
+ * grille du Taquin.
+ *
+ * Chaque déplacement est nommé d'après la direction dans laquelle la tuile poussée se
+ * déplace, comme les méthodes {@code pushUp}, {@code pushRight}, {@code pushDown} et
+ * {@code pushLeft} de la grille.
+ * Les déplacements opposés ont des ordinaux qui diffèrent de 2, ce qui permet de coder
+ * un déplacement sur 2 bits.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public enum Move {
+
+    /**
+     * Pousse la case située sous l'emplacement vide vers le haut.
+     */
+    UP(1, 0, 'U'),
+
+    /**
+     * Pousse la case située à gauche de l'emplacement vide vers la droite.
+     */
+    RIGHT(0, -1, 'R'),
+
+    /**
+     * Pousse la case située au dessus de l'emplacement vide vers le bas.
+     */
+    DOWN(-1, 0, 'D'),
+
+    /**
+     * Pousse la case située à droite de l'emplacement vide vers la gauche.
+     */
+    LEFT(0, 1, 'L');
+
+    /**
+     * Les déplacements, indexés par leur ordinal (pour éviter la copie réalisée par
+     * {@link #values()}).
+     */
+    private static final Move[] VALUES = values();
+
+    /**
+     * Le décalage (en lignes) de la case poussée par rapport à l'emplacement vide.
+     */
+    private final int rowOffset;
+
+    /**
+     * Le décalage (en colonnes) de la case poussée par rapport à l'emplacement vide.
+     */
+    private final int columnOffset;
+
+    /**
+     * Le symbole représentant ce déplacement.
+     */
+    private final char symbol;
+
+    /**
+     * Construit un nouveau déplacement.
+     *
+     * @param rowOffset Le décalage (en lignes) de la case poussée.
+     * @param columnOffset Le décalage (en colonnes) de la case poussée.
+     * @param symbol Le symbole représentant le déplacement.
+     */
+    Move(int rowOffset, int columnOffset, char symbol) {
+        this.rowOffset = rowOffset;
+        this.columnOffset = columnOffset;
+        this.symbol = symbol;
+    }
+
+    /**
+     * Donne le décalage (en lignes) de la case poussée par rapport à l'emplacement vide.
+     *
+     * @return Le décalage en lignes.
+     */
+    public int rowOffset() {
+        return rowOffset;
+    }
+
+    /**
+     * Donne le décalage (en colonnes) de la case poussée par rapport à l'emplacement
+     * vide.
+     *
+     * @return Le décalage en colonnes.
+     */
+    public int columnOffset() {
+        return columnOffset;
+    }
+
+    /**
+     * Donne le symbole représentant ce déplacement.
+     *
+     * @return Le symbole du déplacement.
+     */
+    public char symbol() {
+        return symbol;
+    }
+
+    /**
+     * Donne le déplacement annulant celui-ci.
+     *
+     * @return Le déplacement opposé.
+     */
+    public Move opposite() {
+        return VALUES[ordinal() ^ 2];
+    }
+
+    /**
+     * Donne le déplacement ayant l'ordinal donné.
+     *
+     * @param ordinal L'ordinal du déplacement (seuls les 2 bits de poids faible sont
+     *        pris en compte).
+     *
+     * @return Le déplacement correspondant.
+     */
+    public static Move of(int ordinal) {
+        return VALUES[ordinal & 3];
+    }
+
+    /**
+     * Donne le déplacement représenté par le symbole donné.
+     *
+     * @param symbol Le symbole du déplacement.
+     *
+     * @return Le déplacement correspondant.
+     *
+     * @throws IllegalArgumentException Si le symbole ne représente aucun déplacement.
+     */
+    public static Move of(char symbol) {
+        for (Move move : VALUES) {
+            if (move.symbol == Character.toUpperCase(symbol)) {
+                return move;
+            }
+        }
+        throw new IllegalArgumentException("Unknown move: " + symbol);
+    }
+
+}
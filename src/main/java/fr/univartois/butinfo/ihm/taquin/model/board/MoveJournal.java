@@ -0,0 +1,365 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * La classe MoveJournal conserve l'historique des déplacements d'une partie, afin de
+ * pouvoir les annuler, les rejouer ou les exporter.
+ *
+ * Chaque déplacement est codé sur 2 bits (son ordinal) dans un tableau de {@code long}
+ * qui grandit au besoin : enregistrer un déplacement n'alloue aucun objet, et un million
+ * de déplacements occupent 250 Ko.
+ * Le journal maintient une position courante : les déplacements situés après cette
+ * position ont été annulés et peuvent être rejoués, jusqu'à ce qu'un nouveau
+ * déplacement soit enregistré.
+ *
+ * Le journal retient aussi le premier déplacement modifié depuis son dernier
+ * enregistrement (voir {@link #tail(int)}), de sorte que seuls les déplacements
+ * modifiés depuis aient à être enregistrés à nouveau.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class MoveJournal {
+
+    /**
+     * Le nombre de déplacements codés dans un {@code long}.
+     */
+    private static final int MOVES_PER_WORD = 32;
+
+    /**
+     * La capacité initiale du journal (en nombre de {@code long}).
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Les déplacements enregistrés, sur 2 bits chacun.
+     */
+    private long[] words;
+
+    /**
+     * Le nombre de déplacements enregistrés (y compris ceux qui ont été annulés).
+     */
+    private int size;
+
+    /**
+     * La position courante dans le journal, c'est-à-dire le nombre de déplacements qui
+     * n'ont pas été annulés.
+     */
+    private int position;
+
+    /**
+     * L'indice du premier déplacement modifié depuis le dernier enregistrement du
+     * journal : les déplacements qui le précèdent sont déjà enregistrés.
+     */
+    private int unsaved;
+
+    /**
+     * Construit un nouveau journal vide.
+     */
+    public MoveJournal() {
+        this.words = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Enregistre un déplacement à la position courante.
+     * Les déplacements annulés qui suivaient cette position sont oubliés.
+     *
+     * @param move Le déplacement à enregistrer.
+     */
+    public void record(Move move) {
+        int word = position / MOVES_PER_WORD;
+        if (word == words.length) {
+            words = Arrays.copyOf(words, 2 * words.length);
+        }
+
+        int shift = (position % MOVES_PER_WORD) << 1;
+        words[word] = (words[word] & ~(3L << shift)) | (((long) move.ordinal()) << shift);
+        unsaved = Math.min(unsaved, position);
+        position++;
+        size = position;
+    }
+
+    /**
+     * Donne le déplacement enregistré à un indice donné.
+     *
+     * @param index L'indice du déplacement.
+     *
+     * @return Le déplacement enregistré.
+     *
+     * @throws IndexOutOfBoundsException Si l'indice ne désigne aucun déplacement
+     *         enregistré.
+     */
+    public Move get(int index) {
+        if ((index < 0) || (index >= size)) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return Move.of((int) (words[index / MOVES_PER_WORD] >>> ((index % MOVES_PER_WORD) << 1)));
+    }
+
+    /**
+     * Vérifie s'il reste des déplacements à annuler.
+     *
+     * @return S'il est possible d'annuler un déplacement.
+     */
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    /**
+     * Vérifie s'il reste des déplacements annulés à rejouer.
+     *
+     * @return S'il est possible de rejouer un déplacement.
+     */
+    public boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * Recule d'un déplacement dans le journal.
+     * C'est à l'appelant de réaliser le déplacement opposé sur la grille.
+     *
+     * @return Le déplacement à annuler.
+     *
+     * @throws IllegalStateException S'il n'y a aucun déplacement à annuler.
+     */
+    public Move undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        position--;
+        return get(position);
+    }
+
+    /**
+     * Avance d'un déplacement dans le journal.
+     * C'est à l'appelant de réaliser ce déplacement sur la grille.
+     *
+     * @return Le déplacement à rejouer.
+     *
+     * @throws IllegalStateException S'il n'y a aucun déplacement à rejouer.
+     */
+    public Move redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("Nothing to redo");
+        }
+        Move move = get(position);
+        position++;
+        return move;
+    }
+
+    /**
+     * Donne le nombre de déplacements enregistrés, y compris ceux qui ont été annulés.
+     *
+     * @return Le nombre de déplacements enregistrés.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Donne la position courante dans le journal.
+     *
+     * @return Le nombre de déplacements qui n'ont pas été annulés.
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Vide ce journal.
+     */
+    public void clear() {
+        size = 0;
+        position = 0;
+        unsaved = 0;
+    }
+
+    /**
+     * Donne l'indice du premier déplacement modifié depuis le dernier enregistrement de
+     * ce journal.
+     *
+     * @return L'indice du premier déplacement qui n'est pas encore enregistré.
+     */
+    public int unsaved() {
+        return unsaved;
+    }
+
+    /**
+     * Indique que tous les déplacements de ce journal sont enregistrés.
+     */
+    public void markSaved() {
+        unsaved = size;
+    }
+
+    /**
+     * Indique qu'aucun déplacement de ce journal n'est enregistré, par exemple parce que
+     * son dernier enregistrement a échoué.
+     */
+    public void markUnsaved() {
+        unsaved = 0;
+    }
+
+    /**
+     * Copie la fin de ce journal.
+     *
+     * @param from L'indice du premier déplacement à copier.
+     *
+     * @return Le journal contenant les déplacements à partir de cet indice, dont aucun
+     *         n'est annulé.
+     *
+     * @throws IndexOutOfBoundsException Si l'indice ne désigne pas un déplacement
+     *         enregistré, ou la fin du journal.
+     */
+    public MoveJournal tail(int from) {
+        if ((from < 0) || (from > size)) {
+            throw new IndexOutOfBoundsException(from);
+        }
+
+        MoveJournal tail = new MoveJournal();
+        for (int i = from; i < size; i++) {
+            tail.record(get(i));
+        }
+        return tail;
+    }
+
+    /**
+     * Remplace la fin de ce journal.
+     * Ce journal est alors considéré comme enregistré.
+     *
+     * @param from L'indice du premier déplacement à remplacer.
+     * @param tail Les déplacements remplaçant ceux qui suivent cet indice.
+     * @param position La nouvelle position courante dans le journal.
+     *
+     * @throws IllegalArgumentException Si l'indice dépasse la fin de ce journal, ou si la
+     *         position dépasse la fin du journal obtenu.
+     */
+    public void splice(int from, MoveJournal tail, int position) {
+        if ((from < 0) || (from > size)) {
+            throw new IllegalArgumentException("Missing moves before " + from);
+        }
+        if ((position < 0) || (position > from + tail.size)) {
+            throw new IllegalArgumentException("Invalid journal position: " + position);
+        }
+
+        this.position = from;
+        for (int i = 0; i < tail.size; i++) {
+            record(tail.get(i));
+        }
+        this.size = from + tail.size;
+        this.position = position;
+        this.unsaved = size;
+    }
+
+    /**
+     * Écrit ce journal sous forme binaire : le nombre de déplacements, la position
+     * courante, puis les déplacements, à raison de 32 par {@code long}.
+     *
+     * @param buffer Le tampon dans lequel écrire le journal.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(size);
+        buffer.putInt(position);
+        for (int i = 0; i < wordCount(size); i++) {
+            buffer.putLong(words[i]);
+        }
+    }
+
+    /**
+     * Donne la taille (en octets) de la forme binaire de ce journal.
+     *
+     * @return La taille de la forme binaire.
+     */
+    public int binarySize() {
+        return 2 * Integer.BYTES + wordCount(size) * Long.BYTES;
+    }
+
+    /**
+     * Lit un journal écrit par {@link #writeTo(ByteBuffer)}.
+     *
+     * @param buffer Le tampon depuis lequel lire le journal.
+     *
+     * @return Le journal lu.
+     *
+     * @throws IllegalArgumentException Si le tampon ne contient pas un journal valide.
+     */
+    public static MoveJournal readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < 2 * Integer.BYTES) {
+            throw new IllegalArgumentException("Truncated move journal");
+        }
+
+        int size = buffer.getInt();
+        int position = buffer.getInt();
+        if ((size < 0) || (position < 0) || (position > size)) {
+            throw new IllegalArgumentException("Invalid move journal");
+        }
+        if (size > (long) MOVES_PER_WORD * (buffer.remaining() / Long.BYTES)) {
+            throw new IllegalArgumentException("Truncated move journal: " + size + " moves");
+        }
+
+        MoveJournal journal = new MoveJournal();
+        journal.words = new long[Math.max(INITIAL_CAPACITY, wordCount(size))];
+        for (int i = 0; i < wordCount(size); i++) {
+            journal.words[i] = buffer.getLong();
+        }
+        journal.size = size;
+        journal.position = position;
+        journal.unsaved = size;
+        return journal;
+    }
+
+    /**
+     * Lit une suite de déplacements décrite par leurs symboles.
+     *
+     * @param moves Les symboles des déplacements (voir {@link Move#symbol()}).
+     *
+     * @return Le journal contenant ces déplacements.
+     *
+     * @throws IllegalArgumentException Si l'un des symboles ne représente aucun
+     *         déplacement.
+     */
+    public static MoveJournal parse(CharSequence moves) {
+        MoveJournal journal = new MoveJournal();
+        for (int i = 0; i < moves.length(); i++) {
+            if (!Character.isWhitespace(moves.charAt(i))) {
+                journal.record(Move.of(moves.charAt(i)));
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Donne le nombre de {@code long} nécessaires pour coder des déplacements.
+     *
+     * @param moves Le nombre de déplacements.
+     *
+     * @return Le nombre de {@code long} nécessaires.
+     */
+    private static int wordCount(int moves) {
+        return (moves / MOVES_PER_WORD) + (((moves % MOVES_PER_WORD) == 0) ? 0 : 1);
+    }
+
+    /**
+     * Décrit les déplacements qui n'ont pas été annulés par leurs symboles.
+     *
+     * @return La suite des symboles des déplacements.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(position);
+        for (int i = 0; i < position; i++) {
+            builder.append(get(i).symbol());
+        }
+        return builder.toString();
+    }
+
+}
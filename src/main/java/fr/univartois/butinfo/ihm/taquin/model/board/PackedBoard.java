@@ -0,0 +1,167 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+/**
+ * La classe PackedBoard représente une grille d'au plus 16 cases (4x4, 3x5, 2x8...) dans
+ * un unique {@code long}, chaque case étant codée sur 4 bits.
+ *
+ * Un déplacement se réduit ainsi à quelques opérations bit à bit, et la vérification de
+ * l'ordre des tuiles à une simple comparaison.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class PackedBoard extends AbstractBoard {
+
+    /**
+     * Le masque permettant d'extraire la valeur d'une case.
+     */
+    private static final long MASK = 0xFL;
+
+    /**
+     * L'état de la grille lorsque les tuiles sont ordonnées.
+     */
+    private final long goal;
+
+    /**
+     * Les valeurs des tuiles, la case {@code i} occupant les bits {@code 4i} à
+     * {@code 4i + 3}.
+     */
+    private long cells;
+
+    /**
+     * Construit une nouvelle instance de PackedBoard, dont les tuiles sont ordonnées.
+     *
+     * @param size La taille de la grille.
+     *
+     * @throws IllegalArgumentException Si la taille ne permet pas de représenter la
+     *         grille dans un {@code long}.
+     */
+    public PackedBoard(int size) {
+        this(Topology.of(size));
+    }
+
+    /**
+     * Construit une nouvelle instance de PackedBoard, dont les tuiles sont ordonnées
+     * selon sa topologie.
+     *
+     * @param topology La topologie de la grille.
+     *
+     * @throws IllegalArgumentException Si la grille a trop de cases pour être
+     *         représentée dans un {@code long}.
+     */
+    public PackedBoard(Topology topology) {
+        super(topology);
+        if (topology.cells() > MAX_PACKED_CELLS) {
+            throw new IllegalArgumentException("Grid too large to be packed: " + topology);
+        }
+
+        long state = 0;
+        for (int i = 0; i < topology.cells(); i++) {
+            state |= ((long) topology.goal(i)) << (i << 2);
+        }
+        this.goal = state;
+        this.cells = state;
+    }
+
+    /**
+     * Donne la représentation compacte de cette grille.
+     *
+     * @return L'état de la grille, codé sur 4 bits par case.
+     */
+    public long packed() {
+        return cells;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#get(int)
+     */
+    @Override
+    public int get(int index) {
+        return (int) ((cells >>> (index << 2)) & MASK);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.AbstractBoard#exchange(int)
+     */
+    @Override
+    protected void exchange(int index) {
+        int shift = index << 2;
+        long tile = (cells >>> shift) & MASK;
+        cells = (cells & ~(MASK << shift)) | (tile << (empty << 2));
+        empty = index;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#isOrdered()
+     */
+    @Override
+    public boolean isOrdered() {
+        return cells == goal;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#reset()
+     */
+    @Override
+    public void reset() {
+        cells = goal;
+        empty = topology.goalIndex(0);
+        recount();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#copyTo(int[])
+     */
+    @Override
+    public void copyTo(int[] values) {
+        for (int i = 0; i < topology.cells(); i++) {
+            values[i] = get(i);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.AbstractBoard#write(int[])
+     */
+    @Override
+    protected void write(int[] values) {
+        long state = 0;
+        for (int i = 0; i < values.length; i++) {
+            state |= ((long) values[i]) << (i << 2);
+        }
+        cells = state;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.board.IBoard#copy()
+     */
+    @Override
+    public IBoard copy() {
+        PackedBoard copy = new PackedBoard(topology);
+        copy.cells = cells;
+        copy.copyState(this);
+        return copy;
+    }
+
+}
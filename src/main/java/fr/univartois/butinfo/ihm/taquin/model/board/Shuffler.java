@@ -0,0 +1,86 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+import java.util.SplittableRandom;
+
+/**
+ * La classe Shuffler propose différentes manières de mélanger une grille du Taquin.
+ *
+ * Le mélange par défaut tire une permutation uniforme des tuiles (algorithme de
+ * Fisher-Yates), puis corrige sa parité si elle n'est pas résoluble, en temps linéaire.
+ * Le mélange par marche aléatoire, qui réalise un nombre donné de déplacements au
+ * hasard, permet quant à lui de régler la difficulté de la grille obtenue.
+ *
+ * Les générateurs sont passés en paramètre, de sorte qu'un même germe produise toujours
+ * la même grille.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class Shuffler {
+
+    /**
+     * Empêche l'instanciation de cette classe utilitaire.
+     */
+    private Shuffler() {
+        throw new AssertionError("No Shuffler instances for you!");
+    }
+
+    /**
+     * Remplace le contenu d'une grille par une configuration résoluble tirée
+     * uniformément au hasard.
+     *
+     * @param board La grille à mélanger.
+     * @param random Le générateur de nombres aléatoires à utiliser.
+     */
+    public static void permute(IBoard board, SplittableRandom random) {
+        Topology topology = board.topology();
+        int[] cells = new int[topology.cells()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+
+        // On tire une permutation uniforme des tuiles (y compris la case vide).
+        for (int i = cells.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = cells[i];
+            cells[i] = cells[j];
+            cells[j] = tmp;
+        }
+
+        // Échanger deux tuiles change la parité de la permutation : c'est une bijection
+        // entre configurations résolubles et non résolubles, qui préserve l'uniformité.
+        if (!Solvability.isSolvable(topology, cells)) {
+            int first = (cells[0] == 0) ? 1 : 0;
+            int second = (cells[first + 1] == 0) ? (first + 2) : (first + 1);
+            int tmp = cells[first];
+            cells[first] = cells[second];
+            cells[second] = tmp;
+        }
+
+        board.load(cells);
+    }
+
+    /**
+     * Mélange une grille en réalisant des déplacements au hasard.
+     *
+     * @param board La grille à mélanger.
+     * @param nbMoves Le nombre de déplacements à réaliser.
+     * @param random Le générateur de nombres aléatoires à utiliser.
+     */
+    public static void walk(IBoard board, int nbMoves, SplittableRandom random) {
+        for (int i = 0; i < nbMoves; i++) {
+            while (!board.push(Move.of(random.nextInt(4)))) {
+                // Le déplacement sortait de la grille : on en choisit un autre.
+            }
+        }
+    }
+
+}
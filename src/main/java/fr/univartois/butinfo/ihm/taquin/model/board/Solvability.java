@@ -0,0 +1,97 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+/**
+ * La classe Solvability permet de vérifier qu'une configuration du Taquin peut être
+ * ramenée à la configuration ordonnée.
+ *
+ * Une configuration est résoluble si et seulement si la parité de la permutation qui
+ * l'envoie sur la configuration ordonnée (en comptant la case vide) est égale à la
+ * parité de la distance de Manhattan entre la case vide et sa position finale.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class Solvability {
+
+    /**
+     * Empêche l'instanciation de cette classe utilitaire.
+     */
+    private Solvability() {
+        throw new AssertionError("No Solvability instances for you!");
+    }
+
+    /**
+     * Vérifie si une grille peut être ordonnée.
+     *
+     * @param board La grille à vérifier.
+     *
+     * @return Si la grille peut être ordonnée.
+     */
+    public static boolean isSolvable(IBoard board) {
+        int[] cells = new int[board.topology().cells()];
+        board.copyTo(cells);
+        return isSolvable(board.topology(), cells);
+    }
+
+    /**
+     * Vérifie si une configuration peut être ordonnée.
+     *
+     * @param topology La topologie de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     *
+     * @return Si la configuration peut être ordonnée.
+     */
+    public static boolean isSolvable(Topology topology, int[] cells) {
+        return permutationParity(topology, cells) == blankParity(topology, cells);
+    }
+
+    /**
+     * Calcule la parité de la permutation envoyant une configuration sur la
+     * configuration ordonnée, en comptant ses cycles.
+     *
+     * @param topology La topologie de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     *
+     * @return La parité de la permutation ({@code 0} si elle est paire).
+     */
+    public static int permutationParity(Topology topology, int[] cells) {
+        int n = cells.length;
+        boolean[] visited = new boolean[n];
+        int cycles = 0;
+        for (int i = 0; i < n; i++) {
+            if (!visited[i]) {
+                cycles++;
+                for (int j = i; !visited[j]; j = topology.goalIndex(cells[j])) {
+                    visited[j] = true;
+                }
+            }
+        }
+        return (n - cycles) & 1;
+    }
+
+    /**
+     * Calcule la parité de la distance entre la case vide et sa position finale.
+     *
+     * @param topology La topologie de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     *
+     * @return La parité de la distance de la case vide.
+     */
+    private static int blankParity(Topology topology, int[] cells) {
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == 0) {
+                return topology.distance(i, topology.goalIndex(0)) & 1;
+            }
+        }
+        throw new IllegalArgumentException("No empty cell");
+    }
+
+}
@@ -0,0 +1,440 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * La classe Topology décrit la forme d'une grille du Taquin (rectangulaire, de
+ * {@code height} lignes et {@code width} colonnes) ainsi que la disposition attendue de
+ * ses tuiles, et précalcule les voisinages de ses cases afin que les déplacements n'aient
+ * plus à vérifier les bornes de la grille.
+ *
+ * Les cases sont indexées ligne par ligne.
+ * La disposition attendue est, par défaut, celle du Taquin classique (tuiles dans l'ordre,
+ * case vide en bas à droite), mais peut être choisie parmi les {@link GoalLayout}, ou
+ * être une permutation quelconque des tuiles.
+ *
+ * Les instances de cette classe sont immuables.
+ * Celles des dispositions prédéfinies sont partagées entre toutes les grilles de même
+ * forme : on peut donc reconnaître une telle topologie par une simple comparaison des
+ * références.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class Topology {
+
+    /**
+     * Le nombre maximal de cases d'une grille, pour que ses voisinages puissent être
+     * indexés par un {@code int}.
+     */
+    private static final int MAX_CELLS = Integer.MAX_VALUE >>> 2;
+
+    /**
+     * Le nombre de bits utilisés pour chaque dimension dans les clés du cache.
+     */
+    private static final int KEY_BITS = 29;
+
+    /**
+     * Les topologies des dispositions prédéfinies déjà calculées, indexées par la forme de
+     * la grille et la disposition.
+     */
+    private static final ConcurrentMap<Long, Topology> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Le nombre de lignes de la grille.
+     */
+    private final int height;
+
+    /**
+     * Le nombre de colonnes de la grille.
+     */
+    private final int width;
+
+    /**
+     * Le nombre de cases de la grille.
+     */
+    private final int cells;
+
+    /**
+     * Pour chaque case {@code c} et chaque déplacement {@code m}, l'indice
+     * {@code neighbors[4 * c + m]} donne la case poussée lorsque l'emplacement vide est
+     * en {@code c}, ou {@code -1} si le déplacement est impossible.
+     */
+    private final int[] neighbors;
+
+    /**
+     * La ligne de chaque case, indexée par case.
+     */
+    private final int[] rows;
+
+    /**
+     * La colonne de chaque case, indexée par case.
+     */
+    private final int[] columns;
+
+    /**
+     * La valeur de la tuile attendue sur chaque case, indexée par case.
+     */
+    private final int[] goals;
+
+    /**
+     * L'indice de la case attendue pour chaque tuile, indexé par valeur.
+     */
+    private final int[] goalIndices;
+
+    /**
+     * La disposition prédéfinie attendue, ou {@code null} si elle est quelconque.
+     */
+    private final GoalLayout layout;
+
+    /**
+     * Construit une nouvelle instance de Topology.
+     *
+     * @param height Le nombre de lignes de la grille.
+     * @param width Le nombre de colonnes de la grille.
+     * @param layout La disposition prédéfinie attendue, ou {@code null}.
+     * @param goals La valeur de la tuile attendue sur chaque case.
+     */
+    private Topology(int height, int width, GoalLayout layout, int[] goals) {
+        this.height = height;
+        this.width = width;
+        this.cells = height * width;
+        this.neighbors = new int[4 * cells];
+        this.rows = new int[cells];
+        this.columns = new int[cells];
+        this.goals = goals;
+        this.goalIndices = new int[cells];
+        this.layout = layout;
+
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                rows[row * width + column] = row;
+                columns[row * width + column] = column;
+                for (Move move : Move.values()) {
+                    int r = row + move.rowOffset();
+                    int c = column + move.columnOffset();
+                    int index = 4 * (row * width + column) + move.ordinal();
+                    if ((0 <= r) && (r < height) && (0 <= c) && (c < width)) {
+                        neighbors[index] = r * width + c;
+                    } else {
+                        neighbors[index] = -1;
+                    }
+                }
+            }
+        }
+
+        for (int index = 0; index < cells; index++) {
+            goalIndices[goals[index]] = index;
+        }
+    }
+
+    /**
+     * Donne la topologie d'une grille carrée de la taille donnée, ordonnée comme le Taquin
+     * classique.
+     *
+     * @param size La taille de la grille.
+     *
+     * @return La topologie de la grille.
+     *
+     * @throws IllegalArgumentException Si la taille est inférieure à 2.
+     */
+    public static Topology of(int size) {
+        return of(size, size, GoalLayout.STANDARD);
+    }
+
+    /**
+     * Donne la topologie d'une grille rectangulaire, ordonnée comme le Taquin classique.
+     *
+     * @param height Le nombre de lignes de la grille.
+     * @param width Le nombre de colonnes de la grille.
+     *
+     * @return La topologie de la grille.
+     *
+     * @throws IllegalArgumentException Si l'une des dimensions est inférieure à 2, ou si
+     *         la grille est trop grande.
+     */
+    public static Topology of(int height, int width) {
+        return of(height, width, GoalLayout.STANDARD);
+    }
+
+    /**
+     * Donne la topologie d'une grille rectangulaire, ordonnée selon une disposition
+     * prédéfinie.
+     *
+     * @param height Le nombre de lignes de la grille.
+     * @param width Le nombre de colonnes de la grille.
+     * @param layout La disposition attendue des tuiles.
+     *
+     * @return La topologie de la grille.
+     *
+     * @throws IllegalArgumentException Si l'une des dimensions est inférieure à 2, ou si
+     *         la grille est trop grande.
+     */
+    public static Topology of(int height, int width, GoalLayout layout) {
+        checkShape(height, width);
+        long key = ((long) layout.ordinal() << (2 * KEY_BITS))
+                | ((long) height << KEY_BITS) | width;
+        return CACHE.computeIfAbsent(key,
+                k -> new Topology(height, width, layout, layout.goals(height, width)));
+    }
+
+    /**
+     * Donne la topologie d'une grille rectangulaire, ordonnée selon une disposition
+     * quelconque.
+     * Si cette disposition est prédéfinie, la topologie partagée correspondante est
+     * renvoyée.
+     *
+     * @param height Le nombre de lignes de la grille.
+     * @param width Le nombre de colonnes de la grille.
+     * @param goals La valeur de la tuile attendue sur chaque case ({@code 0} pour
+     *        l'emplacement vide).
+     *
+     * @return La topologie de la grille.
+     *
+     * @throws IllegalArgumentException Si l'une des dimensions est inférieure à 2, si la
+     *         grille est trop grande, ou si les valeurs ne forment pas une permutation des
+     *         tuiles.
+     */
+    public static Topology of(int height, int width, int[] goals) {
+        checkShape(height, width);
+        int n = height * width;
+        if (goals.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " cells, got " + goals.length);
+        }
+
+        boolean[] seen = new boolean[n];
+        for (int value : goals) {
+            if ((value < 0) || (value >= n) || seen[value]) {
+                throw new IllegalArgumentException("Not a permutation of the tiles");
+            }
+            seen[value] = true;
+        }
+
+        for (GoalLayout layout : GoalLayout.values()) {
+            if (Arrays.equals(goals, layout.goals(height, width))) {
+                return of(height, width, layout);
+            }
+        }
+        return new Topology(height, width, null, goals.clone());
+    }
+
+    /**
+     * Vérifie les dimensions d'une grille.
+     *
+     * @param height Le nombre de lignes de la grille.
+     * @param width Le nombre de colonnes de la grille.
+     *
+     * @throws IllegalArgumentException Si l'une des dimensions est inférieure à 2, ou si
+     *         la grille est trop grande.
+     */
+    private static void checkShape(int height, int width) {
+        if ((height < 2) || (width < 2)) {
+            throw new IllegalArgumentException(
+                    "Grid dimensions must be at least 2: " + height + "x" + width);
+        }
+        if ((long) height * width > MAX_CELLS) {
+            throw new IllegalArgumentException("Grid too large: " + height + "x" + width);
+        }
+    }
+
+    /**
+     * Donne le nombre de lignes de la grille.
+     *
+     * @return Le nombre de lignes.
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Donne le nombre de colonnes de la grille.
+     *
+     * @return Le nombre de colonnes.
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Donne la taille de la grille, c'est-à-dire sa plus grande dimension.
+     * Pour une grille carrée, il s'agit de son nombre de tuiles par côté.
+     *
+     * @return La taille de la grille.
+     */
+    public int size() {
+        return Math.max(height, width);
+    }
+
+    /**
+     * Vérifie si la grille est carrée.
+     *
+     * @return Si la grille a autant de lignes que de colonnes.
+     */
+    public boolean isSquare() {
+        return height == width;
+    }
+
+    /**
+     * Donne la disposition prédéfinie attendue sur la grille.
+     *
+     * @return La disposition attendue, ou {@code null} si elle n'est pas prédéfinie.
+     */
+    public GoalLayout layout() {
+        return layout;
+    }
+
+    /**
+     * Vérifie si la disposition attendue est celle du Taquin classique, c'est-à-dire
+     * les tuiles dans l'ordre, ligne par ligne, puis la case vide en bas à droite.
+     *
+     * @return Si la disposition attendue est la disposition classique.
+     */
+    public boolean isStandard() {
+        return layout == GoalLayout.STANDARD;
+    }
+
+    /**
+     * Vérifie si cette topologie est celle du Taquin classique carré de la taille donnée.
+     * Les tables précalculées par les solveurs ne s'appliquent qu'à ces topologies.
+     *
+     * @param size La taille de la grille.
+     *
+     * @return Si la grille est carrée, de la taille donnée, et ordonnée de manière
+     *         classique.
+     */
+    public boolean isStandard(int size) {
+        return (layout == GoalLayout.STANDARD) && (height == size) && (width == size);
+    }
+
+    /**
+     * Donne le nombre de cases de la grille.
+     *
+     * @return Le nombre de cases.
+     */
+    public int cells() {
+        return cells;
+    }
+
+    /**
+     * Donne la case poussée par un déplacement lorsque l'emplacement vide se trouve sur
+     * une case donnée.
+     *
+     * @param empty L'indice de la case vide.
+     * @param move L'ordinal du déplacement.
+     *
+     * @return L'indice de la case poussée, ou {@code -1} si le déplacement est
+     *         impossible.
+     */
+    public int neighbor(int empty, int move) {
+        return neighbors[(empty << 2) | move];
+    }
+
+    /**
+     * Donne l'indice d'une case à partir de sa position.
+     *
+     * @param row La ligne de la case.
+     * @param column La colonne de la case.
+     *
+     * @return L'indice de la case.
+     */
+    public int index(int row, int column) {
+        return row * width + column;
+    }
+
+    /**
+     * Donne le déplacement poussant une case donnée dans l'emplacement vide.
+     *
+     * @param empty L'indice de la case vide.
+     * @param index L'indice de la case à pousser.
+     *
+     * @return L'ordinal du déplacement, ou {@code -1} si la case n'est pas voisine de
+     *         l'emplacement vide.
+     */
+    public int moveTo(int empty, int index) {
+        for (int move = 0; move < 4; move++) {
+            if (neighbor(empty, move) == index) {
+                return move;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Donne la valeur de la tuile attendue sur une case lorsque la grille est ordonnée.
+     *
+     * @param index L'indice de la case.
+     *
+     * @return La valeur attendue ({@code 0} pour l'emplacement vide).
+     */
+    public int goal(int index) {
+        return goals[index];
+    }
+
+    /**
+     * Donne l'indice de la case sur laquelle une tuile doit se trouver lorsque la grille
+     * est ordonnée.
+     *
+     * @param value La valeur de la tuile.
+     *
+     * @return L'indice de la case attendue.
+     */
+    public int goalIndex(int value) {
+        return goalIndices[value];
+    }
+
+    /**
+     * Donne la ligne d'une case.
+     *
+     * @param index L'indice de la case.
+     *
+     * @return La ligne de la case.
+     */
+    public int row(int index) {
+        return rows[index];
+    }
+
+    /**
+     * Donne la colonne d'une case.
+     *
+     * @param index L'indice de la case.
+     *
+     * @return La colonne de la case.
+     */
+    public int column(int index) {
+        return columns[index];
+    }
+
+    /**
+     * Calcule la distance de Manhattan entre deux cases.
+     *
+     * @param from L'indice de la première case.
+     * @param to L'indice de la seconde case.
+     *
+     * @return La distance de Manhattan entre les deux cases.
+     */
+    public int distance(int from, int to) {
+        return Math.abs(rows[from] - rows[to]) + Math.abs(columns[from] - columns[to]);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        String goal = (layout == null) ? "custom" : layout.name().toLowerCase();
+        return height + "x" + width + ((layout == GoalLayout.STANDARD) ? "" : (" " + goal));
+    }
+
+}
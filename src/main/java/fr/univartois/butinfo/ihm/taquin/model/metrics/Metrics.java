@@ -0,0 +1,276 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * La classe Metrics rassemble les mesures réalisées sur le modèle du Taquin : les
+ * déplacements, les mélanges et les recherches des solveurs.
+ *
+ * Les mesures sont désactivées par défaut (elles peuvent être activées par la propriété
+ * système {@code taquin.metrics}, ou par {@link #setEnabled(boolean)}).
+ * Lorsqu'elles sont désactivées, leur coût se limite à la lecture d'un booléen.
+ * Lorsqu'elles sont activées, elles sont aussi publiées sous la forme d'événements
+ * JDK Flight Recorder (catégorie "Taquin"), qui peuvent être enregistrés par exemple avec
+ * {@code -XX:StartFlightRecording}.
+ *
+ * Les compteurs peuvent être mis à jour depuis plusieurs threads.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class Metrics {
+
+    /**
+     * Le nombre de nanosecondes dans une seconde.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Si les mesures sont activées.
+     */
+    private static volatile boolean enabled = Boolean.getBoolean("taquin.metrics");
+
+    /**
+     * Le nombre de déplacements réalisés sur les grilles.
+     */
+    private static final LongAdder MOVES = new LongAdder();
+
+    /**
+     * Le nombre de mélanges réalisés.
+     */
+    private static final LongAdder SHUFFLES = new LongAdder();
+
+    /**
+     * La durée totale des mélanges (en nanosecondes).
+     */
+    private static final LongAdder SHUFFLE_NANOS = new LongAdder();
+
+    /**
+     * Le nombre de recherches réalisées par les solveurs.
+     */
+    private static final LongAdder SEARCHES = new LongAdder();
+
+    /**
+     * Le nombre total de nœuds développés par les solveurs.
+     */
+    private static final LongAdder NODES = new LongAdder();
+
+    /**
+     * La durée totale des recherches (en nanosecondes).
+     */
+    private static final LongAdder SEARCH_NANOS = new LongAdder();
+
+    /**
+     * Le profil de la dernière recherche terminée.
+     */
+    private static volatile SearchProfile lastProfile;
+
+    /**
+     * Désactive le constructeur de cette classe utilitaire.
+     */
+    private Metrics() {
+        throw new AssertionError("No Metrics instances for you!");
+    }
+
+    /**
+     * Indique si les mesures sont activées.
+     *
+     * @return Si les mesures sont activées.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Active ou désactive les mesures.
+     *
+     * @param enabled Si les mesures doivent être activées.
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Remet à zéro tous les compteurs.
+     */
+    public static void reset() {
+        MOVES.reset();
+        SHUFFLES.reset();
+        SHUFFLE_NANOS.reset();
+        SEARCHES.reset();
+        NODES.reset();
+        SEARCH_NANOS.reset();
+        lastProfile = null;
+    }
+
+    /**
+     * Enregistre un déplacement réalisé sur une grille.
+     * Cette méthode ne doit être appelée que si les mesures sont activées.
+     */
+    public static void recordMove() {
+        MOVES.increment();
+    }
+
+    /**
+     * Enregistre plusieurs déplacements réalisés sur une grille.
+     * Cette méthode ne doit être appelée que si les mesures sont activées.
+     *
+     * @param count Le nombre de déplacements réalisés.
+     */
+    public static void recordMoves(int count) {
+        MOVES.add(count);
+    }
+
+    /**
+     * Enregistre un mélange de grille.
+     * Cette méthode ne doit être appelée que si les mesures sont activées.
+     *
+     * @param size La taille de la grille mélangée.
+     * @param moves Le nombre de déplacements aléatoires réalisés, ou {@code 0} pour un
+     *        tirage uniforme.
+     * @param start L'instant (donné par {@link System#nanoTime()}) du début du mélange.
+     */
+    public static void recordShuffle(int size, int moves, long start) {
+        long nanos = System.nanoTime() - start;
+        SHUFFLES.increment();
+        SHUFFLE_NANOS.add(nanos);
+
+        ShuffleEvent event = new ShuffleEvent();
+        if (event.shouldCommit()) {
+            event.size = size;
+            event.moves = moves;
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Commence le profil d'une recherche.
+     *
+     * @param solver Le solveur réalisant la recherche.
+     * @param size La taille de la grille à résoudre.
+     *
+     * @return Le profil de la recherche, ou {@code null} si les mesures sont désactivées.
+     */
+    public static SearchProfile startSearch(Object solver, int size) {
+        if (!enabled) {
+            return null;
+        }
+        return new SearchProfile(solver.getClass().getSimpleName(), size);
+    }
+
+    /**
+     * Enregistre une recherche terminée.
+     *
+     * @param profile Le profil de la recherche.
+     */
+    static void recordSearch(SearchProfile profile) {
+        SEARCHES.increment();
+        NODES.add(profile.getNodes());
+        SEARCH_NANOS.add(profile.getNanos());
+        lastProfile = profile;
+    }
+
+    /**
+     * Donne le nombre de déplacements réalisés sur les grilles.
+     *
+     * @return Le nombre de déplacements.
+     */
+    public static long getMoves() {
+        return MOVES.sum();
+    }
+
+    /**
+     * Donne le nombre de mélanges réalisés.
+     *
+     * @return Le nombre de mélanges.
+     */
+    public static long getShuffles() {
+        return SHUFFLES.sum();
+    }
+
+    /**
+     * Donne la durée totale des mélanges.
+     *
+     * @return La durée des mélanges (en nanosecondes).
+     */
+    public static long getShuffleNanos() {
+        return SHUFFLE_NANOS.sum();
+    }
+
+    /**
+     * Donne le nombre de recherches réalisées par les solveurs.
+     *
+     * @return Le nombre de recherches.
+     */
+    public static long getSearches() {
+        return SEARCHES.sum();
+    }
+
+    /**
+     * Donne le nombre total de nœuds développés par les solveurs.
+     *
+     * @return Le nombre de nœuds.
+     */
+    public static long getNodes() {
+        return NODES.sum();
+    }
+
+    /**
+     * Donne la durée totale des recherches.
+     *
+     * @return La durée des recherches (en nanosecondes).
+     */
+    public static long getSearchNanos() {
+        return SEARCH_NANOS.sum();
+    }
+
+    /**
+     * Donne le nombre moyen de nœuds développés par seconde de recherche.
+     *
+     * @return Le nombre de nœuds par seconde.
+     */
+    public static double getNodesPerSecond() {
+        return perSecond(getNodes(), getSearchNanos());
+    }
+
+    /**
+     * Donne le profil de la dernière recherche terminée.
+     *
+     * @return Le profil de la dernière recherche, ou {@code null} s'il n'y en a aucune.
+     */
+    public static SearchProfile getLastProfile() {
+        return lastProfile;
+    }
+
+    /**
+     * Donne un résumé des mesures réalisées.
+     *
+     * @return Le résumé des mesures.
+     */
+    public static String summary() {
+        return String.format("moves=%d shuffles=%d searches=%d nodes=%d nodes/s=%.0f",
+                getMoves(), getShuffles(), getSearches(), getNodes(), getNodesPerSecond());
+    }
+
+    /**
+     * Calcule un débit.
+     *
+     * @param count Le nombre d'éléments traités.
+     * @param nanos La durée du traitement (en nanosecondes).
+     *
+     * @return Le nombre d'éléments traités par seconde.
+     */
+    static double perSecond(long count, long nanos) {
+        return (nanos == 0) ? 0 : (count * NANOS_PER_SECOND / nanos);
+    }
+
+}
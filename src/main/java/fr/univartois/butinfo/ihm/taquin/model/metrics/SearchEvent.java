@@ -0,0 +1,74 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * La classe SearchEvent est l'événement JDK Flight Recorder décrivant une recherche
+ * réalisée par un solveur du Taquin.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+@Name("fr.univartois.butinfo.ihm.taquin.Search")
+@Label("Search")
+@Category("Taquin")
+@Description("Une recherche réalisée par un solveur du Taquin.")
+final class SearchEvent extends Event {
+
+    /**
+     * Le nom du solveur.
+     */
+    @Label("Solveur")
+    String solver;
+
+    /**
+     * La taille de la grille.
+     */
+    @Label("Taille")
+    int size;
+
+    /**
+     * La longueur de la solution, ou -1 si la recherche a été abandonnée.
+     */
+    @Label("Longueur")
+    int length;
+
+    /**
+     * Le nombre d'itérations.
+     */
+    @Label("Itérations")
+    int iterations;
+
+    /**
+     * Le nombre de nœuds développés.
+     */
+    @Label("Nœuds")
+    long nodes;
+
+    /**
+     * Le débit de la recherche.
+     */
+    @Label("Nœuds par seconde")
+    double nodesPerSecond;
+
+    /**
+     * La durée de la recherche.
+     */
+    @Label("Durée")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+
+}
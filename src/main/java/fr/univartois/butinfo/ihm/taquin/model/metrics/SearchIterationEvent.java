@@ -0,0 +1,62 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * La classe SearchIterationEvent est l'événement JDK Flight Recorder décrivant une
+ * itération d'une recherche réalisée par un solveur du Taquin.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+@Name("fr.univartois.butinfo.ihm.taquin.SearchIteration")
+@Label("SearchIteration")
+@Category("Taquin")
+@Description("Une itération d'une recherche réalisée par un solveur du Taquin.")
+final class SearchIterationEvent extends Event {
+
+    /**
+     * Le nom du solveur.
+     */
+    @Label("Solveur")
+    String solver;
+
+    /**
+     * L'indice de l'itération.
+     */
+    @Label("Itération")
+    int iteration;
+
+    /**
+     * Le seuil de l'itération.
+     */
+    @Label("Seuil")
+    int threshold;
+
+    /**
+     * Le nombre de nœuds développés par l'itération.
+     */
+    @Label("Nœuds")
+    long nodes;
+
+    /**
+     * La durée de l'itération.
+     */
+    @Label("Durée")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+
+}
@@ -0,0 +1,309 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.metrics;
+
+import java.util.Arrays;
+
+/**
+ * La classe SearchProfile décrit le déroulement d'une recherche réalisée par un
+ * solveur : ses itérations (avec leur seuil, le nombre de nœuds développés et leur
+ * durée) et le nombre de nœuds développés à chaque profondeur.
+ *
+ * Un profil est rempli par le thread réalisant la recherche, puis publié (dans
+ * {@link Metrics} et sous la forme d'un événement JFR) lorsque la recherche se termine.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class SearchProfile {
+
+    /**
+     * Le nombre initial d'itérations pouvant être enregistrées.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Le nom du solveur réalisant la recherche.
+     */
+    private final String solver;
+
+    /**
+     * La taille de la grille à résoudre.
+     */
+    private final int size;
+
+    /**
+     * L'instant (en nanosecondes) du début de la recherche.
+     */
+    private final long start;
+
+    /**
+     * Les seuils des itérations.
+     */
+    private int[] thresholds = new int[INITIAL_CAPACITY];
+
+    /**
+     * Le nombre de nœuds développés par chaque itération.
+     */
+    private long[] iterationNodes = new long[INITIAL_CAPACITY];
+
+    /**
+     * La durée (en nanosecondes) de chaque itération.
+     */
+    private long[] iterationNanos = new long[INITIAL_CAPACITY];
+
+    /**
+     * Le nombre d'itérations enregistrées.
+     */
+    private int iterations;
+
+    /**
+     * Le nombre de nœuds développés à chaque profondeur, ou {@code null} si le solveur
+     * ne les compte pas.
+     */
+    private long[] depthNodes;
+
+    /**
+     * L'instant (en nanosecondes) de la fin de la dernière itération.
+     */
+    private long lastMark;
+
+    /**
+     * Le nombre de nœuds développés depuis le début de la recherche.
+     */
+    private long nodes;
+
+    /**
+     * La durée (en nanosecondes) de la recherche, une fois terminée.
+     */
+    private long nanos;
+
+    /**
+     * La longueur de la solution trouvée, ou {@code -1} si la recherche a été abandonnée.
+     */
+    private int length = -1;
+
+    /**
+     * Construit une nouvelle instance de SearchProfile.
+     *
+     * @param solver Le nom du solveur réalisant la recherche.
+     * @param size La taille de la grille à résoudre.
+     */
+    SearchProfile(String solver, int size) {
+        this.solver = solver;
+        this.size = size;
+        this.start = System.nanoTime();
+        this.lastMark = start;
+    }
+
+    /**
+     * Donne le tableau dans lequel le solveur compte les nœuds développés à chaque
+     * profondeur.
+     *
+     * @param maxDepth La profondeur maximale de la recherche.
+     *
+     * @return Le tableau des nœuds développés, indexé par profondeur.
+     */
+    public long[] depthHistogram(int maxDepth) {
+        if (depthNodes == null) {
+            depthNodes = new long[maxDepth + 1];
+        }
+        return depthNodes;
+    }
+
+    /**
+     * Enregistre la fin d'une itération de la recherche.
+     *
+     * @param threshold Le seuil de l'itération (par exemple, la borne d'IDA* ou la
+     *        profondeur atteinte par un parcours en largeur).
+     * @param totalNodes Le nombre de nœuds développés depuis le début de la recherche.
+     */
+    public void iteration(int threshold, long totalNodes) {
+        long now = System.nanoTime();
+        if (iterations == thresholds.length) {
+            thresholds = Arrays.copyOf(thresholds, 2 * iterations);
+            iterationNodes = Arrays.copyOf(iterationNodes, 2 * iterations);
+            iterationNanos = Arrays.copyOf(iterationNanos, 2 * iterations);
+        }
+        thresholds[iterations] = threshold;
+        iterationNodes[iterations] = totalNodes - nodes;
+        iterationNanos[iterations] = now - lastMark;
+
+        SearchIterationEvent event = new SearchIterationEvent();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.iteration = iterations;
+            event.threshold = threshold;
+            event.nodes = totalNodes - nodes;
+            event.nanos = now - lastMark;
+            event.commit();
+        }
+
+        iterations++;
+        nodes = totalNodes;
+        lastMark = now;
+    }
+
+    /**
+     * Termine la recherche, et publie ce profil.
+     *
+     * @param totalNodes Le nombre de nœuds développés depuis le début de la recherche.
+     * @param solutionLength La longueur de la solution trouvée, ou {@code -1} si la
+     *        recherche a été abandonnée.
+     */
+    public void finish(long totalNodes, int solutionLength) {
+        this.nodes = totalNodes;
+        this.length = solutionLength;
+        this.nanos = System.nanoTime() - start;
+        Metrics.recordSearch(this);
+
+        SearchEvent event = new SearchEvent();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.size = size;
+            event.length = solutionLength;
+            event.iterations = iterations;
+            event.nodes = totalNodes;
+            event.nodesPerSecond = getNodesPerSecond();
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Donne le nom du solveur ayant réalisé la recherche.
+     *
+     * @return Le nom du solveur.
+     */
+    public String getSolver() {
+        return solver;
+    }
+
+    /**
+     * Donne la taille de la grille résolue.
+     *
+     * @return La taille de la grille.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Donne la longueur de la solution trouvée.
+     *
+     * @return La longueur de la solution, ou {@code -1} si la recherche a été
+     *         abandonnée.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Donne le nombre de nœuds développés par la recherche.
+     *
+     * @return Le nombre de nœuds.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Donne la durée de la recherche.
+     *
+     * @return La durée de la recherche (en nanosecondes).
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Donne le nombre de nœuds développés par seconde.
+     *
+     * @return Le débit de la recherche.
+     */
+    public double getNodesPerSecond() {
+        return Metrics.perSecond(nodes, nanos);
+    }
+
+    /**
+     * Donne le nombre d'itérations de la recherche.
+     *
+     * @return Le nombre d'itérations.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Donne le seuil d'une itération.
+     *
+     * @param iteration L'indice de l'itération.
+     *
+     * @return Le seuil de l'itération.
+     */
+    public int getThreshold(int iteration) {
+        return thresholds[iteration];
+    }
+
+    /**
+     * Donne le nombre de nœuds développés par une itération.
+     *
+     * @param iteration L'indice de l'itération.
+     *
+     * @return Le nombre de nœuds de l'itération.
+     */
+    public long getIterationNodes(int iteration) {
+        return iterationNodes[iteration];
+    }
+
+    /**
+     * Donne la durée d'une itération.
+     *
+     * @param iteration L'indice de l'itération.
+     *
+     * @return La durée de l'itération (en nanosecondes).
+     */
+    public long getIterationNanos(int iteration) {
+        return iterationNanos[iteration];
+    }
+
+    /**
+     * Donne le nombre de nœuds développés à une profondeur donnée, toutes itérations
+     * confondues.
+     *
+     * @param depth La profondeur à considérer.
+     *
+     * @return Le nombre de nœuds développés à cette profondeur, ou {@code 0} si le
+     *         solveur ne les compte pas.
+     */
+    public long getDepthNodes(int depth) {
+        if ((depthNodes == null) || (depth >= depthNodes.length)) {
+            return 0;
+        }
+        return depthNodes[depth];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%s %dx%d: length=%d nodes=%d nodes/s=%.0f%n", solver,
+                size, size, length, nodes, getNodesPerSecond()));
+        for (int i = 0; i < iterations; i++) {
+            builder.append(String.format("  threshold=%d nodes=%d time=%.3fms%n",
+                    thresholds[i], iterationNodes[i], iterationNanos[i] / 1e6));
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * La classe ShuffleEvent est l'événement JDK Flight Recorder décrivant un mélange d'une
+ * grille du Taquin.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+@Name("fr.univartois.butinfo.ihm.taquin.Shuffle")
+@Label("Shuffle")
+@Category("Taquin")
+@Description("Un mélange d'une grille du Taquin.")
+final class ShuffleEvent extends Event {
+
+    /**
+     * La taille de la grille.
+     */
+    @Label("Taille")
+    int size;
+
+    /**
+     * Le nombre de déplacements aléatoires, ou 0 pour un tirage uniforme.
+     */
+    @Label("Déplacements")
+    int moves;
+
+    /**
+     * La durée du mélange.
+     */
+    @Label("Durée")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+
+}
@@ -0,0 +1,196 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.save;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.MoveJournal;
+
+/**
+ * La classe GameCheckpoint est une copie de l'état d'une partie (grille, nombre de
+ * déplacements et historique), prise sur le thread où la partie se joue afin d'être
+ * enregistrée plus tard par un autre thread.
+ *
+ * Seuls les déplacements de l'historique modifiés depuis la copie précédente de la
+ * partie sont copiés (voir {@link MoveJournal#unsaved()}) : le coût d'une copie ne
+ * dépend donc pas de la longueur de la partie.
+ * L'historique complet est reconstruit à la lecture, en enchaînant les enregistrements
+ * de la partie (voir {@link GameRecord#readJournal()}).
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class GameCheckpoint {
+
+    /**
+     * L'identifiant de la partie.
+     */
+    private final long gameId;
+
+    /**
+     * L'instant (en millisecondes depuis l'époque) de la copie.
+     */
+    private final long timestamp;
+
+    /**
+     * La copie de la grille.
+     */
+    private final IBoard board;
+
+    /**
+     * Le nombre de déplacements réalisés.
+     */
+    private final int nbMoves;
+
+    /**
+     * L'indice, dans l'historique, du premier déplacement copié.
+     */
+    private final int from;
+
+    /**
+     * Les déplacements de l'historique copiés, à partir de {@link #from}.
+     */
+    private final MoveJournal moves;
+
+    /**
+     * La position courante dans l'historique.
+     */
+    private final int position;
+
+    /**
+     * Copie l'état d'une partie, en ne copiant de l'historique que les déplacements
+     * modifiés depuis la copie précédente.
+     * L'historique est ensuite considéré comme enregistré.
+     *
+     * @param gameId L'identifiant de la partie.
+     * @param board La grille de la partie.
+     * @param nbMoves Le nombre de déplacements réalisés.
+     * @param journal L'historique des déplacements de la partie.
+     */
+    public GameCheckpoint(long gameId, IBoard board, int nbMoves, MoveJournal journal) {
+        this(gameId, System.currentTimeMillis(), board.copy(), nbMoves, journal.unsaved(),
+                journal.tail(journal.unsaved()), journal.position());
+        journal.markSaved();
+    }
+
+    /**
+     * Construit une nouvelle instance de GameCheckpoint.
+     *
+     * @param gameId L'identifiant de la partie.
+     * @param timestamp L'instant de la copie.
+     * @param board La copie de la grille.
+     * @param nbMoves Le nombre de déplacements réalisés.
+     * @param from L'indice du premier déplacement copié.
+     * @param moves Les déplacements copiés.
+     * @param position La position courante dans l'historique.
+     */
+    private GameCheckpoint(long gameId, long timestamp, IBoard board, int nbMoves,
+            int from, MoveJournal moves, int position) {
+        this.gameId = gameId;
+        this.timestamp = timestamp;
+        this.board = board;
+        this.nbMoves = nbMoves;
+        this.from = from;
+        this.moves = moves;
+        this.position = position;
+    }
+
+    /**
+     * Combine cette copie avec la copie précédente de la même partie, qui n'a pas été
+     * enregistrée : la copie obtenue contient les déplacements modifiés depuis la
+     * dernière copie enregistrée.
+     *
+     * @param previous La copie précédente de la partie.
+     *
+     * @return La copie combinée.
+     */
+    GameCheckpoint after(GameCheckpoint previous) {
+        if (from <= previous.from) {
+            return this;
+        }
+
+        MoveJournal combined = previous.moves.tail(0);
+        combined.splice(from - previous.from, moves, from - previous.from + moves.size());
+        return new GameCheckpoint(gameId, timestamp, board, nbMoves, previous.from,
+                combined, position);
+    }
+
+    /**
+     * Donne l'identifiant de la partie.
+     *
+     * @return L'identifiant de la partie.
+     */
+    public long getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Donne l'instant de la copie.
+     *
+     * @return L'instant de la copie, en millisecondes depuis l'époque.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Donne la copie de la grille.
+     *
+     * @return La copie de la grille.
+     */
+    IBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Donne le nombre de déplacements réalisés.
+     *
+     * @return Le nombre de déplacements réalisés.
+     */
+    public int getNbMoves() {
+        return nbMoves;
+    }
+
+    /**
+     * Vérifie si cette copie contient l'historique complet de la partie, qui peut donc
+     * être reconstruit sans les copies précédentes.
+     *
+     * @return Si l'historique est copié depuis son début.
+     */
+    public boolean isComplete() {
+        return from == 0;
+    }
+
+    /**
+     * Donne l'indice, dans l'historique, du premier déplacement copié.
+     *
+     * @return L'indice du premier déplacement copié.
+     */
+    int getFrom() {
+        return from;
+    }
+
+    /**
+     * Donne les déplacements de l'historique copiés.
+     *
+     * @return Les déplacements copiés, à partir de {@link #getFrom()}.
+     */
+    MoveJournal getMoves() {
+        return moves;
+    }
+
+    /**
+     * Donne la position courante dans l'historique.
+     *
+     * @return La position courante.
+     */
+    int getPosition() {
+        return position;
+    }
+
+}
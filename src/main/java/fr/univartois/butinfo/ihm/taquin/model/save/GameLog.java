@@ -0,0 +1,345 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.save;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.BoardCodec;
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.MoveJournal;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * La classe GameLog représente un journal binaire, en ajout seul, des états successifs
+ * des parties, projeté en mémoire.
+ *
+ * Le fichier commence par un nombre magique et une version, suivis des
+ * enregistrements : la longueur de l'enregistrement (sur 4 octets), puis son contenu
+ * (voir {@link GameRecord}).
+ * La longueur est écrite en dernier : un enregistrement interrompu (par exemple par un
+ * arrêt brutal) a donc une longueur nulle, et marque la fin du journal à la prochaine
+ * ouverture.
+ * La longueur qui suit un enregistrement est remise à zéro avant qu'il ne soit validé,
+ * de sorte que les octets laissés par un enregistrement interrompu plus long ne sont
+ * jamais lus comme un enregistrement.
+ * Le fichier est agrandi par blocs pour être projeté : l'espace qui suit le dernier
+ * enregistrement est rempli de zéros, et il est ignoré de la même manière.
+ * L'état courant d'une partie est celui de son dernier enregistrement.
+ * Chaque enregistrement ne contient que la fin de l'historique de la partie modifiée
+ * depuis l'enregistrement précédent (voir {@link GameCheckpoint}), si bien que la
+ * taille du journal croît linéairement avec le nombre de déplacements joués.
+ *
+ * Les ajouts ne sont pas synchronisés : ils doivent être réalisés par un unique thread
+ * (voir {@link GameSaver}).
+ * Les enregistrements déjà écrits peuvent en revanche être parcourus depuis n'importe
+ * quel thread.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class GameLog implements AutoCloseable {
+
+    /**
+     * Le nombre magique identifiant les journaux de parties ("TQGL").
+     */
+    private static final int MAGIC = 0x5451474C;
+
+    /**
+     * La version du format des journaux de parties.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * La taille de l'en-tête du fichier.
+     */
+    private static final int FILE_HEADER = 2 * Integer.BYTES;
+
+    /**
+     * La taille minimale de la projection du fichier (1 Mo).
+     */
+    private static final int MIN_CAPACITY = 1 << 20;
+
+    /**
+     * Le canal d'accès au fichier.
+     */
+    private final FileChannel channel;
+
+    /**
+     * La projection du fichier en mémoire.
+     */
+    private volatile MappedByteBuffer buffer;
+
+    /**
+     * La position de la fin du dernier enregistrement.
+     */
+    private volatile int end;
+
+    /**
+     * La position du dernier enregistrement, ou {@code -1} si le journal est vide.
+     */
+    private volatile int last = -1;
+
+    /**
+     * Le plus grand identifiant de partie enregistré, ou {@code -1} si le journal est
+     * vide.
+     */
+    private long maxGameId = -1;
+
+    /**
+     * La position du dernier enregistrement de chaque partie.
+     */
+    private final Map<Long, Integer> lastRecords = new HashMap<>();
+
+    /**
+     * Les codecs des grilles compactes, indexés par nombre de cases (le rang d'une grille
+     * ne dépend pas de sa forme).
+     */
+    private final BoardCodec[] codecs = new BoardCodec[BoardCodec.MAX_COMPACT_CELLS + 1];
+
+    /**
+     * Construit une nouvelle instance de GameLog.
+     *
+     * @param channel Le canal d'accès au fichier.
+     */
+    private GameLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Ouvre un journal de parties, en le créant s'il n'existe pas.
+     *
+     * @param path Le chemin du fichier.
+     *
+     * @return Le journal ouvert.
+     *
+     * @throws IOException Si le fichier ne peut pas être ouvert, ou s'il n'a pas le bon
+     *         format.
+     */
+    public static GameLog open(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            GameLog log = new GameLog(channel);
+            log.load();
+            return log;
+
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Projette le fichier en mémoire, et retrouve la fin du dernier enregistrement.
+     *
+     * @throws IOException Si le fichier n'a pas le bon format.
+     */
+    private void load() throws IOException {
+        long length = channel.size();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Game log too large: " + length);
+        }
+
+        map(Math.max(MIN_CAPACITY, (int) length));
+        if (length == 0) {
+            buffer.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION);
+        } else if ((buffer.getInt(0) != MAGIC) || (buffer.getInt(Integer.BYTES) != VERSION)) {
+            throw new IOException("Not a game log");
+        }
+
+        int position = FILE_HEADER;
+        while (position + Integer.BYTES <= buffer.capacity()) {
+            int size = buffer.getInt(position);
+            if ((size <= 0) || (size > buffer.capacity() - position - Integer.BYTES)) {
+                break;
+            }
+            long gameId = buffer.getLong(position + GameRecord.GAME_ID);
+            last = position;
+            maxGameId = Math.max(maxGameId, gameId);
+            lastRecords.put(gameId, position);
+            position += Integer.BYTES + size;
+        }
+        end = position;
+    }
+
+    /**
+     * Projette en mémoire le début du fichier, en l'agrandissant au besoin.
+     *
+     * @param capacity La taille de la projection.
+     *
+     * @throws IOException Si le fichier ne peut pas être projeté.
+     */
+    private void map(int capacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Ajoute un enregistrement à ce journal.
+     * Les copies d'une même partie doivent être ajoutées dans l'ordre où elles ont été
+     * prises, chacune complétant l'historique enregistré par la précédente.
+     * L'enregistrement n'est garanti sur disque qu'après l'appel de {@link #force()}.
+     *
+     * @param checkpoint L'état de la partie à enregistrer.
+     *
+     * @throws IOException Si le fichier ne peut pas être agrandi.
+     * @throws IllegalArgumentException Si la disposition attendue des tuiles de la partie
+     *         n'est pas prédéfinie, ou si la copie complète un historique qui n'a jamais
+     *         été enregistré.
+     */
+    public void append(GameCheckpoint checkpoint) throws IOException {
+        IBoard board = checkpoint.getBoard();
+        Topology topology = board.topology();
+        if (topology.layout() == null) {
+            throw new IllegalArgumentException("Cannot record a custom goal: " + topology);
+        }
+        int previous = lastRecords.getOrDefault(checkpoint.getGameId(), -1);
+        if ((previous < 0) && !checkpoint.isComplete()) {
+            throw new IllegalArgumentException(
+                    "No previous record for game " + checkpoint.getGameId());
+        }
+        boolean compact = topology.cells() <= BoardCodec.MAX_COMPACT_CELLS;
+        BoardCodec codec = compact ? codec(topology) : null;
+        int boardBytes = compact ? codec.rankBytes() : (2 * topology.cells());
+        MoveJournal moves = checkpoint.getMoves();
+        int size = GameRecord.BOARD - Integer.BYTES + boardBytes + moves.binarySize();
+
+        // La place de la longueur de l'enregistrement suivant est aussi réservée.
+        int position = end;
+        long required = (long) position + 2 * Integer.BYTES + size;
+        if (required > buffer.capacity()) {
+            long capacity = Math.max(2L * buffer.capacity(), required);
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IOException("Game log full");
+            }
+            map((int) capacity);
+        }
+        int next = position + Integer.BYTES + size;
+
+        ByteBuffer record = buffer.duplicate().position(position + Integer.BYTES);
+        record.putLong(checkpoint.getGameId());
+        record.putLong(checkpoint.getTimestamp());
+        record.putInt(topology.height());
+        record.putInt(topology.width());
+        record.put((byte) topology.layout().ordinal());
+        record.putInt(checkpoint.getNbMoves());
+        record.put((byte) (board.isOrdered() ? 1 : 0));
+        record.putInt(previous);
+        record.putInt(checkpoint.getFrom());
+        record.putInt(checkpoint.getPosition());
+        record.putInt(boardBytes);
+        if (compact) {
+            codec.write(board, record);
+        } else {
+            for (int i = 0; i < topology.cells(); i++) {
+                record.putShort((short) board.get(i));
+            }
+        }
+        moves.writeTo(record);
+
+        // Un enregistrement interrompu plus long que celui-ci a pu laisser des octets à
+        // sa suite : la longueur suivante est remise à zéro avant de valider
+        // l'enregistrement, pour qu'ils ne soient pas lus comme un enregistrement.
+        buffer.putInt(next, 0);
+
+        // La longueur est écrite en dernier, pour valider l'enregistrement.
+        buffer.putInt(position, size);
+        maxGameId = Math.max(maxGameId, checkpoint.getGameId());
+        lastRecords.put(checkpoint.getGameId(), position);
+        last = position;
+        end = next;
+    }
+
+    /**
+     * Donne le codec des grilles compactes d'une topologie.
+     *
+     * @param topology La topologie des grilles.
+     *
+     * @return Le codec des grilles.
+     */
+    private BoardCodec codec(Topology topology) {
+        if (codecs[topology.cells()] == null) {
+            codecs[topology.cells()] = new BoardCodec(topology);
+        }
+        return codecs[topology.cells()];
+    }
+
+    /**
+     * Écrit sur disque les enregistrements ajoutés à ce journal.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Donne le plus grand identifiant de partie enregistré dans ce journal.
+     *
+     * @return Le plus grand identifiant, ou {@code -1} si le journal est vide.
+     */
+    public long getMaxGameId() {
+        return maxGameId;
+    }
+
+    /**
+     * Donne le dernier enregistrement de ce journal.
+     *
+     * @return Le dernier enregistrement, ou {@code null} si le journal est vide.
+     */
+    public GameRecord latest() {
+        int position = last;
+        if (position < 0) {
+            return null;
+        }
+        return new GameRecord().moveTo(buffer, position);
+    }
+
+    /**
+     * Parcourt tous les enregistrements de ce journal, dans l'ordre où ils ont été
+     * ajoutés.
+     * Le même accès est repositionné sur chaque enregistrement (voir
+     * {@link GameRecord}).
+     *
+     * @param action L'action à réaliser sur chaque enregistrement.
+     */
+    public void forEach(Consumer<GameRecord> action) {
+        // La fin est lue avant la projection, qui la contient donc forcément.
+        int limit = end;
+        ByteBuffer records = buffer;
+        GameRecord record = new GameRecord();
+        for (int position = FILE_HEADER; position < limit;
+                position += Integer.BYTES + records.getInt(position)) {
+            action.accept(record.moveTo(records, position));
+        }
+    }
+
+    /**
+     * Ferme ce journal, en écrivant sur disque ses enregistrements.
+     * Le fichier n'est pas tronqué : la projection n'est libérée que par le
+     * ramasse-miettes, et tronquer un fichier encore projeté échoue sur certains
+     * systèmes (ou provoque des erreurs lors des accès suivants à la projection).
+     *
+     * @throws IOException Si une erreur se produit lors de la fermeture.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        buffer = null;
+        channel.close();
+    }
+
+}
@@ -0,0 +1,264 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.save;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.BoardCodec;
+import fr.univartois.butinfo.ihm.taquin.model.board.GoalLayout;
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.MoveJournal;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * La classe GameRecord donne accès à un enregistrement d'un {@link GameLog}, directement
+ * dans le fichier projeté en mémoire.
+ *
+ * Les informations de l'en-tête (identifiant, forme, nombre de déplacements...) sont
+ * lues sans rien allouer : seules {@link #readBoard()} et {@link #readJournal()}
+ * reconstruisent la grille et l'historique de la partie.
+ * Jusqu'à 16 cases, la grille est enregistrée par son rang (voir {@link BoardCodec}) ;
+ * au-delà, calculer ce rang serait trop coûteux, et les valeurs des tuiles sont
+ * enregistrées sur 2 octets chacune.
+ * Un enregistrement ne contient que les déplacements de l'historique modifiés depuis
+ * l'enregistrement précédent de la même partie, dont il retient la position :
+ * l'historique complet est reconstruit en remontant ces enregistrements.
+ * Lors d'un parcours du journal, la même instance est repositionnée sur chaque
+ * enregistrement : elle ne doit donc pas être conservée au-delà de l'appel qui la
+ * reçoit.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class GameRecord {
+
+    /**
+     * La position de l'identifiant de la partie dans un enregistrement.
+     */
+    static final int GAME_ID = Integer.BYTES;
+
+    /**
+     * La position de l'instant de l'enregistrement.
+     */
+    static final int TIMESTAMP = GAME_ID + Long.BYTES;
+
+    /**
+     * La position du nombre de lignes de la grille.
+     */
+    static final int HEIGHT = TIMESTAMP + Long.BYTES;
+
+    /**
+     * La position du nombre de colonnes de la grille.
+     */
+    static final int WIDTH = HEIGHT + Integer.BYTES;
+
+    /**
+     * La position de l'ordinal de la disposition attendue des tuiles.
+     */
+    static final int LAYOUT = WIDTH + Integer.BYTES;
+
+    /**
+     * La position du nombre de déplacements.
+     */
+    static final int NB_MOVES = LAYOUT + 1;
+
+    /**
+     * La position de l'indicateur de grille ordonnée.
+     */
+    static final int ORDERED = NB_MOVES + Integer.BYTES;
+
+    /**
+     * La position de l'enregistrement précédent de la même partie dans le journal.
+     */
+    static final int PREVIOUS = ORDERED + 1;
+
+    /**
+     * La position de l'indice, dans l'historique, du premier déplacement enregistré.
+     */
+    static final int FROM = PREVIOUS + Integer.BYTES;
+
+    /**
+     * La position de la position courante dans l'historique.
+     */
+    static final int POSITION = FROM + Integer.BYTES;
+
+    /**
+     * La position du nombre d'octets de la grille.
+     */
+    static final int BOARD_BYTES = POSITION + Integer.BYTES;
+
+    /**
+     * La position de la grille, suivie des déplacements de l'historique enregistrés.
+     */
+    static final int BOARD = BOARD_BYTES + Integer.BYTES;
+
+    /**
+     * Le tampon contenant l'enregistrement.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * La position de l'enregistrement dans le tampon.
+     */
+    private int offset;
+
+    /**
+     * Positionne cet accès sur un enregistrement.
+     *
+     * @param buffer Le tampon contenant l'enregistrement.
+     * @param offset La position de l'enregistrement dans le tampon.
+     *
+     * @return Cet accès.
+     */
+    GameRecord moveTo(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Donne l'identifiant de la partie enregistrée.
+     *
+     * @return L'identifiant de la partie.
+     */
+    public long getGameId() {
+        return buffer.getLong(offset + GAME_ID);
+    }
+
+    /**
+     * Donne l'instant de l'enregistrement.
+     *
+     * @return L'instant de l'enregistrement, en millisecondes depuis l'époque.
+     */
+    public long getTimestamp() {
+        return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    /**
+     * Donne le nombre de lignes de la grille enregistrée.
+     *
+     * @return Le nombre de lignes de la grille.
+     */
+    public int getHeight() {
+        return buffer.getInt(offset + HEIGHT);
+    }
+
+    /**
+     * Donne le nombre de colonnes de la grille enregistrée.
+     *
+     * @return Le nombre de colonnes de la grille.
+     */
+    public int getWidth() {
+        return buffer.getInt(offset + WIDTH);
+    }
+
+    /**
+     * Donne la disposition attendue des tuiles de la grille enregistrée.
+     *
+     * @return La disposition attendue.
+     */
+    public GoalLayout getLayout() {
+        return GoalLayout.values()[buffer.get(offset + LAYOUT)];
+    }
+
+    /**
+     * Donne la topologie de la grille enregistrée.
+     *
+     * @return La topologie de la grille.
+     */
+    public Topology getTopology() {
+        return Topology.of(getHeight(), getWidth(), getLayout());
+    }
+
+    /**
+     * Donne le nombre de déplacements réalisés dans la partie enregistrée.
+     *
+     * @return Le nombre de déplacements réalisés.
+     */
+    public int getNbMoves() {
+        return buffer.getInt(offset + NB_MOVES);
+    }
+
+    /**
+     * Vérifie si la grille enregistrée est ordonnée, c'est-à-dire si la partie est
+     * terminée.
+     *
+     * @return Si la grille est ordonnée.
+     */
+    public boolean isOrdered() {
+        return buffer.get(offset + ORDERED) != 0;
+    }
+
+    /**
+     * Reconstruit la grille enregistrée.
+     *
+     * @return La grille enregistrée.
+     */
+    public IBoard readBoard() {
+        Topology topology = getTopology();
+        IBoard board = IBoard.create(topology);
+        ByteBuffer cells = buffer.slice(offset + BOARD, buffer.getInt(offset + BOARD_BYTES));
+        if (topology.cells() <= BoardCodec.MAX_COMPACT_CELLS) {
+            new BoardCodec(topology).read(cells, board);
+
+        } else {
+            int[] values = new int[topology.cells()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = cells.getShort() & 0xFFFF;
+            }
+            board.load(values);
+        }
+        return board;
+    }
+
+    /**
+     * Reconstruit l'historique des déplacements de la partie enregistrée, en remontant
+     * ses enregistrements jusqu'à celui contenant le début de l'historique.
+     *
+     * @return L'historique des déplacements.
+     *
+     * @throws IllegalArgumentException Si l'un des enregistrements de la partie manque
+     *         ou n'est pas valide.
+     */
+    public MoveJournal readJournal() {
+        int[] chain = new int[4];
+        int length = 0;
+        int record = offset;
+        while (true) {
+            if (length == chain.length) {
+                chain = Arrays.copyOf(chain, 2 * length);
+            }
+            chain[length++] = record;
+            if (buffer.getInt(record + FROM) == 0) {
+                break;
+            }
+
+            // Les enregistrements précédents sont plus proches du début du journal.
+            int previous = buffer.getInt(record + PREVIOUS);
+            if ((previous < 0) || (previous >= record)
+                    || (buffer.getLong(previous + GAME_ID) != getGameId())) {
+                throw new IllegalArgumentException("Incomplete move history");
+            }
+            record = previous;
+        }
+
+        MoveJournal journal = new MoveJournal();
+        for (int i = length - 1; i >= 0; i--) {
+            record = chain[i];
+            int start = record + BOARD + buffer.getInt(record + BOARD_BYTES);
+            int end = record + Integer.BYTES + buffer.getInt(record);
+            MoveJournal moves = MoveJournal.readFrom(buffer.slice(start, end - start));
+            journal.splice(buffer.getInt(record + FROM), moves,
+                    buffer.getInt(record + POSITION));
+        }
+        return journal;
+    }
+
+}
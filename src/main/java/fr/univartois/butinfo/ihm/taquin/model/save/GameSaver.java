@@ -0,0 +1,279 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.save;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * La classe GameSaver enregistre les états des parties dans un {@link GameLog}, à l'aide
+ * d'un thread dédié, afin que le thread où les parties se jouent (par exemple celui de
+ * JavaFX) n'attende jamais le disque.
+ *
+ * Les états soumis sont regroupés : le thread d'écriture attend un court instant après
+ * le premier état soumis, écrit d'un coup tous ceux qui ont été soumis entre-temps (en
+ * combinant ceux d'une même partie, voir {@link GameCheckpoint}), puis ne force
+ * l'écriture sur disque qu'une seule fois pour tout le groupe.
+ *
+ * Un état qui ne peut pas être écrit n'interrompt pas le thread d'écriture : l'erreur
+ * est signalée sur la sortie d'erreur, puis à l'appel suivant de {@link #submit} ou de
+ * {@link #close()}.
+ * Les états suivants de la partie concernée ne sont alors plus écrits, jusqu'à ce
+ * qu'un état contenant son historique complet soit soumis.
+ *
+ * Le fichier utilisé par défaut est donné par la propriété système
+ * {@code taquin.save.file}, ou vaut {@code ~/.taquin/games.log}.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class GameSaver implements AutoCloseable {
+
+    /**
+     * La propriété système permettant de choisir le fichier des parties.
+     */
+    public static final String SAVE_FILE_PROPERTY = "taquin.save.file";
+
+    /**
+     * Le délai (en millisecondes) pendant lequel les états soumis sont regroupés avant
+     * d'être écrits.
+     */
+    private static final long COMMIT_DELAY = 50;
+
+    /**
+     * Le journal dans lequel les états sont enregistrés.
+     */
+    private final GameLog log;
+
+    /**
+     * Les états en attente d'écriture, indexés par partie.
+     * Cette table sert aussi de verrou pour les échanges avec le thread d'écriture.
+     */
+    private final Map<Long, GameCheckpoint> pending = new LinkedHashMap<>();
+
+    /**
+     * Le générateur des identifiants des nouvelles parties.
+     */
+    private final AtomicLong nextGameId;
+
+    /**
+     * Le thread écrivant les états.
+     */
+    private final Thread writer;
+
+    /**
+     * Si ce service a été fermé.
+     */
+    private boolean closed;
+
+    /**
+     * La première erreur d'écriture qui n'a pas encore été signalée, ou {@code null}.
+     */
+    private IOException failure;
+
+    /**
+     * Les parties dont un état n'a pas pu être écrit, et dont l'historique enregistré
+     * est donc incomplet.
+     * Cet ensemble n'est utilisé que par le thread d'écriture.
+     */
+    private final Set<Long> broken = new HashSet<>();
+
+    /**
+     * Construit une nouvelle instance de GameSaver.
+     *
+     * @param log Le journal dans lequel les états sont enregistrés.
+     */
+    public GameSaver(GameLog log) {
+        this.log = log;
+        this.nextGameId = new AtomicLong(log.getMaxGameId() + 1);
+        this.writer = new Thread(this::run, "taquin-saver");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Ouvre le journal des parties par défaut.
+     *
+     * @return Le service enregistrant les états dans le journal par défaut.
+     *
+     * @throws IOException Si le journal ne peut pas être ouvert.
+     */
+    public static GameSaver openDefault() throws IOException {
+        String file = System.getProperty(SAVE_FILE_PROPERTY);
+        Path path = (file == null)
+                ? Path.of(System.getProperty("user.home"), ".taquin", "games.log")
+                : Path.of(file);
+        return new GameSaver(GameLog.open(path));
+    }
+
+    /**
+     * Donne le journal dans lequel les états sont enregistrés.
+     *
+     * @return Le journal des parties.
+     */
+    public GameLog getLog() {
+        return log;
+    }
+
+    /**
+     * Donne un identifiant pour une nouvelle partie.
+     *
+     * @return Un identifiant n'ayant encore jamais été enregistré.
+     */
+    public long nextGameId() {
+        return nextGameId.getAndIncrement();
+    }
+
+    /**
+     * Soumet l'état d'une partie, qui sera enregistré par le thread d'écriture.
+     * Cette méthode ne réalise aucune entrée-sortie.
+     *
+     * @param checkpoint L'état de la partie.
+     *
+     * @throws UncheckedIOException Si un état soumis précédemment n'a pas pu être
+     *         écrit.
+     *         L'état donné est tout de même soumis, mais l'appelant doit soumettre son
+     *         historique complet pour qu'il puisse être écrit.
+     */
+    public void submit(GameCheckpoint checkpoint) {
+        IOException error;
+        synchronized (pending) {
+            if (!closed) {
+                pending.merge(checkpoint.getGameId(), checkpoint,
+                        (previous, next) -> next.after(previous));
+                pending.notifyAll();
+            }
+            error = failure;
+            failure = null;
+        }
+
+        if (error != null) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    /**
+     * Écrit les états soumis, par groupes, jusqu'à la fermeture de ce service.
+     */
+    private void run() {
+        try {
+            while (true) {
+                GameCheckpoint[] group;
+                synchronized (pending) {
+                    while (pending.isEmpty() && !closed) {
+                        pending.wait();
+                    }
+                    if (!closed) {
+                        // On laisse le temps aux états suivants d'être soumis.
+                        pending.wait(COMMIT_DELAY);
+                    }
+                    group = pending.values().toArray(new GameCheckpoint[0]);
+                    pending.clear();
+                }
+
+                if (group.length > 0) {
+                    write(group);
+                }
+
+                synchronized (pending) {
+                    if (closed && pending.isEmpty()) {
+                        return;
+                    }
+                }
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Écrit un groupe d'états, puis force leur écriture sur disque.
+     * Chaque état est écrit indépendamment des autres : une erreur n'empêche pas
+     * l'écriture des états des autres parties.
+     *
+     * @param group Les états à écrire.
+     */
+    private void write(GameCheckpoint[] group) {
+        for (GameCheckpoint checkpoint : group) {
+            Long gameId = checkpoint.getGameId();
+            if (broken.contains(gameId) && !checkpoint.isComplete()) {
+                // L'historique de la partie ne peut pas être complété.
+                continue;
+            }
+
+            try {
+                log.append(checkpoint);
+                broken.remove(gameId);
+
+            } catch (IOException | RuntimeException e) {
+                broken.add(gameId);
+                fail("Game " + gameId + " could not be saved", e);
+            }
+        }
+
+        try {
+            log.force();
+
+        } catch (UncheckedIOException e) {
+            fail("Games could not be written to disk", e.getCause());
+        }
+    }
+
+    /**
+     * Signale une erreur d'écriture, sur la sortie d'erreur puis à l'appel suivant de
+     * {@link #submit(GameCheckpoint)} ou de {@link #close()}.
+     *
+     * @param message La description de l'erreur.
+     * @param cause L'erreur survenue.
+     */
+    private void fail(String message, Exception cause) {
+        System.err.println(message + ": " + cause.getMessage());
+        synchronized (pending) {
+            if (failure == null) {
+                failure = new IOException(message, cause);
+            }
+        }
+    }
+
+    /**
+     * Ferme ce service, après avoir écrit les états déjà soumis.
+     *
+     * @throws IOException Si une erreur se produit lors de la fermeture du journal, ou
+     *         si un état soumis n'a pas pu être écrit.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (pending) {
+            closed = true;
+            pending.notifyAll();
+        }
+
+        try {
+            writer.join();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+
+        synchronized (pending) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.session;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.MoveJournal;
+
+/**
+ * La classe GameSession représente une partie sans interface graphique, hébergée par un
+ * {@link SessionManager}.
+ *
+ * Une partie ne conserve que l'état brut de sa grille, son historique et son nombre de
+ * déplacements : elle n'a ni tuiles observables, ni contrôleur, et des dizaines de
+ * milliers de parties peuvent ainsi être hébergées simultanément.
+ * Elle n'est pas synchronisée : toutes ses méthodes de modification sont appelées par le
+ * thread de la voie à laquelle elle est rattachée.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class GameSession {
+
+    /**
+     * L'identifiant de cette partie.
+     */
+    private final long id;
+
+    /**
+     * La voie exécutant les commandes de cette partie.
+     */
+    private final int lane;
+
+    /**
+     * La grille sur laquelle la partie se déroule.
+     */
+    private final IBoard board;
+
+    /**
+     * L'historique des déplacements réalisés depuis le début de la partie.
+     */
+    private final MoveJournal journal = new MoveJournal();
+
+    /**
+     * Le nombre de déplacements réalisés sur la grille.
+     */
+    private int nbMoves;
+
+    /**
+     * Construit une nouvelle instance de GameSession.
+     *
+     * @param id L'identifiant de la partie.
+     * @param lane La voie exécutant les commandes de la partie.
+     * @param board La grille (déjà mélangée) sur laquelle la partie se déroule.
+     */
+    GameSession(long id, int lane, IBoard board) {
+        this.id = id;
+        this.lane = lane;
+        this.board = board;
+    }
+
+    /**
+     * Donne l'identifiant de cette partie.
+     *
+     * @return L'identifiant de cette partie.
+     */
+    public long id() {
+        return id;
+    }
+
+    /**
+     * Donne la taille de la grille sur laquelle la partie se déroule.
+     *
+     * @return La taille de la grille, en nombre de cases par côté.
+     */
+    public int size() {
+        return board.size();
+    }
+
+    /**
+     * Donne la voie exécutant les commandes de cette partie.
+     *
+     * @return L'indice de la voie.
+     */
+    int lane() {
+        return lane;
+    }
+
+    /**
+     * Réalise un déplacement, et l'enregistre dans l'historique s'il a eu lieu.
+     * Une partie terminée n'accepte plus de déplacement.
+     *
+     * @param move Le déplacement à réaliser.
+     *
+     * @return Si le déplacement a effectivement eu lieu.
+     */
+    boolean push(Move move) {
+        if (board.isOrdered() || !board.push(move)) {
+            return false;
+        }
+        journal.record(move);
+        nbMoves++;
+        return true;
+    }
+
+    /**
+     * Annule le dernier déplacement réalisé, s'il y en a un.
+     *
+     * @return Si un déplacement a été annulé.
+     */
+    boolean undo() {
+        if (!journal.canUndo()) {
+            return false;
+        }
+        board.push(journal.undo().opposite());
+        nbMoves--;
+        return true;
+    }
+
+    /**
+     * Rejoue le dernier déplacement annulé, s'il y en a un.
+     *
+     * @return Si un déplacement a été rejoué.
+     */
+    boolean redo() {
+        if (!journal.canRedo()) {
+            return false;
+        }
+        board.push(journal.redo());
+        nbMoves++;
+        return true;
+    }
+
+    /**
+     * Donne une copie de l'état courant de cette partie.
+     *
+     * @return L'état de la partie.
+     */
+    GameSnapshot snapshot() {
+        int[] cells = new int[board.topology().cells()];
+        board.copyTo(cells);
+        return new GameSnapshot(id, board.size(), cells, nbMoves, board.isOrdered());
+    }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.session;
+
+/**
+ * La classe GameSnapshot est une copie immuable de l'état d'une {@link GameSession} à
+ * un instant donné, qui peut être lue depuis n'importe quel thread.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class GameSnapshot {
+
+    /**
+     * L'identifiant de la partie.
+     */
+    private final long id;
+
+    /**
+     * La taille de la grille.
+     */
+    private final int size;
+
+    /**
+     * Les valeurs des tuiles, indexées par case.
+     */
+    private final int[] cells;
+
+    /**
+     * Le nombre de déplacements réalisés.
+     */
+    private final int nbMoves;
+
+    /**
+     * Si la grille est ordonnée.
+     */
+    private final boolean ordered;
+
+    /**
+     * Construit une nouvelle instance de GameSnapshot.
+     *
+     * @param id L'identifiant de la partie.
+     * @param size La taille de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     * @param nbMoves Le nombre de déplacements réalisés.
+     * @param ordered Si la grille est ordonnée.
+     */
+    GameSnapshot(long id, int size, int[] cells, int nbMoves, boolean ordered) {
+        this.id = id;
+        this.size = size;
+        this.cells = cells;
+        this.nbMoves = nbMoves;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Donne l'identifiant de la partie.
+     *
+     * @return L'identifiant de la partie.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Donne la taille de la grille.
+     *
+     * @return La taille de la grille, en nombre de cases par côté.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Donne la valeur de la tuile se trouvant sur une case.
+     *
+     * @param index L'indice de la case.
+     *
+     * @return La valeur de la tuile ({@code 0} pour l'emplacement vide).
+     */
+    public int get(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Donne les valeurs des tuiles de la grille.
+     *
+     * @return Les valeurs des tuiles, indexées par case.
+     */
+    public int[] getCells() {
+        return cells.clone();
+    }
+
+    /**
+     * Donne le nombre de déplacements réalisés.
+     *
+     * @return Le nombre de déplacements réalisés.
+     */
+    public int getNbMoves() {
+        return nbMoves;
+    }
+
+    /**
+     * Vérifie si la grille est ordonnée, c'est-à-dire si la partie est terminée.
+     *
+     * @return Si la grille est ordonnée.
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+}
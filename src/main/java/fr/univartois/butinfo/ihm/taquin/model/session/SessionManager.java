@@ -0,0 +1,336 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.session;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.Shuffler;
+import fr.univartois.butinfo.ihm.taquin.model.board.Solvability;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.Metrics;
+
+/**
+ * La classe SessionManager héberge un grand nombre de parties sans interface graphique,
+ * pilotées par des commandes (déplacements, annulations, lecture de l'état).
+ *
+ * Les parties sont réparties entre un nombre fixe de voies, chacune étant un unique
+ * thread qui exécute dans l'ordre les commandes des parties qui lui sont rattachées.
+ * Les commandes d'une même partie ne sont donc jamais exécutées simultanément, sans
+ * qu'aucun verrou ne soit pris : ni sur la partie, ni sur l'ensemble des parties.
+ * Chaque commande renvoie un {@link CompletableFuture}, complété par le thread de la
+ * voie.
+ *
+ * Le gestionnaire compte les déplacements réalisés sur l'ensemble de ses parties, afin
+ * de pouvoir en donner le débit.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class SessionManager implements AutoCloseable {
+
+    /**
+     * Les nanosecondes dans une seconde.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Les parties hébergées, indexées par identifiant.
+     */
+    private final ConcurrentMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Les voies exécutant les commandes des parties.
+     */
+    private final ExecutorService[] lanes;
+
+    /**
+     * Le générateur des identifiants des parties.
+     */
+    private final AtomicLong nextId = new AtomicLong();
+
+    /**
+     * Le nombre de déplacements réalisés sur l'ensemble des parties.
+     */
+    private final LongAdder moves = new LongAdder();
+
+    /**
+     * Le nombre de déplacements lors de la dernière mesure du débit.
+     */
+    private long lastMoves;
+
+    /**
+     * L'instant (donné par {@link System#nanoTime()}) de la dernière mesure du débit.
+     */
+    private long lastNanos = System.nanoTime();
+
+    /**
+     * Construit une nouvelle instance de SessionManager, ayant une voie par processeur.
+     */
+    public SessionManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construit une nouvelle instance de SessionManager.
+     *
+     * @param nbLanes Le nombre de voies exécutant les commandes des parties.
+     *
+     * @throws IllegalArgumentException Si le nombre de voies n'est pas positif.
+     */
+    public SessionManager(int nbLanes) {
+        if (nbLanes <= 0) {
+            throw new IllegalArgumentException("Invalid number of lanes: " + nbLanes);
+        }
+
+        this.lanes = new ExecutorService[nbLanes];
+        for (int i = 0; i < nbLanes; i++) {
+            String name = "taquin-session-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    /**
+     * Crée une nouvelle partie, sur une grille résoluble tirée uniformément au hasard.
+     *
+     * @param size La taille de la grille.
+     * @param seed Le germe du générateur utilisé pour mélanger la grille.
+     *
+     * @return L'identifiant de la partie créée.
+     */
+    public long create(int size, long seed) {
+        IBoard board = IBoard.create(size);
+        Shuffler.permute(board, new SplittableRandom(seed));
+        return register(board);
+    }
+
+    /**
+     * Crée une nouvelle partie, à partir d'une configuration donnée.
+     *
+     * @param size La taille de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     *
+     * @return L'identifiant de la partie créée.
+     *
+     * @throws IllegalArgumentException Si la configuration n'est pas valide, ou si elle
+     *         ne peut pas être ordonnée.
+     */
+    public long create(int size, int[] cells) {
+        IBoard board = IBoard.create(size);
+        board.load(cells);
+        if (!Solvability.isSolvable(board)) {
+            throw new IllegalArgumentException("This grid cannot be ordered");
+        }
+        return register(board);
+    }
+
+    /**
+     * Enregistre une nouvelle partie, en la rattachant à une voie.
+     *
+     * @param board La grille de la partie.
+     *
+     * @return L'identifiant de la partie.
+     */
+    private long register(IBoard board) {
+        long id = nextId.getAndIncrement();
+        sessions.put(id, new GameSession(id, (int) (id % lanes.length), board));
+        return id;
+    }
+
+    /**
+     * Termine une partie, qui n'est plus hébergée par ce gestionnaire.
+     * Les commandes déjà soumises pour cette partie sont tout de même exécutées.
+     *
+     * @param id L'identifiant de la partie.
+     *
+     * @return Si la partie était hébergée par ce gestionnaire.
+     */
+    public boolean remove(long id) {
+        return sessions.remove(id) != null;
+    }
+
+    /**
+     * Donne le nombre de parties hébergées par ce gestionnaire.
+     *
+     * @return Le nombre de parties hébergées.
+     */
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Réalise un déplacement dans une partie.
+     *
+     * @param id L'identifiant de la partie.
+     * @param move Le déplacement à réaliser.
+     *
+     * @return Si le déplacement a effectivement eu lieu, à venir.
+     *
+     * @throws NoSuchElementException Si aucune partie n'a cet identifiant.
+     */
+    public CompletableFuture<Boolean> push(long id, Move move) {
+        return execute(id, session -> {
+            boolean pushed = session.push(move);
+            if (pushed) {
+                countMoves(1);
+            }
+            return pushed;
+        });
+    }
+
+    /**
+     * Réalise une suite de déplacements dans une partie, en une seule commande.
+     * Les déplacements impossibles sont ignorés.
+     *
+     * @param id L'identifiant de la partie.
+     * @param moves Les déplacements à réaliser.
+     *
+     * @return Le nombre de déplacements effectivement réalisés, à venir.
+     *
+     * @throws NoSuchElementException Si aucune partie n'a cet identifiant.
+     */
+    public CompletableFuture<Integer> pushAll(long id, List<Move> moves) {
+        return execute(id, session -> {
+            int applied = 0;
+            for (Move move : moves) {
+                if (session.push(move)) {
+                    applied++;
+                }
+            }
+            countMoves(applied);
+            return applied;
+        });
+    }
+
+    /**
+     * Annule le dernier déplacement réalisé dans une partie, s'il y en a un.
+     *
+     * @param id L'identifiant de la partie.
+     *
+     * @return Si un déplacement a été annulé, à venir.
+     *
+     * @throws NoSuchElementException Si aucune partie n'a cet identifiant.
+     */
+    public CompletableFuture<Boolean> undo(long id) {
+        return execute(id, GameSession::undo);
+    }
+
+    /**
+     * Rejoue le dernier déplacement annulé dans une partie, s'il y en a un.
+     *
+     * @param id L'identifiant de la partie.
+     *
+     * @return Si un déplacement a été rejoué, à venir.
+     *
+     * @throws NoSuchElementException Si aucune partie n'a cet identifiant.
+     */
+    public CompletableFuture<Boolean> redo(long id) {
+        return execute(id, GameSession::redo);
+    }
+
+    /**
+     * Donne l'état courant d'une partie, après l'exécution des commandes déjà soumises.
+     *
+     * @param id L'identifiant de la partie.
+     *
+     * @return L'état de la partie, à venir.
+     *
+     * @throws NoSuchElementException Si aucune partie n'a cet identifiant.
+     */
+    public CompletableFuture<GameSnapshot> state(long id) {
+        return execute(id, GameSession::snapshot);
+    }
+
+    /**
+     * Exécute une commande sur la voie d'une partie.
+     *
+     * @param <T> Le type du résultat de la commande.
+     *
+     * @param id L'identifiant de la partie.
+     * @param command La commande à exécuter.
+     *
+     * @return Le résultat de la commande, à venir.
+     *
+     * @throws NoSuchElementException Si aucune partie n'a cet identifiant.
+     */
+    private <T> CompletableFuture<T> execute(long id, Function<GameSession, T> command) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            throw new NoSuchElementException("No game with id " + id);
+        }
+        return CompletableFuture.supplyAsync(() -> command.apply(session),
+                lanes[session.lane()]);
+    }
+
+    /**
+     * Compte des déplacements réalisés dans une partie.
+     *
+     * @param count Le nombre de déplacements réalisés.
+     */
+    private void countMoves(int count) {
+        moves.add(count);
+        if (Metrics.isEnabled()) {
+            Metrics.recordMoves(count);
+        }
+    }
+
+    /**
+     * Donne le nombre de déplacements réalisés sur l'ensemble des parties.
+     *
+     * @return Le nombre de déplacements réalisés.
+     */
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    /**
+     * Donne le débit des déplacements réalisés sur l'ensemble des parties, depuis le
+     * précédent appel de cette méthode (ou depuis la création du gestionnaire).
+     *
+     * @return Le nombre de déplacements réalisés par seconde.
+     */
+    public synchronized double getMovesPerSecond() {
+        long now = System.nanoTime();
+        long total = moves.sum();
+        double rate = (now == lastNanos) ? 0
+                : ((total - lastMoves) * NANOS_PER_SECOND / (now - lastNanos));
+        lastMoves = total;
+        lastNanos = now;
+        return rate;
+    }
+
+    /**
+     * Arrête les voies de ce gestionnaire, après l'exécution des commandes déjà
+     * soumises.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,364 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.PackedBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Solvability;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.Metrics;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.SearchProfile;
+
+/**
+ * La classe BidirectionalSolver calcule des solutions optimales par un parcours en
+ * largeur mené simultanément depuis la grille à résoudre et depuis la configuration
+ * ordonnée, jusqu'à ce que les deux parcours se rejoignent.
+ *
+ * Les grilles visitées sont représentées sous leur forme compacte (un {@code long}, voir
+ * {@link PackedBoard}) et conservées dans des tables de hachage primitives.
+ * Ce solveur est particulièrement adapté aux petites grilles (3x3, ou 4x4 peu mélangées),
+ * pour lesquelles il répond en quelques millisecondes.
+ * Lorsque le nombre de grilles visitées dépasse le budget fixé, ou que la grille est trop
+ * grande pour être compactée, la résolution est confiée à un autre solveur.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public class BidirectionalSolver implements ISolver {
+
+    /**
+     * Le nombre maximal par défaut de grilles visitées.
+     */
+    public static final int DEFAULT_MAX_STATES = 1 << 20;
+
+    /**
+     * Le nombre de bits utilisés pour coder le déplacement dans les valeurs des tables.
+     */
+    private static final int MOVE_BITS = 3;
+
+    /**
+     * La valeur du déplacement marquant l'origine d'un parcours.
+     */
+    private static final int ROOT = 4;
+
+    /**
+     * Le nombre maximal de grilles visitées avant d'abandonner.
+     */
+    private final int maxStates;
+
+    /**
+     * Le solveur utilisé lorsque le budget est dépassé.
+     */
+    private final ISolver fallback;
+
+    /**
+     * Construit une nouvelle instance de BidirectionalSolver, utilisant IDA* (avec la
+     * distance de Manhattan et les conflits linéaires) lorsque le budget par défaut est
+     * dépassé.
+     */
+    public BidirectionalSolver() {
+        this(DEFAULT_MAX_STATES, new IdaStarSolver());
+    }
+
+    /**
+     * Construit une nouvelle instance de BidirectionalSolver.
+     *
+     * @param maxStates Le nombre maximal de grilles visitées avant d'abandonner.
+     * @param fallback Le solveur utilisé lorsque le budget est dépassé.
+     */
+    public BidirectionalSolver(int maxStates, ISolver fallback) {
+        this.maxStates = maxStates;
+        this.fallback = fallback;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.ISolver#solve(fr.univartois.butinfo.
+     * ihm.taquin.model.board.IBoard)
+     */
+    @Override
+    public Solution solve(IBoard board) {
+        if (board.topology().cells() > IBoard.MAX_PACKED_CELLS) {
+            return fallback.solve(board);
+        }
+        if (!Solvability.isSolvable(board)) {
+            throw new IllegalArgumentException("This grid cannot be ordered");
+        }
+
+        long start = System.nanoTime();
+        Search search = new Search(board);
+        SearchProfile profile = Metrics.startSearch(this, board.size());
+        Move[] moves = null;
+        try {
+            moves = search.run(profile);
+
+        } finally {
+            if (profile != null) {
+                profile.finish(search.nodes, (moves == null) ? -1 : moves.length);
+            }
+        }
+        if (moves == null) {
+            return fallback.solve(board);
+        }
+        return new Solution(moves, search.nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Pousse une tuile dans l'emplacement vide d'une grille compacte.
+     *
+     * @param state La grille compacte.
+     * @param empty L'indice de la case vide.
+     * @param index L'indice de la case à pousser.
+     *
+     * @return La grille compacte obtenue.
+     */
+    private static long push(long state, int empty, int index) {
+        int shift = index << 2;
+        long tile = (state >>> shift) & 0xF;
+        return (state & ~(0xFL << shift)) | (tile << (empty << 2));
+    }
+
+    /**
+     * Donne l'indice de la case vide d'une grille compacte.
+     *
+     * @param state La grille compacte.
+     *
+     * @return L'indice de la case vide.
+     */
+    private static int emptyOf(long state) {
+        int index = 0;
+        while (((state >>> (index << 2)) & 0xF) != 0) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * La classe Search contient l'état d'une recherche bidirectionnelle.
+     */
+    private final class Search {
+
+        /**
+         * La topologie de la grille.
+         */
+        private final Topology topology;
+
+        /**
+         * Les grilles visitées par chaque parcours, associées à leur profondeur et au
+         * déplacement y ayant mené.
+         */
+        private final LongIntHashMap[] visited = { new LongIntHashMap(), new LongIntHashMap() };
+
+        /**
+         * Les grilles du dernier niveau de chaque parcours.
+         */
+        private final long[][] frontiers = new long[2][];
+
+        /**
+         * Le nombre de grilles du dernier niveau de chaque parcours.
+         */
+        private final int[] frontierSizes = new int[2];
+
+        /**
+         * La profondeur du dernier niveau de chaque parcours.
+         */
+        private final int[] depths = new int[2];
+
+        /**
+         * Le nombre de grilles développées.
+         */
+        private long nodes;
+
+        /**
+         * Si le budget a été dépassé pendant le développement d'un niveau.
+         */
+        private boolean exhausted;
+
+        /**
+         * Construit une nouvelle recherche.
+         *
+         * @param board La grille à résoudre.
+         */
+        private Search(IBoard board) {
+            this.topology = board.topology();
+            PackedBoard packed = new PackedBoard(topology);
+            int[] cells = new int[topology.cells()];
+            board.copyTo(cells);
+            packed.load(cells);
+
+            PackedBoard goal = new PackedBoard(topology);
+            initialize(0, packed.packed());
+            initialize(1, goal.packed());
+        }
+
+        /**
+         * Initialise l'un des parcours.
+         *
+         * @param side L'indice du parcours ({@code 0} depuis la grille, {@code 1} depuis
+         *        la configuration ordonnée).
+         * @param root La grille d'origine du parcours.
+         */
+        private void initialize(int side, long root) {
+            visited[side].putIfAbsent(root, ROOT);
+            frontiers[side] = new long[] { root };
+            frontierSizes[side] = 1;
+        }
+
+        /**
+         * Exécute la recherche.
+         *
+         * @param profile Le profil dans lequel enregistrer chaque niveau développé, ou
+         *        {@code null} si les mesures sont désactivées.
+         *
+         * @return Les déplacements de la solution, ou {@code null} si le budget a été
+         *         dépassé.
+         */
+        private Move[] run(SearchProfile profile) {
+            long root = frontiers[0][0];
+            if (visited[1].get(root, -1) >= 0) {
+                return new Move[0];
+            }
+
+            while (!exhausted) {
+                // On développe le niveau le plus petit.
+                int side = (frontierSizes[0] <= frontierSizes[1]) ? 0 : 1;
+                if (frontierSizes[side] == 0) {
+                    return null;
+                }
+
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Search interrupted");
+                }
+
+                long meeting = expand(side);
+                if (profile != null) {
+                    // Le seuil d'un niveau est la longueur cumulée des deux parcours.
+                    profile.iteration(depths[0] + depths[1], nodes);
+                }
+                if (meeting != 0) {
+                    return path(meeting);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Développe entièrement le dernier niveau d'un parcours.
+         * Le développement s'interrompt dès que le budget est dépassé, sans attendre la
+         * fin du niveau (qui peut contenir plusieurs fois plus de grilles que les
+         * précédents).
+         *
+         * @param side L'indice du parcours à développer.
+         *
+         * @return La grille de jonction menant à la plus courte solution, ou {@code 0}
+         *         si les parcours ne se sont pas rejoints (ou si le budget a été
+         *         dépassé).
+         */
+        private long expand(int side) {
+            LongIntHashMap own = visited[side];
+            LongIntHashMap other = visited[1 - side];
+            long[] frontier = frontiers[side];
+            long[] next = new long[Math.max(16, 2 * frontierSizes[side])];
+            int nextSize = 0;
+            int depth = depths[side] + 1;
+            long meeting = 0;
+            int best = Integer.MAX_VALUE;
+
+            for (int i = 0; i < frontierSizes[side]; i++) {
+                long state = frontier[i];
+                int empty = emptyOf(state);
+                nodes++;
+
+                for (int move = 0; move < 4; move++) {
+                    int index = topology.neighbor(empty, move);
+                    if (index < 0) {
+                        continue;
+                    }
+
+                    long child = push(state, empty, index);
+                    if (!own.putIfAbsent(child, (depth << MOVE_BITS) | move)) {
+                        continue;
+                    }
+                    if (own.size() + other.size() > maxStates) {
+                        exhausted = true;
+                        return 0;
+                    }
+
+                    int joined = other.get(child, -1);
+                    if ((joined >= 0) && (depth + (joined >>> MOVE_BITS) < best)) {
+                        best = depth + (joined >>> MOVE_BITS);
+                        meeting = child;
+                    }
+
+                    if (nextSize == next.length) {
+                        next = Arrays.copyOf(next, 2 * next.length);
+                    }
+                    next[nextSize++] = child;
+                }
+            }
+
+            frontiers[side] = next;
+            frontierSizes[side] = nextSize;
+            depths[side] = depth;
+            return meeting;
+        }
+
+        /**
+         * Reconstruit la solution passant par une grille de jonction.
+         *
+         * @param meeting La grille de jonction des deux parcours.
+         *
+         * @return Les déplacements de la solution.
+         */
+        private Move[] path(long meeting) {
+            int forward = visited[0].get(meeting, -1) >>> MOVE_BITS;
+            int backward = visited[1].get(meeting, -1) >>> MOVE_BITS;
+            Move[] moves = new Move[forward + backward];
+
+            // On remonte le parcours direct, de la jonction vers la grille à résoudre.
+            long state = meeting;
+            for (int i = forward - 1; i >= 0; i--) {
+                Move move = Move.of(visited[0].get(state, -1));
+                moves[i] = move;
+                state = undo(state, move);
+            }
+
+            // On remonte le parcours inverse, de la jonction vers la configuration
+            // ordonnée : il faut alors réaliser les déplacements opposés.
+            state = meeting;
+            for (int i = forward; i < moves.length; i++) {
+                Move move = Move.of(visited[1].get(state, -1));
+                moves[i] = move.opposite();
+                state = undo(state, move);
+            }
+            return moves;
+        }
+
+        /**
+         * Annule un déplacement sur une grille compacte.
+         *
+         * @param state La grille compacte obtenue après le déplacement.
+         * @param move Le déplacement à annuler.
+         *
+         * @return La grille compacte avant le déplacement.
+         */
+        private long undo(long state, Move move) {
+            int empty = emptyOf(state);
+            return push(state, empty, topology.neighbor(empty, move.opposite().ordinal()));
+        }
+
+    }
+
+}
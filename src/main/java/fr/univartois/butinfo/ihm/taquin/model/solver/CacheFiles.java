@@ -0,0 +1,53 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.nio.file.Path;
+
+/**
+ * La classe CacheFiles détermine l'emplacement des tables précalculées par les
+ * heuristiques, qui sont conservées sur disque pour n'être calculées qu'une seule fois
+ * par machine.
+ *
+ * Le répertoire utilisé est donné par la propriété système {@code taquin.cache.dir}, ou
+ * vaut {@code ~/.taquin} par défaut.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+final class CacheFiles {
+
+    /**
+     * La propriété système permettant de choisir le répertoire des tables.
+     */
+    static final String CACHE_DIR_PROPERTY = "taquin.cache.dir";
+
+    /**
+     * Empêche l'instanciation de cette classe utilitaire.
+     */
+    private CacheFiles() {
+        throw new AssertionError("No CacheFiles instances for you!");
+    }
+
+    /**
+     * Donne le chemin d'un fichier du répertoire des tables.
+     *
+     * @param name Le nom du fichier.
+     *
+     * @return Le chemin du fichier.
+     */
+    static Path resolve(String name) {
+        String directory = System.getProperty(CACHE_DIR_PROPERTY);
+        if (directory == null) {
+            return Path.of(System.getProperty("user.home"), ".taquin", name);
+        }
+        return Path.of(directory, name);
+    }
+
+}
@@ -0,0 +1,668 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.Solvability;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.Metrics;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.SearchProfile;
+
+/**
+ * La classe ConstructiveSolver ordonne les grilles de toutes tailles comme le ferait un
+ * joueur humain : en plaçant les tuiles d'une ligne (ou d'une colonne) du bord, puis en
+ * considérant que cette ligne ne fait plus partie de la grille, jusqu'à ce qu'il ne
+ * reste que 2x2 cases.
+ *
+ * Les tuiles d'une ligne sont amenées une à une à leur place, l'emplacement vide
+ * contournant la tuile déplacée sans toucher aux tuiles déjà placées.
+ * Les deux dernières tuiles d'une ligne, qu'on ne peut pas placer ainsi, sont
+ * rassemblées dans une fenêtre de 3x2 cases puis placées ensemble à l'aide d'une
+ * {@link MacroTable}, tout comme les 2x2 dernières cases.
+ * Les lignes retirées sont choisies de sorte que la place finale de l'emplacement vide
+ * reste dans la grille restante, ce qui permet de traiter toutes les dispositions
+ * finales.
+ *
+ * Les solutions obtenues sont loin d'être optimales, mais comptent O(n³) déplacements
+ * pour une grille de n x n cases, calculés en un temps du même ordre : ce solveur
+ * convient aux grandes grilles, pour lesquelles aucune recherche optimale n'aboutirait.
+ * Les déplacements sont transmis au fur et à mesure qu'ils sont calculés (voir
+ * {@link IStreamingSolver}).
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class ConstructiveSolver implements IStreamingSolver {
+
+    /**
+     * La table plaçant les deux dernières tuiles d'une ligne, dans une fenêtre de 3
+     * lignes (la ligne à compléter, puis les deux suivantes) et 2 colonnes.
+     */
+    private static final MacroTable LINE_END = new MacroTable(3, 2, -1, 0, 1);
+
+    /**
+     * Les tables ordonnant les 2x2 dernières cases, indexées par la place finale de
+     * l'emplacement vide dans ces cases.
+     */
+    private static final MacroTable[] LAST_SQUARE = new MacroTable[4];
+
+    static {
+        for (int blank = 0; blank < LAST_SQUARE.length; blank++) {
+            int[] goals = new int[4];
+            goals[0] = blank;
+            for (int cell = 0, p = 1; cell < 4; cell++) {
+                if (cell != blank) {
+                    goals[p++] = cell;
+                }
+            }
+            LAST_SQUARE[blank] = new MacroTable(2, 2, goals);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.ISolver#solve(fr.univartois.butinfo.
+     * ihm.taquin.model.board.IBoard)
+     */
+    @Override
+    public Solution solve(IBoard board) {
+        long start = System.nanoTime();
+        Recorder recorder = new Recorder(board.topology().cells());
+        Search search = run(board, recorder);
+        return new Solution(recorder.toArray(), search.nodes, System.nanoTime() - start);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IStreamingSolver#solve(fr.univartois.
+     * butinfo.ihm.taquin.model.board.IBoard, java.util.function.Consumer)
+     */
+    @Override
+    public int solve(IBoard board, Consumer<Move> output) {
+        return run(board, output).length;
+    }
+
+    /**
+     * Ordonne une copie d'une grille, en transmettant chaque déplacement réalisé.
+     *
+     * @param board La grille à résoudre.
+     * @param output L'action recevant les déplacements.
+     *
+     * @return La résolution réalisée.
+     *
+     * @throws IllegalArgumentException Si la grille ne peut pas être ordonnée.
+     */
+    private Search run(IBoard board, Consumer<Move> output) {
+        if (!Solvability.isSolvable(board)) {
+            throw new IllegalArgumentException("This grid cannot be ordered");
+        }
+
+        Search search = new Search(board, output);
+        SearchProfile profile = Metrics.startSearch(this, board.size());
+        boolean solved = false;
+        try {
+            search.run();
+            solved = true;
+
+        } finally {
+            if (profile != null) {
+                profile.finish(search.nodes, solved ? search.length : -1);
+            }
+        }
+        return search;
+    }
+
+    /**
+     * La classe Recorder enregistre les déplacements transmis par une résolution.
+     */
+    private static final class Recorder implements Consumer<Move> {
+
+        /**
+         * Les déplacements enregistrés.
+         */
+        private Move[] moves;
+
+        /**
+         * Le nombre de déplacements enregistrés.
+         */
+        private int size;
+
+        /**
+         * Construit un nouvel enregistreur.
+         *
+         * @param capacity Le nombre de déplacements pouvant être enregistrés avant
+         *        d'agrandir le tableau.
+         */
+        private Recorder(int capacity) {
+            this.moves = new Move[capacity];
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.util.function.Consumer#accept(java.lang.Object)
+         */
+        @Override
+        public void accept(Move move) {
+            if (size == moves.length) {
+                moves = Arrays.copyOf(moves, 2 * size);
+            }
+            moves[size++] = move;
+        }
+
+        /**
+         * Donne les déplacements enregistrés.
+         *
+         * @return Les déplacements enregistrés, dans l'ordre.
+         */
+        private Move[] toArray() {
+            return Arrays.copyOf(moves, size);
+        }
+
+    }
+
+    /**
+     * La classe Search représente la résolution d'une grille donnée, réalisée sur une
+     * copie de cette grille.
+     */
+    private static final class Search {
+
+        /**
+         * La copie de la grille sur laquelle les déplacements sont réalisés.
+         */
+        private final IBoard board;
+
+        /**
+         * La topologie de la grille.
+         */
+        private final Topology topology;
+
+        /**
+         * L'action recevant les déplacements.
+         */
+        private final Consumer<Move> output;
+
+        /**
+         * La case de chaque tuile, indexée par valeur.
+         */
+        private final int[] where;
+
+        /**
+         * Les cases que l'emplacement vide ne doit pas traverser : celles qui ne font
+         * plus partie de la grille restante, celles des tuiles déjà placées, et celle de
+         * la tuile en cours de déplacement.
+         */
+        private final boolean[] locked;
+
+        /**
+         * La marque du dernier parcours ayant atteint chaque case.
+         */
+        private final int[] marks;
+
+        /**
+         * La case depuis laquelle chaque case a été atteinte lors du dernier parcours.
+         */
+        private final int[] parents;
+
+        /**
+         * La file (puis le chemin) du parcours de l'emplacement vide.
+         */
+        private final int[] queue;
+
+        /**
+         * La marque du parcours en cours.
+         */
+        private int mark;
+
+        /**
+         * La première ligne de la grille restante.
+         */
+        private int top;
+
+        /**
+         * La dernière ligne de la grille restante.
+         */
+        private int bottom;
+
+        /**
+         * La première colonne de la grille restante.
+         */
+        private int left;
+
+        /**
+         * La dernière colonne de la grille restante.
+         */
+        private int right;
+
+        /**
+         * La ligne de l'origine du repère de la ligne en cours de placement.
+         */
+        private int originRow;
+
+        /**
+         * La colonne de l'origine du repère de la ligne en cours de placement.
+         */
+        private int originColumn;
+
+        /**
+         * Le décalage (en lignes) d'un pas vers l'intérieur de la grille restante.
+         */
+        private int inRow;
+
+        /**
+         * Le décalage (en colonnes) d'un pas vers l'intérieur de la grille restante.
+         */
+        private int inColumn;
+
+        /**
+         * Le décalage (en lignes) d'un pas le long de la ligne en cours de placement.
+         */
+        private int alongRow;
+
+        /**
+         * Le décalage (en colonnes) d'un pas le long de la ligne en cours de placement.
+         */
+        private int alongColumn;
+
+        /**
+         * Le nombre de cases parcourues par l'emplacement vide lors des recherches de
+         * chemin.
+         */
+        private long nodes;
+
+        /**
+         * Le nombre de déplacements transmis.
+         */
+        private int length;
+
+        /**
+         * Construit une nouvelle résolution.
+         *
+         * @param board La grille à résoudre.
+         * @param output L'action recevant les déplacements.
+         */
+        private Search(IBoard board, Consumer<Move> output) {
+            this.board = board.copy();
+            this.topology = board.topology();
+            this.output = output;
+            int cells = topology.cells();
+            this.where = new int[cells];
+            this.locked = new boolean[cells];
+            this.marks = new int[cells];
+            this.parents = new int[cells];
+            this.queue = new int[cells];
+            for (int i = 0; i < cells; i++) {
+                where[board.get(i)] = i;
+            }
+            this.bottom = topology.height() - 1;
+            this.right = topology.width() - 1;
+        }
+
+        /**
+         * Ordonne la grille, en retirant une ligne ou une colonne du bord à la fois.
+         */
+        private void run() {
+            int blankRow = topology.row(topology.goalIndex(0));
+            int blankColumn = topology.column(topology.goalIndex(0));
+
+            while ((bottom - top > 1) || (right - left > 1)) {
+                int height = bottom - top + 1;
+                int width = right - left + 1;
+                if ((height > 2) && ((height >= width) || (width == 2))) {
+                    // On retire la ligne du bord la plus éloignée de la place finale
+                    // de l'emplacement vide.
+                    if (blankRow != top) {
+                        completeLine(top, left, 1, 0, 0, 1, width);
+                        top++;
+                    } else {
+                        completeLine(bottom, left, -1, 0, 0, 1, width);
+                        bottom--;
+                    }
+
+                } else if (blankColumn != left) {
+                    completeLine(top, left, 0, 1, 1, 0, height);
+                    left++;
+
+                } else {
+                    completeLine(top, right, 0, -1, 1, 0, height);
+                    right--;
+                }
+            }
+            completeSquare();
+        }
+
+        /**
+         * Place les tuiles d'une ligne (ou d'une colonne) du bord de la grille restante.
+         * La ligne est décrite par un repère, dont l'origine est sa première case.
+         *
+         * @param row La ligne de la première case de la ligne.
+         * @param column La colonne de la première case de la ligne.
+         * @param inRow Le décalage (en lignes) d'un pas vers l'intérieur de la grille.
+         * @param inColumn Le décalage (en colonnes) d'un pas vers l'intérieur.
+         * @param alongRow Le décalage (en lignes) d'un pas le long de la ligne.
+         * @param alongColumn Le décalage (en colonnes) d'un pas le long de la ligne.
+         * @param size Le nombre de cases de la ligne.
+         */
+        private void completeLine(int row, int column, int inRow, int inColumn,
+                int alongRow, int alongColumn, int size) {
+            this.originRow = row;
+            this.originColumn = column;
+            this.inRow = inRow;
+            this.inColumn = inColumn;
+            this.alongRow = alongRow;
+            this.alongColumn = alongColumn;
+
+            for (int j = 0; j < size - 2; j++) {
+                int target = cell(0, j);
+                moveTile(topology.goal(target), target);
+                locked[target] = true;
+            }
+            completeLineEnd(size);
+        }
+
+        /**
+         * Place les deux dernières tuiles de la ligne en cours.
+         * La première est placée au bout de la ligne, et la seconde est rassemblée avec
+         * elle dans une fenêtre de 3x2 cases, où {@link #LINE_END} les place toutes
+         * les deux.
+         *
+         * @param size Le nombre de cases de la ligne.
+         */
+        private void completeLineEnd(int size) {
+            int first = topology.goal(cell(0, size - 2));
+            int second = topology.goal(cell(0, size - 1));
+
+            // La seconde tuile s'arrête dès qu'elle entre dans la fenêtre : plus loin,
+            // elle pourrait enfermer l'emplacement vide contre la première.
+            int corner = cell(0, size - 1);
+            moveTile(first, corner);
+            locked[corner] = true;
+            int tile = where[second];
+            while (windowIndex(tile, size) < 0) {
+                tile = step(tile, cell(2, size - 1));
+            }
+
+            locked[tile] = true;
+            searchBlank(-1, size);
+            locked[corner] = false;
+            locked[tile] = false;
+
+            int[] positions = new int[3];
+            while (true) {
+                positions[0] = windowIndex(board.emptyIndex(), size);
+                positions[1] = windowIndex(where[first], size);
+                positions[2] = windowIndex(where[second], size);
+                int move = LINE_END.next(positions);
+                if (move == MacroTable.GOAL) {
+                    break;
+                }
+                pushFrame(Move.of(move));
+            }
+            locked[cell(0, size - 2)] = true;
+            locked[cell(0, size - 1)] = true;
+        }
+
+        /**
+         * Ordonne les 2x2 cases restantes à l'aide de {@link #LAST_SQUARE}.
+         */
+        private void completeSquare() {
+            originRow = top;
+            originColumn = left;
+            inRow = 1;
+            inColumn = 0;
+            alongRow = 0;
+            alongColumn = 1;
+
+            int blankGoal = squareIndex(topology.goalIndex(0));
+            MacroTable table = LAST_SQUARE[blankGoal];
+            int[] tiles = new int[4];
+            for (int cell = 0, p = 1; cell < 4; cell++) {
+                if (cell != blankGoal) {
+                    tiles[p++] = topology.goal(cell(cell >> 1, cell & 1));
+                }
+            }
+
+            int[] positions = new int[4];
+            while (true) {
+                positions[0] = squareIndex(board.emptyIndex());
+                for (int p = 1; p < 4; p++) {
+                    positions[p] = squareIndex(where[tiles[p]]);
+                }
+                int move = table.next(positions);
+                if (move == MacroTable.GOAL) {
+                    return;
+                }
+                pushFrame(Move.of(move));
+            }
+        }
+
+        /**
+         * Amène une tuile sur une case, pas à pas : d'abord le long de la ligne en
+         * cours, puis vers le bord.
+         *
+         * @param value La valeur de la tuile à déplacer.
+         * @param target La case sur laquelle amener la tuile.
+         */
+        private void moveTile(int value, int target) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Search interrupted");
+            }
+
+            int tile = where[value];
+            while (tile != target) {
+                tile = step(tile, target);
+            }
+        }
+
+        /**
+         * Rapproche une tuile d'une case, d'un pas : le long de la ligne en cours si
+         * elle n'est pas encore dans la bonne colonne (du repère), et vers le bord sinon.
+         *
+         * @param tile La case de la tuile à déplacer.
+         * @param target La case vers laquelle déplacer la tuile.
+         *
+         * @return La nouvelle case de la tuile.
+         */
+        private int step(int tile, int target) {
+            int rowOffset = topology.row(target) - topology.row(tile);
+            int columnOffset = topology.column(target) - topology.column(tile);
+            int along = rowOffset * alongRow + columnOffset * alongColumn;
+            int next;
+            if (along != 0) {
+                next = offset(tile, Integer.signum(along) * alongRow,
+                        Integer.signum(along) * alongColumn);
+            } else {
+                int in = rowOffset * inRow + columnOffset * inColumn;
+                next = offset(tile, Integer.signum(in) * inRow, Integer.signum(in) * inColumn);
+            }
+
+            // L'emplacement vide contourne la tuile pour passer devant elle.
+            locked[tile] = true;
+            moveBlank(next);
+            locked[tile] = false;
+            push(tile);
+            return next;
+        }
+
+        /**
+         * Amène l'emplacement vide sur une case sans traverser les cases verrouillées :
+         * en ligne droite tant que c'est possible, puis par un parcours en largeur.
+         *
+         * @param target La case sur laquelle amener l'emplacement vide.
+         */
+        private void moveBlank(int target) {
+            int empty = board.emptyIndex();
+            while (empty != target) {
+                int rowOffset = Integer.signum(topology.row(target) - topology.row(empty));
+                int columnOffset = Integer.signum(
+                        topology.column(target) - topology.column(empty));
+                int next = -1;
+                if ((rowOffset != 0) && !locked[offset(empty, rowOffset, 0)]) {
+                    next = offset(empty, rowOffset, 0);
+                } else if ((columnOffset != 0) && !locked[offset(empty, 0, columnOffset)]) {
+                    next = offset(empty, 0, columnOffset);
+                }
+
+                if (next < 0) {
+                    searchBlank(target, 0);
+                    return;
+                }
+                push(next);
+                empty = next;
+            }
+        }
+
+        /**
+         * Amène l'emplacement vide sur une case par le plus court chemin évitant les
+         * cases verrouillées.
+         * Le parcours s'arrête dès que la case est atteinte : lorsqu'elle est proche, il
+         * ne visite donc que quelques cases.
+         *
+         * @param target La case sur laquelle amener l'emplacement vide, ou {@code -1}
+         *        pour l'amener sur la case la plus proche de la fenêtre des deux
+         *        dernières tuiles de la ligne en cours.
+         * @param size Le nombre de cases de la ligne en cours, si la cible est la
+         *        fenêtre.
+         *
+         * @throws IllegalStateException Si aucun chemin ne mène à la cible.
+         */
+        private void searchBlank(int target, int size) {
+            int start = board.emptyIndex();
+            mark++;
+            marks[start] = mark;
+            queue[0] = start;
+            int tail = 1;
+            int found = -1;
+            for (int head = 0; head < tail; head++) {
+                int current = queue[head];
+                nodes++;
+                if ((target < 0) ? (windowIndex(current, size) >= 0) : (current == target)) {
+                    found = current;
+                    break;
+                }
+                for (int move = 0; move < 4; move++) {
+                    int neighbor = topology.neighbor(current, move);
+                    if ((neighbor >= 0) && !locked[neighbor] && (marks[neighbor] != mark)) {
+                        marks[neighbor] = mark;
+                        parents[neighbor] = current;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+
+            if (found < 0) {
+                throw new IllegalStateException("The empty cell cannot reach " + target);
+            }
+
+            // Le chemin est relu depuis la fin, puis suivi depuis le début.
+            int steps = 0;
+            for (int cell = found; cell != start; cell = parents[cell]) {
+                queue[steps++] = cell;
+            }
+            for (int i = steps - 1; i >= 0; i--) {
+                push(queue[i]);
+            }
+        }
+
+        /**
+         * Pousse une tuile voisine dans l'emplacement vide, et transmet le déplacement.
+         *
+         * @param index La case de la tuile à pousser.
+         */
+        private void push(int index) {
+            int empty = board.emptyIndex();
+            Move move = Move.of(topology.moveTo(empty, index));
+            where[board.get(index)] = empty;
+            board.push(move);
+            output.accept(move);
+            length++;
+        }
+
+        /**
+         * Réalise un déplacement exprimé dans le repère de la ligne en cours.
+         *
+         * @param move Le déplacement, dans le repère de la ligne.
+         */
+        private void pushFrame(Move move) {
+            int rowOffset = move.rowOffset() * inRow + move.columnOffset() * alongRow;
+            int columnOffset = move.rowOffset() * inColumn + move.columnOffset() * alongColumn;
+            push(offset(board.emptyIndex(), rowOffset, columnOffset));
+        }
+
+        /**
+         * Donne une case du repère de la ligne en cours.
+         *
+         * @param i Le nombre de pas vers l'intérieur de la grille.
+         * @param j Le nombre de pas le long de la ligne.
+         *
+         * @return L'indice de la case.
+         */
+        private int cell(int i, int j) {
+            return topology.index(originRow + i * inRow + j * alongRow,
+                    originColumn + i * inColumn + j * alongColumn);
+        }
+
+        /**
+         * Donne la case voisine d'une case, sans vérifier qu'elle est sur la grille.
+         *
+         * @param index L'indice de la case.
+         * @param rowOffset Le décalage en lignes.
+         * @param columnOffset Le décalage en colonnes.
+         *
+         * @return L'indice de la case voisine.
+         */
+        private int offset(int index, int rowOffset, int columnOffset) {
+            return topology.index(topology.row(index) + rowOffset,
+                    topology.column(index) + columnOffset);
+        }
+
+        /**
+         * Donne la place d'une case dans la fenêtre des deux dernières tuiles de la
+         * ligne en cours.
+         *
+         * @param index L'indice de la case.
+         * @param size Le nombre de cases de la ligne.
+         *
+         * @return La place de la case dans la fenêtre (ligne par ligne, dans le repère
+         *         de la ligne), ou {@code -1} si elle est en dehors.
+         */
+        private int windowIndex(int index, int size) {
+            int rowOffset = topology.row(index) - originRow;
+            int columnOffset = topology.column(index) - originColumn;
+            int i = rowOffset * inRow + columnOffset * inColumn;
+            int j = rowOffset * alongRow + columnOffset * alongColumn - (size - 2);
+            if ((i < 0) || (i > 2) || (j < 0) || (j > 1)) {
+                return -1;
+            }
+            return 2 * i + j;
+        }
+
+        /**
+         * Donne la place d'une case parmi les 2x2 cases restantes.
+         *
+         * @param index L'indice de la case.
+         *
+         * @return La place de la case (ligne par ligne).
+         */
+        private int squareIndex(int index) {
+            return 2 * (topology.row(index) - top) + (topology.column(index) - left);
+        }
+
+    }
+
+}
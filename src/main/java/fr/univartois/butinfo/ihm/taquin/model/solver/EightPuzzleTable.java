@@ -0,0 +1,322 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.BoardCodec;
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.Solvability;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.Metrics;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.SearchProfile;
+
+/**
+ * La classe EightPuzzleTable contient, pour chacune des 181 440 grilles 3x3 pouvant
+ * être ordonnées, le nombre minimal de déplacements restants et un déplacement optimal.
+ *
+ * La table est calculée par un parcours en largeur depuis la configuration ordonnée.
+ * Chaque grille y occupe un octet, à l'indice donné par la moitié de son rang (voir
+ * {@link BoardCodec}) : parmi les grilles de rangs {@code 2k} et {@code 2k + 1}, une
+ * seule peut être ordonnée.
+ * Ainsi, les questions "quel est le meilleur déplacement ?" et "combien de déplacements
+ * reste-t-il ?" sont résolues en temps constant, sans aucune recherche.
+ *
+ * La table est distribuée avec l'application sous la forme d'une ressource binaire, et
+ * n'est recalculée (en une fraction de seconde) que si cette ressource est absente.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class EightPuzzleTable implements ISolver {
+
+    /**
+     * La taille des grilles décrites par cette table.
+     */
+    public static final int SIZE = 3;
+
+    /**
+     * Le nombre de grilles pouvant être ordonnées (9! / 2).
+     */
+    public static final int STATES = 181_440;
+
+    /**
+     * Le nom de la ressource contenant la table.
+     */
+    static final String RESOURCE = "table-3x3.bin";
+
+    /**
+     * Le nombre magique identifiant les fichiers de table ("TQ8P").
+     */
+    private static final int MAGIC = 0x54513850;
+
+    /**
+     * La version du format des fichiers de table.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Le masque donnant la distance dans une entrée de la table.
+     */
+    private static final int DISTANCE_MASK = 0x1F;
+
+    /**
+     * Le décalage du déplacement optimal dans une entrée de la table.
+     */
+    private static final int MOVE_SHIFT = 5;
+
+    /**
+     * La valeur des grilles non encore atteintes lors de la génération.
+     */
+    private static final byte UNSEEN = -1;
+
+    /**
+     * Le codage des grilles 3x3 par leur rang.
+     * Ses méthodes compactes n'ont pas d'état, et peuvent donc être partagées.
+     */
+    private static final BoardCodec CODEC = new BoardCodec(Topology.of(SIZE));
+
+    /**
+     * La table distribuée avec l'application, chargée à la première utilisation.
+     */
+    private static EightPuzzleTable standard;
+
+    /**
+     * Les entrées de la table, indexées par la moitié du rang des grilles.
+     */
+    private final byte[] entries;
+
+    /**
+     * Construit une nouvelle instance de EightPuzzleTable.
+     *
+     * @param entries Les entrées de la table.
+     */
+    private EightPuzzleTable(byte[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Donne la table distribuée avec l'application, en la calculant si la ressource
+     * correspondante est absente ou illisible.
+     *
+     * @return La table des grilles 3x3.
+     */
+    public static synchronized EightPuzzleTable standard() {
+        if (standard == null) {
+            try (InputStream input = EightPuzzleTable.class.getResourceAsStream(RESOURCE)) {
+                if (input != null) {
+                    standard = read(input);
+                }
+            } catch (IOException e) {
+                // La table est alors recalculée.
+            }
+
+            if (standard == null) {
+                standard = generate();
+            }
+        }
+        return standard;
+    }
+
+    /**
+     * Calcule la table par un parcours en largeur depuis la configuration ordonnée.
+     *
+     * @return La table calculée.
+     */
+    public static EightPuzzleTable generate() {
+        Topology topology = Topology.of(SIZE);
+        byte[] entries = new byte[STATES];
+        Arrays.fill(entries, UNSEEN);
+
+        // Les grilles sont représentées par 4 bits par case dans la file.
+        long[] queue = new long[STATES];
+        int head = 0;
+        int tail = 0;
+        long goal = 0;
+        for (int i = 0; i < topology.cells(); i++) {
+            goal |= (long) topology.goal(i) << (i << 2);
+        }
+        queue[tail++] = goal;
+        entries[index(goal)] = 0;
+
+        while (head < tail) {
+            long state = queue[head++];
+            int distance = entries[index(state)] & DISTANCE_MASK;
+            int empty = 0;
+            while (((state >>> (empty << 2)) & 0xF) != 0) {
+                empty++;
+            }
+
+            for (int move = 0; move < 4; move++) {
+                int cell = topology.neighbor(empty, move);
+                if (cell < 0) {
+                    continue;
+                }
+
+                long tile = (state >>> (cell << 2)) & 0xF;
+                long child = (state & ~(0xFL << (cell << 2))) | (tile << (empty << 2));
+                int index = index(child);
+                if (entries[index] == UNSEEN) {
+                    // Depuis la grille atteinte, le déplacement opposé ramène vers la
+                    // configuration ordonnée.
+                    entries[index] = (byte) ((Move.of(move).opposite().ordinal() << MOVE_SHIFT)
+                            | (distance + 1));
+                    queue[tail++] = child;
+                }
+            }
+        }
+        return new EightPuzzleTable(entries);
+    }
+
+    /**
+     * Lit une table depuis un flux.
+     *
+     * @param input Le flux à lire, qui n'est pas fermé par cette méthode.
+     *
+     * @return La table lue.
+     *
+     * @throws IOException Si le flux ne peut pas être lu, ou s'il n'a pas le bon format.
+     */
+    public static EightPuzzleTable read(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        if ((data.readInt() != MAGIC) || (data.readInt() != VERSION)
+                || (data.readInt() != STATES)) {
+            throw new IOException("Not an 8-puzzle table");
+        }
+
+        byte[] entries = new byte[STATES];
+        data.readFully(entries);
+        return new EightPuzzleTable(entries);
+    }
+
+    /**
+     * Enregistre cette table dans un fichier.
+     * C'est ainsi qu'est produite la ressource distribuée avec l'application.
+     *
+     * @param path Le chemin du fichier.
+     *
+     * @throws IOException Si une erreur se produit lors de l'écriture.
+     */
+    public void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "table", ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(STATES);
+            output.write(entries);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Donne le nombre minimal de déplacements nécessaires pour ordonner une grille.
+     *
+     * @param board La grille à considérer.
+     *
+     * @return Le nombre minimal de déplacements restants.
+     *
+     * @throws IllegalArgumentException Si la grille n'est pas une grille 3x3 pouvant
+     *         être ordonnée.
+     */
+    public int distance(IBoard board) {
+        return entry(board) & DISTANCE_MASK;
+    }
+
+    /**
+     * Donne un déplacement optimal pour ordonner une grille.
+     *
+     * @param board La grille à considérer.
+     *
+     * @return Le premier déplacement d'une solution optimale, ou {@code null} si la
+     *         grille est déjà ordonnée.
+     *
+     * @throws IllegalArgumentException Si la grille n'est pas une grille 3x3 pouvant
+     *         être ordonnée.
+     */
+    public Move bestMove(IBoard board) {
+        int entry = entry(board);
+        if ((entry & DISTANCE_MASK) == 0) {
+            return null;
+        }
+        return Move.of(entry >>> MOVE_SHIFT);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.ISolver#solve(fr.univartois.butinfo.
+     * ihm.taquin.model.board.IBoard)
+     */
+    @Override
+    public Solution solve(IBoard board) {
+        long start = System.nanoTime();
+        SearchProfile profile = Metrics.startSearch(this, board.size());
+        IBoard copy = board.copy();
+        Move[] moves = new Move[distance(copy)];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = bestMove(copy);
+            copy.push(moves[i]);
+        }
+        if (profile != null) {
+            profile.finish(moves.length, moves.length);
+        }
+        return new Solution(moves, moves.length, System.nanoTime() - start);
+    }
+
+    /**
+     * Donne l'entrée de la table correspondant à une grille.
+     *
+     * @param board La grille à considérer.
+     *
+     * @return L'entrée de la table.
+     *
+     * @throws IllegalArgumentException Si la grille n'est pas une grille 3x3 pouvant
+     *         être ordonnée.
+     */
+    private int entry(IBoard board) {
+        if (!board.topology().isStandard(SIZE)) {
+            throw new IllegalArgumentException("Unsupported grid: " + board.topology());
+        }
+        if (!Solvability.isSolvable(board)) {
+            throw new IllegalArgumentException("This grid cannot be ordered");
+        }
+
+        return entries[(int) (CODEC.rank(board) >>> 1)];
+    }
+
+    /**
+     * Calcule l'indice d'une grille dans la table, à partir de sa représentation sur 4
+     * bits par case.
+     *
+     * @param state La grille à considérer.
+     *
+     * @return L'indice de la grille, c'est-à-dire la moitié de son rang.
+     */
+    private static int index(long state) {
+        return (int) (CODEC.rankPacked(state) >>> 1);
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * L'interface IHeuristic définit une estimation admissible du nombre de déplacements
+ * nécessaires pour ordonner une grille, pouvant être mise à jour de manière incrémentale
+ * après chaque déplacement.
+ *
+ * Afin que la recherche n'alloue aucun objet, une heuristique ne conserve aucun état
+ * propre à une grille : celui-ci est codé dans un {@code long}, que le solveur conserve
+ * pour chaque nœud de la recherche.
+ * Une même instance peut donc être partagée entre plusieurs recherches simultanées.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public interface IHeuristic {
+
+    /**
+     * Vérifie si cette heuristique peut évaluer les grilles d'une topologie donnée.
+     *
+     * @param topology La topologie des grilles à évaluer.
+     *
+     * @return Si cette heuristique supporte la topologie.
+     */
+    default boolean supports(Topology topology) {
+        return true;
+    }
+
+    /**
+     * Donne le nombre de bits de poids faible utilisés par les états de cette
+     * heuristique, afin de pouvoir les combiner dans un même {@code long} (voir
+     * {@link MaxHeuristic}).
+     *
+     * @return Le nombre de bits utilisés par les états.
+     */
+    default int stateBits() {
+        return Long.SIZE;
+    }
+
+    /**
+     * Évalue complètement une configuration.
+     *
+     * @param topology La topologie de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     *
+     * @return L'état de l'heuristique pour cette configuration.
+     */
+    long initialize(Topology topology, int[] cells);
+
+    /**
+     * Met à jour l'état de l'heuristique après un déplacement.
+     * Lors de l'appel, le déplacement a déjà été réalisé dans {@code cells} : la tuile
+     * déplacée se trouve en {@code to}, et la case {@code from} est vide.
+     * Le tableau peut être modifié temporairement, à condition d'être restauré.
+     *
+     * @param topology La topologie de la grille.
+     * @param state L'état de l'heuristique avant le déplacement.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     * @param from La case d'où provient la tuile déplacée.
+     * @param to La case où se trouve désormais la tuile déplacée.
+     *
+     * @return L'état de l'heuristique après le déplacement.
+     */
+    long update(Topology topology, long state, int[] cells, int from, int to);
+
+    /**
+     * Donne l'estimation correspondant à un état de l'heuristique.
+     *
+     * @param state L'état de l'heuristique.
+     *
+     * @return Le nombre minimal estimé de déplacements restants.
+     */
+    int value(long state);
+
+}
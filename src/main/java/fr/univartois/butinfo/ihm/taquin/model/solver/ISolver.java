@@ -0,0 +1,37 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+
+/**
+ * L'interface ISolver définit le contrat des solveurs du jeu du Taquin, qui calculent
+ * une suite de déplacements permettant d'ordonner une grille.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public interface ISolver {
+
+    /**
+     * Calcule une suite de déplacements ordonnant la grille donnée.
+     * La grille n'est pas modifiée par cette méthode.
+     *
+     * @param board La grille à résoudre.
+     *
+     * @return La solution trouvée.
+     *
+     * @throws IllegalArgumentException Si la grille ne peut pas être ordonnée, ou si
+     *         ce solveur ne supporte pas sa taille.
+     * @throws java.util.concurrent.CancellationException Si le thread courant a été
+     *         interrompu pendant la recherche.
+     */
+    Solution solve(IBoard board);
+
+}
@@ -0,0 +1,44 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.util.function.Consumer;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+
+/**
+ * L'interface IStreamingSolver définit les solveurs capables de transmettre les
+ * déplacements de leur solution au fur et à mesure qu'ils les calculent, de sorte que
+ * la solution puisse être rejouée avant d'être entièrement connue.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public interface IStreamingSolver extends ISolver {
+
+    /**
+     * Calcule une suite de déplacements ordonnant la grille donnée, en transmettant
+     * chaque déplacement dès qu'il est calculé.
+     * La grille n'est pas modifiée par cette méthode.
+     *
+     * @param board La grille à résoudre.
+     * @param output L'action recevant les déplacements, dans l'ordre, sur le thread
+     *        réalisant la résolution.
+     *
+     * @return Le nombre de déplacements transmis.
+     *
+     * @throws IllegalArgumentException Si la grille ne peut pas être ordonnée, ou si
+     *         ce solveur ne supporte pas sa taille.
+     * @throws java.util.concurrent.CancellationException Si le thread courant a été
+     *         interrompu pendant la résolution.
+     */
+    int solve(IBoard board, Consumer<Move> output);
+
+}
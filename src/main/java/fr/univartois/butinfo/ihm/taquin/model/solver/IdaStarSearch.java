@@ -0,0 +1,380 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * La classe IdaStarSearch réalise une itération de recherche en profondeur bornée, telle
+ * qu'utilisée par IDA*.
+ *
+ * Une instance de cette classe contient tout l'état d'une recherche (grille de travail,
+ * chemin courant, compteurs) et n'alloue aucun objet pendant la recherche.
+ * Elle n'est pas partagée entre plusieurs threads.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+final class IdaStarSearch {
+
+    /**
+     * La valeur renvoyée par la recherche lorsqu'une solution a été trouvée.
+     */
+    static final int FOUND = -1;
+
+    /**
+     * La valeur renvoyée par la recherche lorsqu'aucun nœud ne dépasse la borne.
+     */
+    static final int NOT_FOUND = Integer.MAX_VALUE;
+
+    /**
+     * La valeur utilisée comme déplacement précédent à la racine de la recherche.
+     */
+    static final int NO_MOVE = -1;
+
+    /**
+     * Le masque déterminant la fréquence à laquelle la demande d'arrêt (ou
+     * l'interruption du thread courant) est consultée (tous les 1024 nœuds).
+     */
+    private static final long STOP_CHECK_MASK = 0x3FF;
+
+    /**
+     * La topologie de la grille explorée.
+     */
+    private final Topology topology;
+
+    /**
+     * L'heuristique guidant la recherche.
+     */
+    private final IHeuristic heuristic;
+
+    /**
+     * Les valeurs des tuiles de la grille de travail, indexées par case.
+     */
+    private final int[] cells;
+
+    /**
+     * Les déplacements menant de la racine au nœud courant.
+     */
+    private final byte[] path;
+
+    /**
+     * L'indicateur partagé demandant l'arrêt de la recherche, ou {@code null} si la
+     * recherche ne peut pas être interrompue.
+     */
+    private final AtomicBoolean stop;
+
+    /**
+     * L'indice de la case vide de la grille de travail.
+     */
+    private int empty;
+
+    /**
+     * Le nombre de déplacements de la solution trouvée.
+     */
+    private int length;
+
+    /**
+     * Le nombre de nœuds développés depuis la création de cette recherche.
+     */
+    private long nodes;
+
+    /**
+     * Le nombre de nœuds développés à chaque profondeur, ou {@code null} s'ils ne sont
+     * pas comptés.
+     */
+    private long[] depthNodes;
+
+    /**
+     * La table de transposition utilisée pour éviter d'explorer à nouveau les mêmes
+     * sous-arbres, ou {@code null} si aucune table n'est utilisée.
+     */
+    private TranspositionTable table;
+
+    /**
+     * Le hachage de la grille de travail, maintenu lorsqu'une table de transposition
+     * est utilisée.
+     */
+    private long hash;
+
+    /**
+     * Si l'arrêt de la recherche a été constaté : les résultats partiels ne doivent
+     * alors plus être mémorisés dans la table de transposition.
+     */
+    private boolean abandoned;
+
+    /**
+     * Construit une nouvelle instance de IdaStarSearch.
+     *
+     * @param board La grille à partir de laquelle chercher.
+     * @param heuristic L'heuristique guidant la recherche.
+     * @param maxDepth La profondeur maximale de la recherche.
+     */
+    IdaStarSearch(IBoard board, IHeuristic heuristic, int maxDepth) {
+        this(board, heuristic, maxDepth, null);
+    }
+
+    /**
+     * Construit une nouvelle instance de IdaStarSearch pouvant être interrompue.
+     *
+     * @param board La grille à partir de laquelle chercher.
+     * @param heuristic L'heuristique guidant la recherche.
+     * @param maxDepth La profondeur maximale de la recherche.
+     * @param stop L'indicateur partagé demandant l'arrêt de la recherche.
+     */
+    IdaStarSearch(IBoard board, IHeuristic heuristic, int maxDepth, AtomicBoolean stop) {
+        this.stop = stop;
+        this.topology = board.topology();
+        this.heuristic = heuristic;
+        this.cells = new int[topology.cells()];
+        this.path = new byte[maxDepth];
+        board.copyTo(cells);
+        this.empty = board.emptyIndex();
+    }
+
+    /**
+     * Demande à cette recherche de compter les nœuds développés à chaque profondeur.
+     *
+     * @param depthNodes Le tableau dans lequel compter les nœuds, indexé par profondeur.
+     */
+    void profileDepths(long[] depthNodes) {
+        this.depthNodes = depthNodes;
+    }
+
+    /**
+     * Demande à cette recherche d'utiliser une table de transposition.
+     *
+     * @param table La table de transposition à utiliser.
+     */
+    void useTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Donne l'état de l'heuristique pour la grille de travail.
+     *
+     * @return L'état de l'heuristique.
+     */
+    long initialState() {
+        if (table != null) {
+            hash = 0;
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] != 0) {
+                    // La case vide est déterminée par les autres tuiles.
+                    hash ^= TranspositionTable.cellKey(cells[i], i);
+                }
+            }
+        }
+        return heuristic.initialize(topology, cells);
+    }
+
+    /**
+     * Réalise une suite de déplacements sur la grille de travail, en les ajoutant au
+     * chemin courant.
+     *
+     * @param prefix Les ordinaux des déplacements à réaliser.
+     *
+     * @return L'état de l'heuristique pour la grille obtenue.
+     */
+    long replay(byte[] prefix) {
+        for (int depth = 0; depth < prefix.length; depth++) {
+            int index = topology.neighbor(empty, prefix[depth]);
+            cells[empty] = cells[index];
+            cells[index] = 0;
+            empty = index;
+            path[depth] = prefix[depth];
+        }
+        return initialState();
+    }
+
+    /**
+     * Donne la profondeur maximale de cette recherche.
+     *
+     * @return La profondeur maximale.
+     */
+    int maxDepth() {
+        return path.length;
+    }
+
+    /**
+     * Explore les nœuds dont le coût estimé ne dépasse pas la borne donnée.
+     * Si une solution est trouvée, la grille de travail reste dans l'état ordonné.
+     *
+     * @param depth La profondeur du nœud courant.
+     * @param bound La borne de l'itération courante.
+     * @param state L'état de l'heuristique pour le nœud courant.
+     * @param previous L'ordinal du déplacement ayant mené au nœud courant.
+     *
+     * @return {@link #FOUND} si une solution a été trouvée, ou le plus petit coût
+     *         estimé dépassant la borne sinon (ou {@link #NOT_FOUND} si l'arrêt de la
+     *         recherche a été demandé, ou si le thread courant a été interrompu).
+     */
+    int search(int depth, int bound, long state, int previous) {
+        if (abandoned) {
+            return NOT_FOUND;
+        }
+
+        int h = heuristic.value(state);
+        int f = depth + h;
+        if (f > bound) {
+            return f;
+        }
+
+        if ((h == 0) && isOrdered()) {
+            length = depth;
+            return FOUND;
+        }
+
+        if (depth == path.length) {
+            return NOT_FOUND;
+        }
+
+        long key = 0;
+        int first = 0;
+        if (table != null) {
+            key = TranspositionTable.key(hash, previous);
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                int cost = depth + TranspositionTable.lowerBound(entry);
+                if (cost > bound) {
+                    // Ce nœud a déjà été exploré, et dépasse la borne.
+                    return cost;
+                }
+                first = Math.max(0, TranspositionTable.bestMove(entry));
+            }
+        }
+
+        nodes++;
+        if (depthNodes != null) {
+            depthNodes[depth]++;
+        }
+        if (((nodes & STOP_CHECK_MASK) == 0) && isStopRequested()) {
+            abandoned = true;
+            return NOT_FOUND;
+        }
+
+        int min = NOT_FOUND;
+        int best = -1;
+        for (int i = 0; i < 4; i++) {
+            // Le meilleur déplacement connu est essayé en premier.
+            int move = (first + i) & 3;
+            if ((move ^ 2) == previous) {
+                // Ce déplacement annulerait le précédent.
+                continue;
+            }
+
+            int index = topology.neighbor(empty, move);
+            if (index < 0) {
+                continue;
+            }
+
+            // On pousse la tuile dans l'emplacement vide.
+            int from = empty;
+            int tile = cells[index];
+            cells[from] = tile;
+            cells[index] = 0;
+            empty = index;
+            path[depth] = (byte) move;
+            if (table != null) {
+                hash ^= TranspositionTable.cellKey(tile, index)
+                        ^ TranspositionTable.cellKey(tile, from);
+            }
+
+            int t = search(depth + 1, bound,
+                    heuristic.update(topology, state, cells, index, from), move);
+            if (t == FOUND) {
+                return FOUND;
+            }
+            if (abandoned) {
+                // L'arrêt a été constaté dans le sous-arbre : on remonte sans explorer
+                // les autres déplacements, en laissant la grille de travail en l'état.
+                return NOT_FOUND;
+            }
+
+            // On annule le déplacement.
+            cells[index] = tile;
+            cells[from] = 0;
+            empty = from;
+            if (table != null) {
+                hash ^= TranspositionTable.cellKey(tile, index)
+                        ^ TranspositionTable.cellKey(tile, from);
+            }
+            if (t < min) {
+                min = t;
+                best = move;
+            }
+        }
+
+        if ((table != null) && (min != NOT_FOUND) && !abandoned) {
+            table.store(key, min - depth, bound - depth, best);
+        }
+        return min;
+    }
+
+    /**
+     * Vérifie si la grille de travail est ordonnée.
+     *
+     * @return Si la grille de travail est ordonnée.
+     */
+    private boolean isOrdered() {
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != topology.goal(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vérifie si l'arrêt de la recherche a été demandé.
+     *
+     * @return Si l'indicateur partagé a été levé, ou si le thread courant a été
+     *         interrompu.
+     */
+    private boolean isStopRequested() {
+        return ((stop != null) && stop.get()) || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Vérifie si la dernière recherche a été abandonnée, parce que son arrêt a été
+     * demandé ou que le thread courant a été interrompu.
+     *
+     * @return Si la recherche a été abandonnée.
+     */
+    boolean isAbandoned() {
+        return abandoned;
+    }
+
+    /**
+     * Donne le nombre de nœuds développés depuis la création de cette recherche.
+     *
+     * @return Le nombre de nœuds développés.
+     */
+    long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Donne les déplacements de la solution trouvée par la dernière recherche.
+     *
+     * @return Les déplacements de la solution.
+     */
+    Move[] solution() {
+        Move[] moves = new Move[length];
+        for (int i = 0; i < length; i++) {
+            moves[i] = Move.of(path[i]);
+        }
+        return moves;
+    }
+
+}
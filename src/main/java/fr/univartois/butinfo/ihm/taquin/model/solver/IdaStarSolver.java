@@ -0,0 +1,213 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.Solvability;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.Metrics;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.SearchProfile;
+
+/**
+ * La classe IdaStarSolver calcule des solutions optimales à l'aide de l'algorithme
+ * IDA* (<i>Iterative Deepening A*</i>).
+ *
+ * Chaque itération explore en profondeur les nœuds dont le coût estimé ne dépasse pas
+ * une borne, qui est ensuite portée au plus petit coût l'ayant dépassée.
+ * L'heuristique étant admissible, la première solution trouvée est optimale.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public class IdaStarSolver implements ISolver {
+
+    /**
+     * La profondeur maximale par défaut de la recherche.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 256;
+
+    /**
+     * L'heuristique guidant la recherche.
+     */
+    private final IHeuristic heuristic;
+
+    /**
+     * La profondeur maximale de la recherche.
+     */
+    private final int maxDepth;
+
+    /**
+     * La table de transposition partagée par les recherches de ce solveur, ou
+     * {@code null} si aucune table n'est utilisée.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Construit une nouvelle instance de IdaStarSolver, utilisant la distance de
+     * Manhattan et les conflits linéaires.
+     */
+    public IdaStarSolver() {
+        this(new LinearConflictHeuristic());
+    }
+
+    /**
+     * Construit une nouvelle instance de IdaStarSolver.
+     *
+     * @param heuristic L'heuristique guidant la recherche.
+     */
+    public IdaStarSolver(IHeuristic heuristic) {
+        this(heuristic, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Construit une nouvelle instance de IdaStarSolver.
+     *
+     * @param heuristic L'heuristique guidant la recherche.
+     * @param maxDepth La profondeur maximale de la recherche.
+     */
+    public IdaStarSolver(IHeuristic heuristic, int maxDepth) {
+        this(heuristic, maxDepth, null);
+    }
+
+    /**
+     * Construit une nouvelle instance de IdaStarSolver utilisant une table de
+     * transposition.
+     * La table est conservée d'une résolution à l'autre, et peut être partagée par
+     * plusieurs solveurs et plusieurs threads.
+     *
+     * @param heuristic L'heuristique guidant la recherche.
+     * @param maxDepth La profondeur maximale de la recherche.
+     * @param table La table de transposition à utiliser, ou {@code null} pour n'en
+     *        utiliser aucune.
+     */
+    public IdaStarSolver(IHeuristic heuristic, int maxDepth, TranspositionTable table) {
+        this.heuristic = heuristic;
+        this.maxDepth = maxDepth;
+        this.table = table;
+    }
+
+    /**
+     * Donne l'heuristique guidant la recherche.
+     *
+     * @return L'heuristique de ce solveur.
+     */
+    public IHeuristic getHeuristic() {
+        return heuristic;
+    }
+
+    /**
+     * Donne la profondeur maximale de la recherche.
+     *
+     * @return La profondeur maximale de ce solveur.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Donne la table de transposition utilisée par ce solveur.
+     *
+     * @return La table de transposition, ou {@code null} si aucune table n'est utilisée.
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.ISolver#solve(fr.univartois.butinfo.
+     * ihm.taquin.model.board.IBoard)
+     */
+    @Override
+    public Solution solve(IBoard board) {
+        return solve(board, null);
+    }
+
+    /**
+     * Calcule une solution optimale pour la grille donnée, en abandonnant la recherche
+     * dès que son arrêt est demandé.
+     *
+     * @param board La grille à résoudre.
+     * @param stop L'indicateur demandant l'arrêt de la recherche, ou {@code null} pour
+     *        que seule l'interruption du thread appelant l'arrête.
+     *
+     * @return La solution calculée.
+     *
+     * @throws CancellationException Si l'arrêt de la recherche a été demandé, ou si le
+     *         thread appelant a été interrompu.
+     */
+    public Solution solve(IBoard board, AtomicBoolean stop) {
+        checkSolvable(board);
+        long start = System.nanoTime();
+
+        IdaStarSearch search = new IdaStarSearch(board, heuristic, maxDepth, stop);
+        SearchProfile profile = Metrics.startSearch(this, board.size());
+        if (profile != null) {
+            search.profileDepths(profile.depthHistogram(maxDepth));
+        }
+        if (table != null) {
+            search.useTable(table);
+        }
+
+        long state = search.initialState();
+        int bound = heuristic.value(state);
+        while (true) {
+            if (table != null) {
+                table.nextGeneration();
+            }
+            int t = search.search(0, bound, state, IdaStarSearch.NO_MOVE);
+            if (profile != null) {
+                profile.iteration(bound, search.nodes());
+            }
+            if (t == IdaStarSearch.FOUND) {
+                Move[] moves = search.solution();
+                if (profile != null) {
+                    profile.finish(search.nodes(), moves.length);
+                }
+                return new Solution(moves, search.nodes(), System.nanoTime() - start);
+            }
+            if (search.isAbandoned()) {
+                if (profile != null) {
+                    profile.finish(search.nodes(), -1);
+                }
+                throw new CancellationException("Search interrupted");
+            }
+            if (t == IdaStarSearch.NOT_FOUND) {
+                if (profile != null) {
+                    profile.finish(search.nodes(), -1);
+                }
+                throw new IllegalStateException("No solution within " + maxDepth + " moves");
+            }
+            bound = t;
+        }
+    }
+
+    /**
+     * Vérifie qu'une grille peut être résolue par ce solveur.
+     *
+     * @param board La grille à vérifier.
+     *
+     * @throws IllegalArgumentException Si la grille ne peut pas être résolue.
+     */
+    protected void checkSolvable(IBoard board) {
+        if (!heuristic.supports(board.topology())) {
+            throw new IllegalArgumentException(
+                    "Unsupported grid for this heuristic: " + board.topology());
+        }
+        if (!Solvability.isSolvable(board)) {
+            throw new IllegalArgumentException("This grid cannot be ordered");
+        }
+    }
+
+}
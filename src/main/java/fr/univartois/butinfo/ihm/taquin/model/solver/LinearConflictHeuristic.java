@@ -0,0 +1,286 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * La classe LinearConflictHeuristic combine la distance de Manhattan et les conflits
+ * linéaires.
+ *
+ * Deux tuiles sont en conflit linéaire lorsqu'elles se trouvent sur leur ligne (ou leur
+ * colonne) finale, mais dans le mauvais ordre : l'une d'elles devra alors quitter cette
+ * ligne et y revenir, ce qui coûte deux déplacements de plus que la distance de
+ * Manhattan.
+ * Le nombre de tuiles à retirer d'une ligne est obtenu à partir de la plus longue
+ * sous-suite croissante des positions finales de ses tuiles.
+ *
+ * Après un déplacement, seules la distance de la tuile déplacée et les deux lignes (ou
+ * colonnes) qu'elle traverse sont réévaluées.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class LinearConflictHeuristic implements IHeuristic {
+
+    /**
+     * La dimension maximale des grilles supportées, pour que les piles de la recherche de
+     * la plus longue sous-suite croissante tiennent dans un {@code long}.
+     */
+    private static final int MAX_SIZE = 16;
+
+    /**
+     * Le nombre de bits utilisés par les états de cette heuristique, qui ne contiennent
+     * que son estimation.
+     */
+    private static final int STATE_BITS = 16;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#supports(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology)
+     */
+    @Override
+    public boolean supports(Topology topology) {
+        return (topology.height() <= MAX_SIZE) && (topology.width() <= MAX_SIZE);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#stateBits()
+     */
+    @Override
+    public int stateBits() {
+        return STATE_BITS;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#initialize(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology, int[])
+     */
+    @Override
+    public long initialize(Topology topology, int[] cells) {
+        int value = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != 0) {
+                value += topology.distance(i, topology.goalIndex(cells[i]));
+            }
+        }
+
+        for (int row = 0; row < topology.height(); row++) {
+            value += rowConflicts(topology, cells, row);
+        }
+        for (int column = 0; column < topology.width(); column++) {
+            value += columnConflicts(topology, cells, column);
+        }
+        return value;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#update(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology, long, int[], int, int)
+     */
+    @Override
+    public long update(Topology topology, long state, int[] cells, int from, int to) {
+        int tile = cells[to];
+        int goal = topology.goalIndex(tile);
+        long value = state + topology.distance(to, goal) - topology.distance(from, goal);
+
+        // Les conflits ne changent que si la tuile entre dans sa ligne (ou sa colonne)
+        // finale, ou si elle la quitte.
+        int line;
+        if (topology.row(from) == topology.row(to)) {
+            line = topology.column(goal);
+            if (line == topology.column(to)) {
+                return value + columnConflicts(topology, cells, line)
+                        - columnConflicts(topology, cells, line, to);
+            }
+            if (line == topology.column(from)) {
+                return value - withTile(topology, cells, tile, from, to, false);
+            }
+
+        } else {
+            line = topology.row(goal);
+            if (line == topology.row(to)) {
+                return value + rowConflicts(topology, cells, line)
+                        - rowConflicts(topology, cells, line, to);
+            }
+            if (line == topology.row(from)) {
+                return value - withTile(topology, cells, tile, from, to, true);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Calcule la variation des conflits sur la ligne (ou la colonne) quittée par une
+     * tuile, en la replaçant temporairement sur sa case de départ.
+     *
+     * @param topology La topologie de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     * @param tile La tuile déplacée.
+     * @param from La case d'où provient la tuile.
+     * @param to La case où se trouve désormais la tuile.
+     * @param row Si la ligne quittée est une ligne (et non une colonne).
+     *
+     * @return Le coût des conflits avant le déplacement, moins celui après.
+     */
+    private static int withTile(Topology topology, int[] cells, int tile, int from, int to,
+            boolean row) {
+        int line = row ? topology.row(from) : topology.column(from);
+        int after = row ? rowConflicts(topology, cells, line)
+                : columnConflicts(topology, cells, line);
+        cells[from] = tile;
+        int before = row ? rowConflicts(topology, cells, line, to)
+                : columnConflicts(topology, cells, line, to);
+        cells[from] = 0;
+        return before - after;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#value(long)
+     */
+    @Override
+    public int value(long state) {
+        return (int) state;
+    }
+
+    /**
+     * Calcule le coût des conflits linéaires sur une ligne.
+     *
+     * @param topology La topologie de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     * @param row La ligne à évaluer.
+     *
+     * @return Le coût des conflits sur la ligne.
+     */
+    private static int rowConflicts(Topology topology, int[] cells, int row) {
+        return rowConflicts(topology, cells, row, -1);
+    }
+
+    /**
+     * Calcule le coût des conflits linéaires sur une ligne, en ignorant une case.
+     *
+     * @param topology La topologie de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     * @param row La ligne à évaluer.
+     * @param ignored L'indice de la case à ignorer.
+     *
+     * @return Le coût des conflits sur la ligne.
+     */
+    private static int rowConflicts(Topology topology, int[] cells, int row, int ignored) {
+        int width = topology.width();
+        int count = 0;
+        int length = 0;
+        long tails = 0;
+
+        for (int index = row * width; index < (row + 1) * width; index++) {
+            int tile = cells[index];
+            if ((tile != 0) && (index != ignored)) {
+                int goal = topology.goalIndex(tile);
+                if (topology.row(goal) == row) {
+                    count++;
+                    int rank = insert(tails, length, topology.column(goal));
+                    tails = replace(tails, rank, topology.column(goal));
+                    length = Math.max(length, rank + 1);
+                }
+            }
+        }
+        return 2 * (count - length);
+    }
+
+    /**
+     * Calcule le coût des conflits linéaires sur une colonne.
+     *
+     * @param topology La topologie de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     * @param column La colonne à évaluer.
+     *
+     * @return Le coût des conflits sur la colonne.
+     */
+    private static int columnConflicts(Topology topology, int[] cells, int column) {
+        return columnConflicts(topology, cells, column, -1);
+    }
+
+    /**
+     * Calcule le coût des conflits linéaires sur une colonne, en ignorant une case.
+     *
+     * @param topology La topologie de la grille.
+     * @param cells Les valeurs des tuiles, indexées par case.
+     * @param column La colonne à évaluer.
+     * @param ignored L'indice de la case à ignorer.
+     *
+     * @return Le coût des conflits sur la colonne.
+     */
+    private static int columnConflicts(Topology topology, int[] cells, int column,
+            int ignored) {
+        int width = topology.width();
+        int count = 0;
+        int length = 0;
+        long tails = 0;
+
+        for (int index = column; index < cells.length; index += width) {
+            int tile = cells[index];
+            if ((tile != 0) && (index != ignored)) {
+                int goal = topology.goalIndex(tile);
+                if (topology.column(goal) == column) {
+                    count++;
+                    int rank = insert(tails, length, topology.row(goal));
+                    tails = replace(tails, rank, topology.row(goal));
+                    length = Math.max(length, rank + 1);
+                }
+            }
+        }
+        return 2 * (count - length);
+    }
+
+    /**
+     * Détermine la pile sur laquelle placer une valeur, lors du calcul de la plus
+     * longue sous-suite croissante par la méthode des piles.
+     *
+     * @param tails Les sommets des piles, codés sur 4 bits chacun.
+     * @param length Le nombre de piles.
+     * @param value La valeur à placer.
+     *
+     * @return L'indice de la première pile dont le sommet est supérieur à la valeur.
+     */
+    private static int insert(long tails, int length, int value) {
+        int rank = 0;
+        while ((rank < length) && (((tails >>> (rank << 2)) & 0xF) < value)) {
+            rank++;
+        }
+        return rank;
+    }
+
+    /**
+     * Remplace le sommet d'une pile.
+     *
+     * @param tails Les sommets des piles, codés sur 4 bits chacun.
+     * @param rank L'indice de la pile.
+     * @param value La nouvelle valeur du sommet.
+     *
+     * @return Les nouveaux sommets des piles.
+     */
+    private static long replace(long tails, int rank, int value) {
+        int shift = rank << 2;
+        return (tails & ~(0xFL << shift)) | (((long) value) << shift);
+    }
+
+}
@@ -0,0 +1,154 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.util.Arrays;
+
+/**
+ * La classe LongIntHashMap est une table de hachage associant des entiers à des clés de
+ * type {@code long}, sans jamais les encapsuler dans des objets.
+ *
+ * Les collisions sont résolues par adressage ouvert (sondage linéaire), et la table
+ * double de taille lorsqu'elle est remplie aux trois quarts.
+ * La clé {@code 0} est réservée pour marquer les cases libres : elle ne correspond à
+ * aucune grille compacte, puisque les tuiles y ont des valeurs distinctes.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+final class LongIntHashMap {
+
+    /**
+     * La capacité minimale de la table.
+     */
+    private static final int MIN_CAPACITY = 1 << 10;
+
+    /**
+     * Les clés de la table ({@code 0} pour une case libre).
+     */
+    private long[] keys;
+
+    /**
+     * Les valeurs associées aux clés.
+     */
+    private int[] values;
+
+    /**
+     * Le nombre de clés présentes dans la table.
+     */
+    private int size;
+
+    /**
+     * Construit une nouvelle table vide.
+     */
+    LongIntHashMap() {
+        this.keys = new long[MIN_CAPACITY];
+        this.values = new int[MIN_CAPACITY];
+    }
+
+    /**
+     * Donne la valeur associée à une clé.
+     *
+     * @param key La clé recherchée (non nulle).
+     * @param missing La valeur à renvoyer si la clé est absente.
+     *
+     * @return La valeur associée à la clé, ou {@code missing}.
+     */
+    int get(long key, int missing) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Associe une valeur à une clé, si celle-ci n'est pas déjà présente.
+     *
+     * @param key La clé à ajouter (non nulle).
+     * @param value La valeur à associer à la clé.
+     *
+     * @return Si la clé a été ajoutée.
+     */
+    boolean putIfAbsent(long key, int value) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (keys.length >>> 2) * 3) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Donne le nombre de clés présentes dans la table.
+     *
+     * @return Le nombre de clés.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Vide la table, en conservant sa capacité.
+     */
+    void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    /**
+     * Double la capacité de la table.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[2 * oldKeys.length];
+        values = new int[2 * oldKeys.length];
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Mélange les bits d'une clé (fonction de finalisation de MurmurHash3).
+     *
+     * @param key La clé à mélanger.
+     *
+     * @return La valeur de hachage de la clé.
+     */
+    static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+}
@@ -0,0 +1,220 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.util.Arrays;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+
+/**
+ * La classe MacroTable est une table précalculée de macro-opérateurs sur une petite
+ * fenêtre de la grille : pour chaque position de l'emplacement vide et de quelques
+ * tuiles suivies, elle donne le déplacement rapprochant au plus vite ces tuiles de leur
+ * place dans la fenêtre.
+ *
+ * Les autres tuiles de la fenêtre ne sont pas distinguées : la table s'applique donc
+ * quel que soit leur contenu.
+ * Elle est calculée une fois pour toutes par un parcours en largeur mené depuis les
+ * configurations finales, et les déplacements y sont exprimés dans le repère de la
+ * fenêtre (à charge pour l'appelant de les orienter sur la grille).
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+final class MacroTable {
+
+    /**
+     * La valeur des configurations finales dans la table.
+     */
+    static final int GOAL = -1;
+
+    /**
+     * La valeur des configurations inaccessibles dans la table.
+     */
+    private static final byte UNREACHABLE = -2;
+
+    /**
+     * Le nombre de lignes de la fenêtre.
+     */
+    private final int rows;
+
+    /**
+     * Le nombre de colonnes de la fenêtre.
+     */
+    private final int columns;
+
+    /**
+     * Le nombre de cases de la fenêtre.
+     */
+    private final int cells;
+
+    /**
+     * Le nombre de pièces suivies, l'emplacement vide compris.
+     */
+    private final int pieces;
+
+    /**
+     * L'ordinal du déplacement à réaliser dans chaque configuration, {@link #GOAL} pour
+     * les configurations finales, ou {@link #UNREACHABLE}.
+     */
+    private final byte[] moves;
+
+    /**
+     * Construit une nouvelle table, en parcourant toutes les configurations de la
+     * fenêtre.
+     *
+     * @param rows Le nombre de lignes de la fenêtre.
+     * @param columns Le nombre de colonnes de la fenêtre.
+     * @param goals Les cases attendues des pièces suivies, dans le repère de la fenêtre :
+     *        celle de l'emplacement vide d'abord, puis celles des tuiles ({@code -1} si
+     *        la place d'une pièce est indifférente).
+     */
+    MacroTable(int rows, int columns, int... goals) {
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = rows * columns;
+        this.pieces = goals.length;
+        int size = 1;
+        for (int p = 0; p < pieces; p++) {
+            size *= cells;
+        }
+        this.moves = new byte[size];
+        Arrays.fill(moves, UNREACHABLE);
+
+        int[] queue = new int[size];
+        int tail = 0;
+        int[] positions = new int[pieces];
+        for (int state = 0; state < size; state++) {
+            if (decode(state, positions) && isGoal(positions, goals)) {
+                moves[state] = GOAL;
+                queue[tail++] = state;
+            }
+        }
+
+        for (int head = 0; head < tail; head++) {
+            decode(queue[head], positions);
+            int blank = positions[0];
+            for (Move move : Move.values()) {
+                int row = blank / columns + move.rowOffset();
+                int column = blank % columns + move.columnOffset();
+                if ((row < 0) || (row >= rows) || (column < 0) || (column >= columns)) {
+                    continue;
+                }
+
+                // L'emplacement vide vient de la case voisine, en y déplaçant la pièce
+                // qui s'y trouvait éventuellement.
+                int[] previous = positions.clone();
+                int neighbor = row * columns + column;
+                for (int p = 1; p < pieces; p++) {
+                    if (previous[p] == neighbor) {
+                        previous[p] = blank;
+                    }
+                }
+                previous[0] = neighbor;
+                int state = encode(previous);
+                if (moves[state] == UNREACHABLE) {
+                    moves[state] = (byte) move.opposite().ordinal();
+                    queue[tail++] = state;
+                }
+            }
+        }
+    }
+
+    /**
+     * Donne le nombre de lignes de la fenêtre.
+     *
+     * @return Le nombre de lignes.
+     */
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Donne le nombre de colonnes de la fenêtre.
+     *
+     * @return Le nombre de colonnes.
+     */
+    int columns() {
+        return columns;
+    }
+
+    /**
+     * Donne le déplacement à réaliser dans une configuration de la fenêtre.
+     *
+     * @param positions Les cases des pièces suivies, dans le repère de la fenêtre :
+     *        celle de l'emplacement vide d'abord, puis celles des tuiles.
+     *
+     * @return L'ordinal du déplacement à réaliser (dans le repère de la fenêtre), ou
+     *         {@link #GOAL} si les pièces sont à leur place.
+     *
+     * @throws IllegalStateException Si la configuration ne permet pas de placer les
+     *         pièces.
+     */
+    int next(int[] positions) {
+        int move = moves[encode(positions)];
+        if (move == UNREACHABLE) {
+            throw new IllegalStateException("This configuration cannot be completed");
+        }
+        return move;
+    }
+
+    /**
+     * Code une configuration de la fenêtre.
+     *
+     * @param positions Les cases des pièces suivies.
+     *
+     * @return Le code de la configuration.
+     */
+    private int encode(int[] positions) {
+        int state = 0;
+        for (int p = pieces - 1; p >= 0; p--) {
+            state = state * cells + positions[p];
+        }
+        return state;
+    }
+
+    /**
+     * Décode une configuration de la fenêtre.
+     *
+     * @param state Le code de la configuration.
+     * @param positions Le tableau dans lequel écrire les cases des pièces suivies.
+     *
+     * @return Si les pièces occupent des cases distinctes.
+     */
+    private boolean decode(int state, int[] positions) {
+        int used = 0;
+        for (int p = 0; p < pieces; p++) {
+            positions[p] = state % cells;
+            state /= cells;
+            if ((used & (1 << positions[p])) != 0) {
+                return false;
+            }
+            used |= 1 << positions[p];
+        }
+        return true;
+    }
+
+    /**
+     * Vérifie si les pièces suivies sont à leur place.
+     *
+     * @param positions Les cases des pièces suivies.
+     * @param goals Les cases attendues des pièces suivies.
+     *
+     * @return Si chaque pièce est à sa place, ou si sa place est indifférente.
+     */
+    private static boolean isGoal(int[] positions, int[] goals) {
+        for (int p = 0; p < positions.length; p++) {
+            if ((goals[p] >= 0) && (positions[p] != goals[p])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * La classe MaxHeuristic combine deux heuristiques admissibles en retenant la plus
+ * grande de leurs estimations, qui reste admissible.
+ *
+ * Les états des deux heuristiques sont conservés côte à côte dans un même {@code long}
+ * : celui de la première dans les bits de poids faible, celui de la seconde au-dessus.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class MaxHeuristic implements IHeuristic {
+
+    /**
+     * La première heuristique combinée.
+     */
+    private final IHeuristic first;
+
+    /**
+     * La seconde heuristique combinée.
+     */
+    private final IHeuristic second;
+
+    /**
+     * Le décalage de l'état de la seconde heuristique.
+     */
+    private final int shift;
+
+    /**
+     * Le masque permettant d'extraire l'état de la première heuristique.
+     */
+    private final long mask;
+
+    /**
+     * Construit une nouvelle instance de MaxHeuristic.
+     *
+     * @param first La première heuristique combinée.
+     * @param second La seconde heuristique combinée.
+     *
+     * @throws IllegalArgumentException Si les états des deux heuristiques ne tiennent
+     *         pas ensemble dans un {@code long}.
+     */
+    public MaxHeuristic(IHeuristic first, IHeuristic second) {
+        if (first.stateBits() + second.stateBits() > Long.SIZE) {
+            throw new IllegalArgumentException("Heuristic states do not fit in a long: "
+                    + first.stateBits() + " + " + second.stateBits() + " bits");
+        }
+
+        this.first = first;
+        this.second = second;
+        this.shift = first.stateBits();
+        this.mask = (1L << shift) - 1;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#supports(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology)
+     */
+    @Override
+    public boolean supports(Topology topology) {
+        return first.supports(topology) && second.supports(topology);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#stateBits()
+     */
+    @Override
+    public int stateBits() {
+        return shift + second.stateBits();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#initialize(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology, int[])
+     */
+    @Override
+    public long initialize(Topology topology, int[] cells) {
+        return combine(first.initialize(topology, cells), second.initialize(topology, cells));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#update(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology, long, int[], int, int)
+     */
+    @Override
+    public long update(Topology topology, long state, int[] cells, int from, int to) {
+        return combine(first.update(topology, state & mask, cells, from, to),
+                second.update(topology, state >>> shift, cells, from, to));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#value(long)
+     */
+    @Override
+    public int value(long state) {
+        return Math.max(first.value(state & mask), second.value(state >>> shift));
+    }
+
+    /**
+     * Place les états des deux heuristiques dans un même {@code long}.
+     *
+     * @param firstState L'état de la première heuristique.
+     * @param secondState L'état de la seconde heuristique.
+     *
+     * @return L'état combiné.
+     */
+    private long combine(long firstState, long secondState) {
+        return (firstState & mask) | (secondState << shift);
+    }
+
+}
@@ -0,0 +1,434 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.Metrics;
+import fr.univartois.butinfo.ihm.taquin.model.metrics.SearchProfile;
+
+/**
+ * La classe ParallelIdaStarSolver répartit les itérations d'IDA* sur plusieurs cœurs.
+ *
+ * Les premiers niveaux de l'arbre de recherche sont développés pour obtenir une
+ * frontière de sous-problèmes, qui sont explorés par un {@link ForkJoinPool} : les
+ * tâches sont découpées récursivement, et les threads inactifs volent le travail des
+ * autres.
+ * Pour chaque itération, la borne est commune à tous les sous-problèmes, et la borne
+ * suivante est le plus petit coût l'ayant dépassée dans l'un d'eux.
+ * Dès qu'un sous-problème contient une solution, que l'arrêt de la recherche est
+ * demandé ou que le thread appelant est interrompu, tous les threads s'arrêtent.
+ * Le pool de threads est propre à chaque instance, et doit être libéré par
+ * {@link #close()}.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public class ParallelIdaStarSolver extends IdaStarSolver implements AutoCloseable {
+
+    /**
+     * Le nombre de sous-problèmes visé par thread, pour que le vol de travail puisse
+     * équilibrer la charge.
+     */
+    private static final int TASKS_PER_THREAD = 256;
+
+    /**
+     * La profondeur maximale de la frontière.
+     */
+    private static final int MAX_FRONTIER_DEPTH = 16;
+
+    /**
+     * Le délai (en millisecondes) entre deux vérifications de l'indicateur d'arrêt
+     * donné par l'appelant.
+     */
+    private static final long STOP_POLL_MILLIS = 10;
+
+    /**
+     * Le pool de threads utilisé pour la recherche.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Construit une nouvelle instance de ParallelIdaStarSolver, utilisant un thread par
+     * cœur disponible.
+     *
+     * @param heuristic L'heuristique guidant la recherche.
+     */
+    public ParallelIdaStarSolver(IHeuristic heuristic) {
+        this(heuristic, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construit une nouvelle instance de ParallelIdaStarSolver.
+     *
+     * @param heuristic L'heuristique guidant la recherche.
+     * @param parallelism Le nombre de threads utilisés pour la recherche.
+     */
+    public ParallelIdaStarSolver(IHeuristic heuristic, int parallelism) {
+        this(heuristic, parallelism, null);
+    }
+
+    /**
+     * Construit une nouvelle instance de ParallelIdaStarSolver utilisant une table de
+     * transposition, partagée par tous ses threads.
+     *
+     * @param heuristic L'heuristique guidant la recherche.
+     * @param parallelism Le nombre de threads utilisés pour la recherche.
+     * @param table La table de transposition à utiliser, ou {@code null} pour n'en
+     *        utiliser aucune.
+     */
+    public ParallelIdaStarSolver(IHeuristic heuristic, int parallelism,
+            TranspositionTable table) {
+        this(heuristic, parallelism, DEFAULT_MAX_DEPTH, table);
+    }
+
+    /**
+     * Construit une nouvelle instance de ParallelIdaStarSolver utilisant une table de
+     * transposition, partagée par tous ses threads.
+     *
+     * @param heuristic L'heuristique guidant la recherche.
+     * @param parallelism Le nombre de threads utilisés pour la recherche.
+     * @param maxDepth La profondeur maximale de la recherche.
+     * @param table La table de transposition à utiliser, ou {@code null} pour n'en
+     *        utiliser aucune.
+     */
+    public ParallelIdaStarSolver(IHeuristic heuristic, int parallelism, int maxDepth,
+            TranspositionTable table) {
+        super(heuristic, maxDepth, table);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Donne le nombre de threads utilisés pour la recherche.
+     *
+     * @return Le nombre de threads.
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IdaStarSolver#solve(fr.univartois.
+     * butinfo.ihm.taquin.model.board.IBoard, java.util.concurrent.atomic.AtomicBoolean)
+     */
+    @Override
+    public Solution solve(IBoard board, AtomicBoolean stop) {
+        checkSolvable(board);
+        long start = System.nanoTime();
+
+        List<byte[]> frontier = expand(board);
+        if (frontier == null) {
+            // La solution est plus courte que la frontière : la recherche est immédiate.
+            return super.solve(board, stop);
+        }
+
+        byte[][] tasks = frontier.toArray(new byte[frontier.size()][]);
+        IdaStarSearch root = new IdaStarSearch(board, getHeuristic(), getMaxDepth());
+        int bound = getHeuristic().value(root.initialState());
+        LongAdder nodes = new LongAdder();
+        SearchProfile profile = Metrics.startSearch(this, board.size());
+
+        while (true) {
+            if (getTable() != null) {
+                getTable().nextGeneration();
+            }
+            Iteration iteration = new Iteration(board, tasks, bound, nodes);
+            boolean stopped = !run(iteration, stop);
+            if (profile != null) {
+                profile.iteration(bound, nodes.sum());
+            }
+
+            Move[] moves = iteration.solution.get();
+            if (moves != null) {
+                if (profile != null) {
+                    profile.finish(nodes.sum(), moves.length);
+                }
+                return new Solution(moves, nodes.sum(), System.nanoTime() - start);
+            }
+            if ((profile != null) && (stopped
+                    || (iteration.nextBound.get() == IdaStarSearch.NOT_FOUND))) {
+                profile.finish(nodes.sum(), -1);
+            }
+            if (stopped) {
+                throw new CancellationException("Search interrupted");
+            }
+            if (iteration.nextBound.get() == IdaStarSearch.NOT_FOUND) {
+                throw new IllegalStateException(
+                        "No solution within " + getMaxDepth() + " moves");
+            }
+            bound = iteration.nextBound.get();
+        }
+    }
+
+    /**
+     * Exécute une itération sur le pool de threads, en attendant qu'elle se termine.
+     * Si l'arrêt est demandé, ou si le thread appelant est interrompu pendant
+     * l'attente, l'arrêt de tous les threads est demandé (les threads du pool ne
+     * pouvant pas être interrompus).
+     *
+     * @param iteration L'itération à exécuter.
+     * @param stop L'indicateur demandant l'arrêt de la recherche, ou {@code null}.
+     *
+     * @return Si l'itération s'est terminée sans que son arrêt ait été demandé.
+     */
+    private boolean run(Iteration iteration, AtomicBoolean stop) {
+        ForkJoinTask<Void> task = pool.submit(
+                new SearchTask(iteration, 0, iteration.tasks.length));
+        boolean interrupted = Thread.currentThread().isInterrupted();
+        boolean stopped = interrupted || ((stop != null) && stop.get());
+        if (stopped) {
+            iteration.stop.set(true);
+        }
+
+        while (true) {
+            try {
+                if ((stop == null) || stopped) {
+                    task.get();
+                } else {
+                    task.get(STOP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                break;
+
+            } catch (TimeoutException e) {
+                if (stop.get()) {
+                    stopped = true;
+                    iteration.stop.set(true);
+                }
+
+            } catch (InterruptedException e) {
+                // Les threads s'arrêtent dès qu'ils constatent la demande : on attend
+                // qu'ils l'aient tous fait, pour ne rien laisser tourner dans le pool.
+                interrupted = true;
+                stopped = true;
+                iteration.stop.set(true);
+
+            } catch (ExecutionException e) {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return !stopped;
+    }
+
+    /**
+     * Libère les threads de ce solveur, qui ne peut plus être utilisé ensuite.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Développe les premiers niveaux de l'arbre de recherche, jusqu'à obtenir assez de
+     * sous-problèmes pour occuper tous les threads.
+     *
+     * @param board La grille à résoudre.
+     *
+     * @return Les déplacements menant à chaque nœud de la frontière, ou {@code null} si
+     *         une solution a été rencontrée avant d'atteindre la frontière.
+     */
+    private List<byte[]> expand(IBoard board) {
+        int target = TASKS_PER_THREAD * pool.getParallelism();
+        int maxDepth = Math.min(MAX_FRONTIER_DEPTH, getMaxDepth());
+        List<byte[]> frontier = List.of(new byte[0]);
+
+        for (int depth = 0; (depth < maxDepth) && (frontier.size() < target); depth++) {
+            List<byte[]> next = new ArrayList<>(3 * frontier.size());
+            for (byte[] prefix : frontier) {
+                IBoard node = board.copy();
+                for (byte move : prefix) {
+                    node.push(Move.of(move));
+                }
+                if (node.isOrdered()) {
+                    return null;
+                }
+
+                int previous = (prefix.length == 0) ? IdaStarSearch.NO_MOVE
+                        : prefix[prefix.length - 1];
+                for (int move = 0; move < 4; move++) {
+                    if (((move ^ 2) != previous)
+                            && (node.topology().neighbor(node.emptyIndex(), move) >= 0)) {
+                        byte[] child = Arrays.copyOf(prefix, prefix.length + 1);
+                        child[prefix.length] = (byte) move;
+                        next.add(child);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return frontier;
+    }
+
+    /**
+     * La classe Iteration regroupe l'état partagé par les threads pendant une itération.
+     */
+    private static final class Iteration {
+
+        /**
+         * La grille à résoudre.
+         */
+        private final IBoard board;
+
+        /**
+         * Les déplacements menant à chaque nœud de la frontière.
+         */
+        private final byte[][] tasks;
+
+        /**
+         * La borne de l'itération.
+         */
+        private final int bound;
+
+        /**
+         * Le compteur de nœuds développés, partagé entre les itérations.
+         */
+        private final LongAdder nodes;
+
+        /**
+         * L'indicateur demandant l'arrêt de tous les threads.
+         */
+        private final AtomicBoolean stop = new AtomicBoolean();
+
+        /**
+         * La solution trouvée, le cas échéant.
+         */
+        private final AtomicReference<Move[]> solution = new AtomicReference<>();
+
+        /**
+         * Le plus petit coût ayant dépassé la borne.
+         */
+        private final AtomicInteger nextBound = new AtomicInteger(IdaStarSearch.NOT_FOUND);
+
+        /**
+         * Construit une nouvelle instance de Iteration.
+         *
+         * @param board La grille à résoudre.
+         * @param tasks Les déplacements menant à chaque nœud de la frontière.
+         * @param bound La borne de l'itération.
+         * @param nodes Le compteur de nœuds développés.
+         */
+        private Iteration(IBoard board, byte[][] tasks, int bound, LongAdder nodes) {
+            this.board = board;
+            this.tasks = tasks;
+            this.bound = bound;
+            this.nodes = nodes;
+        }
+
+    }
+
+    /**
+     * La classe SearchTask explore un intervalle de la frontière, en le découpant tant
+     * qu'il contient plusieurs sous-problèmes.
+     */
+    private final class SearchTask extends RecursiveAction {
+
+        /**
+         * L'identifiant de sérialisation de cette classe.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * L'itération en cours.
+         */
+        private final transient Iteration iteration;
+
+        /**
+         * L'indice du premier sous-problème de l'intervalle.
+         */
+        private final int from;
+
+        /**
+         * L'indice suivant le dernier sous-problème de l'intervalle.
+         */
+        private final int to;
+
+        /**
+         * Construit une nouvelle instance de SearchTask.
+         *
+         * @param iteration L'itération en cours.
+         * @param from L'indice du premier sous-problème.
+         * @param to L'indice suivant le dernier sous-problème.
+         */
+        private SearchTask(Iteration iteration, int from, int to) {
+            this.iteration = iteration;
+            this.from = from;
+            this.to = to;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.util.concurrent.RecursiveAction#compute()
+         */
+        @Override
+        protected void compute() {
+            if (iteration.stop.get()) {
+                return;
+            }
+
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SearchTask(iteration, from, middle),
+                        new SearchTask(iteration, middle, to));
+                return;
+            }
+
+            byte[] prefix = iteration.tasks[from];
+            IdaStarSearch search = new IdaStarSearch(iteration.board, getHeuristic(),
+                    getMaxDepth(), iteration.stop);
+            if (getTable() != null) {
+                search.useTable(getTable());
+            }
+            long state = search.replay(prefix);
+            int t = search.search(prefix.length, iteration.bound, state,
+                    prefix[prefix.length - 1]);
+            iteration.nodes.add(search.nodes());
+
+            if (t == IdaStarSearch.FOUND) {
+                if (iteration.solution.compareAndSet(null, search.solution())) {
+                    iteration.stop.set(true);
+                }
+            } else {
+                iteration.nextBound.accumulateAndGet(t, Math::min);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,526 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * La classe PatternDatabase représente une base de motifs additive et disjointe.
+ *
+ * Les tuiles de la grille sont réparties en groupes disjoints.
+ * Pour chaque groupe, la base donne, pour chaque placement possible de ses tuiles, le
+ * nombre minimal de déplacements <i>de ces tuiles</i> nécessaires pour les amener à
+ * leur place.
+ * Comme un déplacement ne déplace qu'une seule tuile, les valeurs des différents
+ * groupes peuvent être additionnées tout en restant admissibles.
+ *
+ * Les tables sont calculées par un parcours en largeur rétrograde depuis la
+ * configuration ordonnée, puis écrites dans un fichier binaire compact qui est ensuite
+ * projeté en mémoire : le calcul n'a lieu qu'une fois par machine.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class PatternDatabase {
+
+    /**
+     * Le nombre magique identifiant les fichiers de bases de motifs ("TQPD").
+     */
+    private static final int MAGIC = 0x54515044;
+
+    /**
+     * La version du format des fichiers de bases de motifs.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Le nombre maximal de tuiles par groupe, pour que leurs positions tiennent dans un
+     * {@code long} (5 bits par tuile).
+     */
+    public static final int MAX_GROUP_SIZE = 12;
+
+    /**
+     * Le nombre de bits utilisés pour coder la position d'une tuile.
+     */
+    static final int POSITION_BITS = 5;
+
+    /**
+     * La valeur des états non encore atteints lors de la génération.
+     */
+    private static final byte UNSEEN = -1;
+
+    /**
+     * La taille des grilles décrites par cette base.
+     */
+    private final int size;
+
+    /**
+     * Les tuiles de chaque groupe.
+     */
+    private final int[][] groups;
+
+    /**
+     * Les tables de chaque groupe, indexées par le rang du placement de ses tuiles.
+     */
+    private final ByteBuffer[] tables;
+
+    /**
+     * Construit une nouvelle instance de PatternDatabase.
+     *
+     * @param size La taille des grilles décrites par cette base.
+     * @param groups Les tuiles de chaque groupe.
+     * @param tables Les tables de chaque groupe.
+     */
+    private PatternDatabase(int size, int[][] groups, ByteBuffer[] tables) {
+        this.size = size;
+        this.groups = groups;
+        this.tables = tables;
+    }
+
+    /**
+     * Charge une base de motifs depuis un fichier, ou la calcule et l'enregistre dans ce
+     * fichier s'il n'existe pas (ou s'il décrit une autre base).
+     *
+     * @param path Le chemin du fichier.
+     * @param size La taille des grilles.
+     * @param groups Les tuiles de chaque groupe.
+     *
+     * @return La base de motifs, projetée en mémoire.
+     *
+     * @throws IOException Si une erreur se produit lors de la lecture ou de l'écriture
+     *         du fichier.
+     */
+    public static PatternDatabase loadOrGenerate(Path path, int size, int[][] groups)
+            throws IOException {
+        if (Files.isRegularFile(path)) {
+            PatternDatabase database = map(path);
+            if ((database.size == size) && Arrays.deepEquals(database.groups, groups)) {
+                return database;
+            }
+        }
+
+        generate(size, groups).write(path);
+        return map(path);
+    }
+
+    /**
+     * Calcule une base de motifs.
+     *
+     * @param size La taille des grilles.
+     * @param groups Les tuiles de chaque groupe, qui doivent être disjoints.
+     *
+     * @return La base de motifs calculée.
+     *
+     * @throws IllegalArgumentException Si les groupes ne sont pas valides, ou si
+     *         l'un d'eux est trop grand pour être calculé.
+     */
+    public static PatternDatabase generate(int size, int[][] groups) {
+        Topology topology = Topology.of(size);
+        checkGroups(topology, groups);
+
+        ByteBuffer[] tables = new ByteBuffer[groups.length];
+        for (int g = 0; g < groups.length; g++) {
+            tables[g] = ByteBuffer.wrap(generate(topology, groups[g]));
+        }
+        return new PatternDatabase(size, deepCopy(groups), tables);
+    }
+
+    /**
+     * Projette en mémoire une base de motifs enregistrée dans un fichier.
+     *
+     * @param path Le chemin du fichier.
+     *
+     * @return La base de motifs lue.
+     *
+     * @throws IOException Si le fichier ne peut pas être lu, ou s'il n'a pas le bon
+     *         format.
+     */
+    public static PatternDatabase map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+                throw new IOException("Not a pattern database: " + path);
+            }
+
+            int size = buffer.getInt();
+            int[][] groups = new int[buffer.getInt()][];
+            ByteBuffer[] tables = new ByteBuffer[groups.length];
+            for (int g = 0; g < groups.length; g++) {
+                groups[g] = new int[buffer.getInt()];
+                for (int i = 0; i < groups[g].length; i++) {
+                    groups[g][i] = buffer.getInt();
+                }
+                int length = buffer.getInt();
+                tables[g] = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+            }
+            return new PatternDatabase(size, groups, tables);
+        }
+    }
+
+    /**
+     * Enregistre cette base de motifs dans un fichier.
+     * Le fichier est d'abord écrit à côté de sa destination, puis renommé, afin qu'un
+     * fichier incomplet ne soit jamais lu.
+     *
+     * @param path Le chemin du fichier.
+     *
+     * @throws IOException Si une erreur se produit lors de l'écriture.
+     */
+    public void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "pdb", ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(size);
+            output.writeInt(groups.length);
+            for (int g = 0; g < groups.length; g++) {
+                output.writeInt(groups[g].length);
+                for (int tile : groups[g]) {
+                    output.writeInt(tile);
+                }
+                ByteBuffer table = tables[g].duplicate();
+                output.writeInt(table.remaining());
+                while (table.hasRemaining()) {
+                    output.writeByte(table.get());
+                }
+            }
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Donne la taille des grilles décrites par cette base.
+     *
+     * @return La taille des grilles.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Donne le nombre de groupes de cette base.
+     *
+     * @return Le nombre de groupes.
+     */
+    public int groupCount() {
+        return groups.length;
+    }
+
+    /**
+     * Donne les tuiles d'un groupe de cette base.
+     *
+     * @param group L'indice du groupe.
+     *
+     * @return Les tuiles du groupe.
+     */
+    public int[] group(int group) {
+        return groups[group].clone();
+    }
+
+    /**
+     * Donne le nombre minimal de déplacements des tuiles d'un groupe.
+     *
+     * @param group L'indice du groupe.
+     * @param positions Les positions des tuiles du groupe, codées sur
+     *        {@value #POSITION_BITS} bits chacune dans l'ordre du groupe.
+     *
+     * @return Le nombre minimal de déplacements des tuiles du groupe.
+     */
+    public int lookup(int group, long positions) {
+        int rank = (int) rank(positions, groups[group].length, size * size);
+        return tables[group].get(rank) & 0xFF;
+    }
+
+    /**
+     * Calcule le rang d'un placement de tuiles parmi tous les placements possibles de
+     * ces tuiles sur la grille.
+     *
+     * @param positions Les positions des tuiles, codées sur {@value #POSITION_BITS} bits
+     *        chacune.
+     * @param k Le nombre de tuiles placées.
+     * @param n Le nombre de cases de la grille.
+     *
+     * @return Le rang du placement.
+     */
+    static long rank(long positions, int k, int n) {
+        long used = 0;
+        long rank = 0;
+        for (int i = 0; i < k; i++) {
+            int position = (int) ((positions >>> (i * POSITION_BITS)) & 0x1F);
+            int digit = position - Long.bitCount(used & ((1L << position) - 1));
+            rank = rank * (n - i) + digit;
+            used |= 1L << position;
+        }
+        return rank;
+    }
+
+    /**
+     * Calcule le nombre de placements possibles de {@code k} tuiles sur {@code n}
+     * cases.
+     *
+     * @param n Le nombre de cases.
+     * @param k Le nombre de tuiles.
+     *
+     * @return Le nombre de placements.
+     */
+    private static long arrangements(int n, int k) {
+        long count = 1;
+        for (int i = 0; i < k; i++) {
+            count *= n - i;
+        }
+        return count;
+    }
+
+    /**
+     * Vérifie que des groupes de tuiles sont disjoints et valides.
+     *
+     * @param topology La topologie de la grille.
+     * @param groups Les tuiles de chaque groupe.
+     *
+     * @throws IllegalArgumentException Si les groupes ne sont pas valides.
+     */
+    private static void checkGroups(Topology topology, int[][] groups) {
+        if (topology.cells() > (1 << POSITION_BITS)) {
+            throw new IllegalArgumentException("Grid too large: " + topology.size());
+        }
+
+        boolean[] seen = new boolean[topology.cells()];
+        for (int[] group : groups) {
+            if ((group.length == 0) || (group.length > MAX_GROUP_SIZE)) {
+                throw new IllegalArgumentException("Invalid group size: " + group.length);
+            }
+            for (int tile : group) {
+                if ((tile <= 0) || (tile >= topology.cells()) || seen[tile]) {
+                    throw new IllegalArgumentException("Groups must be disjoint: " + tile);
+                }
+                seen[tile] = true;
+            }
+        }
+    }
+
+    /**
+     * Calcule la table d'un groupe de tuiles.
+     *
+     * Les états parcourus sont les placements des tuiles du groupe, complétés par la
+     * région de la case vide (les cases atteignables par la case vide sans déplacer de
+     * tuile du groupe).
+     * Comme seuls les déplacements des tuiles du groupe sont comptés, cette région est
+     * représentée par sa plus petite case.
+     * Les états sont parcourus niveau par niveau, en balayant la table des distances.
+     *
+     * @param topology La topologie de la grille.
+     * @param tiles Les tuiles du groupe.
+     *
+     * @return La table du groupe, indexée par le rang du placement de ses tuiles.
+     */
+    private static byte[] generate(Topology topology, int[] tiles) {
+        int n = topology.cells();
+        int k = tiles.length;
+        long count = arrangements(n, k);
+        if (count * n > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Group too large: " + k + " tiles");
+        }
+
+        byte[] distances = new byte[(int) count * n];
+        Arrays.fill(distances, UNSEEN);
+        int[] positions = new int[k];
+        int[] stack = new int[n];
+
+        // On part de la configuration ordonnée.
+        long occupied = 0;
+        for (int i = 0; i < k; i++) {
+            positions[i] = topology.goalIndex(tiles[i]);
+            occupied |= 1L << positions[i];
+        }
+        long region = region(topology, occupied, topology.goalIndex(0), stack);
+        distances[index(positions, n, region)] = 0;
+
+        for (int depth = 0; depth < 0xFF; depth++) {
+            boolean progress = false;
+            for (int state = 0; state < distances.length; state++) {
+                if (distances[state] != (byte) depth) {
+                    continue;
+                }
+
+                // On reconstruit l'état à partir de son indice.
+                unrank(state / n, n, positions);
+                occupied = 0;
+                for (int position : positions) {
+                    occupied |= 1L << position;
+                }
+                region = region(topology, occupied, state % n, stack);
+
+                // On pousse chaque tuile du groupe voisine de la région de la case vide.
+                for (long cells = region; cells != 0; cells &= cells - 1) {
+                    int empty = Long.numberOfTrailingZeros(cells);
+                    for (int move = 0; move < 4; move++) {
+                        int tile = topology.neighbor(empty, move);
+                        if ((tile < 0) || ((occupied & (1L << tile)) == 0)) {
+                            continue;
+                        }
+
+                        int slot = slotOf(positions, tile);
+                        positions[slot] = empty;
+                        long next = occupied ^ (1L << tile) ^ (1L << empty);
+                        int successor = index(positions, n, region(topology, next, tile, stack));
+                        positions[slot] = tile;
+
+                        if (distances[successor] == UNSEEN) {
+                            distances[successor] = (byte) (depth + 1);
+                            progress = true;
+                        }
+                    }
+                }
+            }
+
+            if (!progress) {
+                break;
+            }
+        }
+
+        // On ne conserve que la plus petite distance pour chaque placement.
+        byte[] table = new byte[(int) count];
+        for (int rank = 0; rank < count; rank++) {
+            int min = 0xFF;
+            for (int blank = 0; blank < n; blank++) {
+                int distance = distances[rank * n + blank] & 0xFF;
+                min = Math.min(min, distance);
+            }
+            table[rank] = (byte) min;
+        }
+        return table;
+    }
+
+    /**
+     * Calcule la région de la case vide, c'est-à-dire l'ensemble des cases qu'elle peut
+     * atteindre sans déplacer de tuile du groupe.
+     *
+     * @param topology La topologie de la grille.
+     * @param occupied L'ensemble des cases occupées par les tuiles du groupe.
+     * @param empty La case vide.
+     * @param stack Un tableau de travail, ayant une case par case de la grille.
+     *
+     * @return L'ensemble des cases de la région.
+     */
+    private static long region(Topology topology, long occupied, int empty, int[] stack) {
+        long region = 1L << empty;
+        int top = 0;
+        stack[top++] = empty;
+        while (top > 0) {
+            int cell = stack[--top];
+            for (int move = 0; move < 4; move++) {
+                int next = topology.neighbor(cell, move);
+                if ((next >= 0) && (((occupied | region) & (1L << next)) == 0)) {
+                    region |= 1L << next;
+                    stack[top++] = next;
+                }
+            }
+        }
+        return region;
+    }
+
+    /**
+     * Calcule l'indice d'un état dans la table des distances.
+     *
+     * @param positions Les positions des tuiles du groupe.
+     * @param n Le nombre de cases de la grille.
+     * @param region La région de la case vide.
+     *
+     * @return L'indice de l'état.
+     */
+    private static int index(int[] positions, int n, long region) {
+        long packed = 0;
+        for (int i = 0; i < positions.length; i++) {
+            packed |= ((long) positions[i]) << (i * POSITION_BITS);
+        }
+        return (int) rank(packed, positions.length, n) * n
+                + Long.numberOfTrailingZeros(region);
+    }
+
+    /**
+     * Calcule le placement de tuiles ayant un rang donné.
+     *
+     * @param rank Le rang du placement.
+     * @param n Le nombre de cases de la grille.
+     * @param positions Le tableau dans lequel écrire les positions des tuiles.
+     */
+    private static void unrank(long rank, int n, int[] positions) {
+        int k = positions.length;
+
+        // On extrait les chiffres du rang, en base mixte.
+        for (int i = k - 1; i >= 0; i--) {
+            positions[i] = (int) (rank % (n - i));
+            rank /= n - i;
+        }
+
+        // Chaque chiffre est l'indice d'une case parmi celles encore libres.
+        long used = 0;
+        for (int i = 0; i < k; i++) {
+            int position = 0;
+            for (int free = positions[i]; ((used & (1L << position)) != 0) || (free > 0);
+                    position++) {
+                if ((used & (1L << position)) == 0) {
+                    free--;
+                }
+            }
+            positions[i] = position;
+            used |= 1L << position;
+        }
+    }
+
+    /**
+     * Donne l'indice de la tuile du groupe se trouvant sur une case.
+     *
+     * @param positions Les positions des tuiles du groupe.
+     * @param cell La case recherchée.
+     *
+     * @return L'indice de la tuile dans le groupe.
+     */
+    private static int slotOf(int[] positions, int cell) {
+        int slot = 0;
+        while (positions[slot] != cell) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Copie un tableau de groupes.
+     *
+     * @param groups Les groupes à copier.
+     *
+     * @return La copie des groupes.
+     */
+    private static int[][] deepCopy(int[][] groups) {
+        int[][] copy = new int[groups.length][];
+        for (int g = 0; g < groups.length; g++) {
+            copy[g] = groups[g].clone();
+        }
+        return copy;
+    }
+
+}
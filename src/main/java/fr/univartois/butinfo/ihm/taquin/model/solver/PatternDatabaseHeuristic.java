@@ -0,0 +1,207 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * La classe PatternDatabaseHeuristic estime le nombre de déplacements restants en
+ * additionnant les valeurs d'une base de motifs additive.
+ *
+ * L'état de l'heuristique conserve la valeur de chaque groupe (sur 8 bits), ainsi que
+ * leur somme : après un déplacement, seul le groupe de la tuile déplacée est réévalué.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class PatternDatabaseHeuristic implements IHeuristic {
+
+    /**
+     * La taille des grilles couvertes par la base standard (voir {@link #standard()}).
+     */
+    public static final int STANDARD_SIZE = 4;
+
+    /**
+     * Le découpage 6-6-3 des tuiles d'une grille 4x4.
+     */
+    private static final int[][] GROUPS_663 = {
+            { 1, 5, 6, 9, 10, 13 }, { 7, 8, 11, 12, 14, 15 }, { 2, 3, 4 } };
+
+    /**
+     * Le nombre maximal de groupes, pour que leurs valeurs et leur somme tiennent dans
+     * l'état de l'heuristique.
+     */
+    private static final int MAX_GROUPS = 6;
+
+    /**
+     * Le décalage de la somme des valeurs des groupes dans l'état de l'heuristique.
+     */
+    private static final int SUM_SHIFT = 8 * MAX_GROUPS;
+
+    /**
+     * L'heuristique utilisant la base 6-6-3, chargée à la première demande.
+     */
+    private static PatternDatabaseHeuristic standard;
+
+    /**
+     * La base de motifs utilisée.
+     */
+    private final PatternDatabase database;
+
+    /**
+     * Le groupe de chaque tuile, ou {@code -1} si elle n'appartient à aucun groupe.
+     */
+    private final int[] groupOf;
+
+    /**
+     * L'indice de chaque tuile dans son groupe.
+     */
+    private final int[] slotOf;
+
+    /**
+     * Construit une nouvelle instance de PatternDatabaseHeuristic.
+     *
+     * @param database La base de motifs à utiliser.
+     *
+     * @throws IllegalArgumentException Si la base contient trop de groupes.
+     */
+    public PatternDatabaseHeuristic(PatternDatabase database) {
+        if (database.groupCount() > MAX_GROUPS) {
+            throw new IllegalArgumentException("Too many groups: " + database.groupCount());
+        }
+
+        int cells = database.size() * database.size();
+        this.database = database;
+        this.groupOf = new int[cells];
+        this.slotOf = new int[cells];
+        Arrays.fill(groupOf, -1);
+        for (int g = 0; g < database.groupCount(); g++) {
+            int[] tiles = database.group(g);
+            for (int i = 0; i < tiles.length; i++) {
+                groupOf[tiles[i]] = g;
+                slotOf[tiles[i]] = i;
+            }
+        }
+    }
+
+    /**
+     * Donne l'heuristique utilisant la base 6-6-3 des grilles 4x4.
+     * Cette base est calculée lors du premier appel sur la machine, puis projetée en
+     * mémoire depuis le répertoire des tables.
+     *
+     * @return L'heuristique utilisant la base 6-6-3.
+     *
+     * @throws UncheckedIOException Si la base ne peut être ni lue ni enregistrée.
+     */
+    public static synchronized PatternDatabaseHeuristic standard() {
+        if (standard == null) {
+            try {
+                standard = new PatternDatabaseHeuristic(PatternDatabase.loadOrGenerate(
+                        CacheFiles.resolve("pdb-4x4-663.bin"), STANDARD_SIZE, GROUPS_663));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return standard;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#supports(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology)
+     */
+    @Override
+    public boolean supports(Topology topology) {
+        return topology.isStandard(database.size());
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#initialize(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology, int[])
+     */
+    @Override
+    public long initialize(Topology topology, int[] cells) {
+        long state = 0;
+        for (int g = 0; g < database.groupCount(); g++) {
+            state = replace(state, g, database.lookup(g, positions(cells, g)));
+        }
+        return state;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#update(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology, long, int[], int, int)
+     */
+    @Override
+    public long update(Topology topology, long state, int[] cells, int from, int to) {
+        int group = groupOf[cells[to]];
+        if (group < 0) {
+            return state;
+        }
+        return replace(state, group, database.lookup(group, positions(cells, group)));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#value(long)
+     */
+    @Override
+    public int value(long state) {
+        return (int) (state >>> SUM_SHIFT);
+    }
+
+    /**
+     * Calcule les positions des tuiles d'un groupe.
+     *
+     * @param cells Les valeurs des tuiles, indexées par case.
+     * @param group L'indice du groupe.
+     *
+     * @return Les positions des tuiles du groupe, codées dans l'ordre du groupe.
+     */
+    private long positions(int[] cells, int group) {
+        long positions = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (groupOf[cells[i]] == group) {
+                positions |= ((long) i) << (slotOf[cells[i]] * PatternDatabase.POSITION_BITS);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Remplace la valeur d'un groupe dans l'état de l'heuristique, en mettant à jour la
+     * somme des valeurs.
+     *
+     * @param state L'état de l'heuristique.
+     * @param group L'indice du groupe.
+     * @param value La nouvelle valeur du groupe.
+     *
+     * @return Le nouvel état de l'heuristique.
+     */
+    private static long replace(long state, int group, int value) {
+        int shift = group << 3;
+        long old = (state >>> shift) & 0xFF;
+        long updated = (state & ~(0xFFL << shift)) | (((long) value) << shift);
+        return updated + ((value - old) << SUM_SHIFT);
+    }
+
+}
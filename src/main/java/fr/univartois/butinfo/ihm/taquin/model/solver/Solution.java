@@ -0,0 +1,134 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.util.Arrays;
+import java.util.List;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+
+/**
+ * La classe Solution représente le résultat d'un solveur : la suite de déplacements
+ * ordonnant une grille, accompagnée de statistiques sur la recherche.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class Solution {
+
+    /**
+     * Les déplacements à réaliser, dans l'ordre.
+     */
+    private final Move[] moves;
+
+    /**
+     * Le nombre de nœuds développés par la recherche.
+     */
+    private final long nodes;
+
+    /**
+     * La durée de la recherche (en nanosecondes).
+     */
+    private final long nanos;
+
+    /**
+     * Construit une nouvelle instance de Solution.
+     *
+     * @param moves Les déplacements à réaliser, dans l'ordre.
+     * @param nodes Le nombre de nœuds développés par la recherche.
+     * @param nanos La durée de la recherche (en nanosecondes).
+     */
+    public Solution(Move[] moves, long nodes, long nanos) {
+        this.moves = moves.clone();
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Donne les déplacements à réaliser pour ordonner la grille.
+     *
+     * @return La liste (non modifiable) des déplacements.
+     */
+    public List<Move> getMoves() {
+        return List.of(moves);
+    }
+
+    /**
+     * Donne le déplacement à réaliser à une étape donnée de la solution.
+     *
+     * @param step L'indice de l'étape.
+     *
+     * @return Le déplacement à réaliser.
+     */
+    public Move get(int step) {
+        return moves[step];
+    }
+
+    /**
+     * Donne le nombre de déplacements de cette solution.
+     *
+     * @return La longueur de la solution.
+     */
+    public int length() {
+        return moves.length;
+    }
+
+    /**
+     * Donne le nombre de nœuds développés par la recherche.
+     *
+     * @return Le nombre de nœuds développés.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Donne la durée de la recherche.
+     *
+     * @return La durée de la recherche (en nanosecondes).
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(moves.length);
+        for (Move move : moves) {
+            builder.append(move.symbol());
+        }
+        return builder.toString();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return (obj instanceof Solution) && Arrays.equals(moves, ((Solution) obj).moves);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(moves);
+    }
+
+}
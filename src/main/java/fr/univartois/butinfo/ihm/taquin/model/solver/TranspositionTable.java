@@ -0,0 +1,283 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * La classe TranspositionTable mémorise, pour les nœuds déjà explorés par IDA*, une
+ * borne inférieure du nombre de déplacements restant à réaliser, ce qui permet de ne
+ * pas explorer à nouveau les sous-arbres dont on sait qu'ils dépassent la borne.
+ *
+ * La table a une taille fixe, choisie à la construction.
+ * Chaque entrée tient dans un {@code long} : une partie du hachage du nœud (pour
+ * vérifier qu'il s'agit bien du même nœud), la borne inférieure, le budget avec lequel
+ * le nœud a été exploré, le meilleur déplacement trouvé et l'âge de l'entrée.
+ * Les entrées sont regroupées par deux : une nouvelle entrée remplace en priorité une
+ * entrée d'une itération précédente, puis celle dont le budget est le plus petit (dont
+ * l'exploration a coûté le moins cher).
+ *
+ * Comme la recherche ne revient jamais sur le déplacement précédent, le résultat de
+ * l'exploration d'un nœud dépend de ce déplacement : il fait donc partie de la clé des
+ * entrées, de sorte que les solutions trouvées restent optimales.
+ *
+ * La table n'utilise aucun verrou : les entrées sont lues et écrites de façon atomique,
+ * et la table peut être partagée par plusieurs threads (une écriture concurrente peut
+ * seulement faire perdre une entrée).
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class TranspositionTable {
+
+    /**
+     * La taille par défaut de la table (en mégaoctets).
+     */
+    public static final int DEFAULT_MEGABYTES = 64;
+
+    /**
+     * La valeur renvoyée par {@link #probe(long)} lorsque le nœud n'est pas dans la
+     * table.
+     */
+    static final long MISS = 0;
+
+    /**
+     * Le nombre de bits utilisés pour la borne inférieure et pour le budget.
+     */
+    private static final int VALUE_BITS = 8;
+
+    /**
+     * Le masque de la borne inférieure et du budget.
+     */
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+
+    /**
+     * La position du budget dans une entrée.
+     */
+    private static final int BUDGET_SHIFT = VALUE_BITS;
+
+    /**
+     * La position du meilleur déplacement dans une entrée.
+     */
+    private static final int MOVE_SHIFT = 2 * VALUE_BITS;
+
+    /**
+     * La position de l'âge dans une entrée.
+     */
+    private static final int AGE_SHIFT = MOVE_SHIFT + 3;
+
+    /**
+     * La position de la vérification du hachage dans une entrée.
+     */
+    private static final int CHECK_SHIFT = AGE_SHIFT + VALUE_BITS;
+
+    /**
+     * Le nombre maximal d'entrées de la table, pour que l'indice et la vérification
+     * n'utilisent pas les mêmes bits du hachage.
+     */
+    private static final int MAX_ENTRIES = 1 << CHECK_SHIFT;
+
+    /**
+     * L'accès atomique aux entrées de la table.
+     */
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Les entrées de la table.
+     */
+    private final long[] entries;
+
+    /**
+     * Le masque donnant l'indice du premier emplacement d'une entrée.
+     */
+    private final int mask;
+
+    /**
+     * L'itération en cours, dont l'âge est donné aux nouvelles entrées.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Construit une nouvelle instance de TranspositionTable.
+     *
+     * @param megabytes La taille maximale de la table (en mégaoctets).
+     *
+     * @throws IllegalArgumentException Si la taille n'est pas strictement positive.
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes <= 0) {
+            throw new IllegalArgumentException("Table size must be positive: " + megabytes);
+        }
+        long capacity = Math.min(MAX_ENTRIES, ((long) megabytes << 20) / Long.BYTES);
+        this.entries = new long[Integer.highestOneBit((int) capacity)];
+        this.mask = (entries.length - 1) & ~1;
+    }
+
+    /**
+     * Donne le nombre d'entrées de la table.
+     *
+     * @return Le nombre d'entrées.
+     */
+    public int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Vide la table.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length; i++) {
+            ENTRIES.setOpaque(entries, i, 0L);
+        }
+    }
+
+    /**
+     * Indique qu'une nouvelle itération commence : les entrées des itérations
+     * précédentes restent valides, mais seront remplacées en priorité.
+     */
+    public void nextGeneration() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Cherche un nœud dans la table.
+     *
+     * @param key La clé du nœud (voir {@link #key(long, int)}).
+     *
+     * @return L'entrée du nœud, ou {@link #MISS} s'il n'est pas dans la table.
+     */
+    long probe(long key) {
+        int slot = (int) key & mask;
+        long check = key >>> CHECK_SHIFT;
+        long entry = (long) ENTRIES.getOpaque(entries, slot);
+        if ((entry >>> CHECK_SHIFT) == check) {
+            return entry;
+        }
+        entry = (long) ENTRIES.getOpaque(entries, slot + 1);
+        if ((entry >>> CHECK_SHIFT) == check) {
+            return entry;
+        }
+        return MISS;
+    }
+
+    /**
+     * Mémorise le résultat de l'exploration d'un nœud.
+     *
+     * @param key La clé du nœud (voir {@link #key(long, int)}).
+     * @param lowerBound La borne inférieure du nombre de déplacements restants.
+     * @param budget Le nombre de déplacements que l'exploration s'autorisait.
+     * @param move L'ordinal du déplacement menant au plus petit coût, ou {@code -1}.
+     */
+    void store(long key, int lowerBound, int budget, int move) {
+        long check = key >>> CHECK_SHIFT;
+        long age = generation.get() & VALUE_MASK;
+        long entry = (check << CHECK_SHIFT) | (age << AGE_SHIFT)
+                | ((long) (move + 1) << MOVE_SHIFT)
+                | (Math.min(budget, VALUE_MASK) << BUDGET_SHIFT)
+                | Math.min(lowerBound, VALUE_MASK);
+
+        int slot = (int) key & mask;
+        long first = (long) ENTRIES.getOpaque(entries, slot);
+        long second = (long) ENTRIES.getOpaque(entries, slot + 1);
+        if ((second >>> CHECK_SHIFT) == check) {
+            slot++;
+        } else if (((first >>> CHECK_SHIFT) != check) && (priority(second) < priority(first))) {
+            slot++;
+        }
+
+        long current = (long) ENTRIES.getOpaque(entries, slot);
+        if (((current >>> CHECK_SHIFT) == check) && (lowerBound(current) > lowerBound)) {
+            // L'entrée existante donne une meilleure borne.
+            return;
+        }
+        ENTRIES.setOpaque(entries, slot, entry);
+    }
+
+    /**
+     * Calcule la priorité de conservation d'une entrée : les entrées vides ou anciennes
+     * sont remplacées en premier, puis celles dont le budget est le plus petit.
+     *
+     * @param entry L'entrée à considérer.
+     *
+     * @return La priorité de l'entrée.
+     */
+    private int priority(long entry) {
+        if (entry == MISS) {
+            return -1;
+        }
+        int budget = (int) ((entry >>> BUDGET_SHIFT) & VALUE_MASK);
+        long age = (entry >>> AGE_SHIFT) & VALUE_MASK;
+        boolean current = age == (generation.get() & VALUE_MASK);
+        return current ? (budget + (1 << VALUE_BITS)) : budget;
+    }
+
+    /**
+     * Donne la borne inférieure du nombre de déplacements restants mémorisée dans une
+     * entrée.
+     *
+     * @param entry L'entrée à considérer.
+     *
+     * @return La borne inférieure.
+     */
+    static int lowerBound(long entry) {
+        return (int) (entry & VALUE_MASK);
+    }
+
+    /**
+     * Donne le meilleur déplacement mémorisé dans une entrée.
+     *
+     * @param entry L'entrée à considérer.
+     *
+     * @return L'ordinal du déplacement, ou {@code -1} si aucun n'est mémorisé.
+     */
+    static int bestMove(long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & 0x7) - 1;
+    }
+
+    /**
+     * Calcule la contribution d'une tuile placée sur une case au hachage d'une grille
+     * (hachage de Zobrist, calculé à la volée).
+     *
+     * @param tile La valeur de la tuile.
+     * @param cell L'indice de la case.
+     *
+     * @return La contribution de la tuile au hachage.
+     */
+    static long cellKey(int tile, int cell) {
+        return mix(((long) tile << 32) | cell);
+    }
+
+    /**
+     * Calcule la clé d'un nœud de la recherche.
+     *
+     * @param hash Le hachage de la grille.
+     * @param previous L'ordinal du déplacement ayant mené au nœud.
+     *
+     * @return La clé du nœud.
+     */
+    static long key(long hash, int previous) {
+        return hash ^ mix(~previous);
+    }
+
+    /**
+     * Mélange les bits d'un entier (fonction de finalisation de SplitMix64).
+     *
+     * @param z L'entier à mélanger.
+     *
+     * @return L'entier obtenu.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,404 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * La classe WalkingDistance représente la table des distances de marche (<i>walking
+ * distance</i>) des grilles d'une taille donnée.
+ *
+ * Une configuration est résumée, pour les lignes, par le nombre de tuiles de chaque
+ * ligne finale présentes sur chaque ligne, et par la ligne de la case vide.
+ * La distance de marche est le nombre minimal de déplacements verticaux permettant de
+ * ramener ce résumé à celui de la configuration ordonnée, chaque déplacement échangeant
+ * la case vide avec une tuile d'une ligne voisine, quelle que soit sa colonne.
+ * Par symétrie, la même table donne la distance pour les colonnes, et comme un
+ * déplacement est soit vertical, soit horizontal, les deux valeurs peuvent être
+ * additionnées tout en restant admissibles.
+ *
+ * Chaque résumé est codé dans un {@code long} : la ligne de la case vide sur 3 bits,
+ * puis le nombre de tuiles de chaque ligne finale (sauf la dernière, qui se déduit des
+ * autres) sur 3 bits par ligne.
+ * La table contient les codes de tous les résumés atteignables, triés, ainsi que leurs
+ * distances : un résumé est ainsi identifié par son rang dans la table.
+ * Elle est calculée par un parcours en largeur depuis la configuration ordonnée, puis
+ * écrite dans un fichier binaire projeté en mémoire : le calcul n'a lieu qu'une fois par
+ * machine.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class WalkingDistance {
+
+    /**
+     * Le nombre magique identifiant les fichiers de distances de marche ("TQWD").
+     */
+    private static final int MAGIC = 0x54515744;
+
+    /**
+     * La version du format des fichiers de distances de marche.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * La taille maximale des grilles supportées.
+     * Les grilles 5x5 ont 65 650 495 résumés par dimension : leur table occuperait plus
+     * d'un demi-gigaoctet, et leurs rangs ne tiendraient plus, avec ceux des colonnes et
+     * l'état d'une autre heuristique, dans un même {@code long}.
+     */
+    public static final int MAX_SIZE = 4;
+
+    /**
+     * Le nombre de bits utilisés pour coder un compteur ou la ligne de la case vide.
+     */
+    private static final int COUNT_BITS = 3;
+
+    /**
+     * Le masque permettant d'extraire un compteur.
+     */
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /**
+     * La taille des grilles décrites par cette table.
+     */
+    private final int size;
+
+    /**
+     * Les codes des résumés atteignables, triés.
+     */
+    private final LongBuffer patterns;
+
+    /**
+     * Les distances des résumés, dans l'ordre de leurs codes.
+     */
+    private final ByteBuffer distances;
+
+    /**
+     * Construit une nouvelle instance de WalkingDistance.
+     *
+     * @param size La taille des grilles décrites par cette table.
+     * @param patterns Les codes des résumés atteignables, triés.
+     * @param distances Les distances des résumés.
+     */
+    private WalkingDistance(int size, LongBuffer patterns, ByteBuffer distances) {
+        this.size = size;
+        this.patterns = patterns;
+        this.distances = distances;
+    }
+
+    /**
+     * Charge une table depuis un fichier, ou la calcule et l'enregistre dans ce fichier
+     * s'il n'existe pas (ou s'il décrit une autre taille de grille).
+     *
+     * @param path Le chemin du fichier.
+     * @param size La taille des grilles.
+     *
+     * @return La table, projetée en mémoire.
+     *
+     * @throws IOException Si une erreur se produit lors de la lecture ou de l'écriture
+     *         du fichier.
+     */
+    public static WalkingDistance loadOrGenerate(Path path, int size) throws IOException {
+        if (Files.isRegularFile(path)) {
+            WalkingDistance table = map(path);
+            if (table.size == size) {
+                return table;
+            }
+        }
+
+        generate(size).write(path);
+        return map(path);
+    }
+
+    /**
+     * Calcule la table des distances de marche.
+     *
+     * @param size La taille des grilles.
+     *
+     * @return La table calculée.
+     *
+     * @throws IllegalArgumentException Si la taille n'est pas supportée.
+     */
+    public static WalkingDistance generate(int size) {
+        if ((size < 2) || (size > MAX_SIZE)) {
+            throw new IllegalArgumentException("Unsupported size: " + size);
+        }
+
+        // Les résumés sont numérotés dans l'ordre du parcours.
+        LongIntHashMap seen = new LongIntHashMap();
+        long[] queue = new long[1 << 10];
+        byte[] depths = new byte[queue.length];
+        int[] counts = new int[size * size];
+        int tail = 0;
+
+        queue[tail++] = goal(size);
+        seen.putIfAbsent(queue[0], 0);
+        for (int head = 0; head < tail; head++) {
+            long code = queue[head];
+            decode(size, code, counts);
+            int blank = (int) (code & COUNT_MASK);
+
+            // La case vide est échangée avec une tuile d'une ligne voisine.
+            for (int line = blank - 1; line <= blank + 1; line += 2) {
+                if ((line < 0) || (line >= size)) {
+                    continue;
+                }
+                for (int group = 0; group < size; group++) {
+                    if (counts[line * size + group] == 0) {
+                        continue;
+                    }
+
+                    long next = move(size, code, line, blank, group);
+                    if (seen.putIfAbsent(next, tail)) {
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, tail << 1);
+                            depths = Arrays.copyOf(depths, tail << 1);
+                        }
+                        queue[tail] = next;
+                        depths[tail++] = (byte) (depths[head] + 1);
+                    }
+                }
+            }
+        }
+
+        // On trie les résumés par code, pour pouvoir les retrouver par dichotomie.
+        long[] sorted = Arrays.copyOf(queue, tail);
+        Arrays.sort(sorted);
+        byte[] table = new byte[tail];
+        for (int i = 0; i < tail; i++) {
+            table[Arrays.binarySearch(sorted, queue[i])] = depths[i];
+        }
+        return new WalkingDistance(size, LongBuffer.wrap(sorted), ByteBuffer.wrap(table));
+    }
+
+    /**
+     * Projette en mémoire une table enregistrée dans un fichier.
+     *
+     * @param path Le chemin du fichier.
+     *
+     * @return La table lue.
+     *
+     * @throws IOException Si le fichier ne peut pas être lu, ou s'il n'a pas le bon
+     *         format.
+     */
+    public static WalkingDistance map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+                throw new IOException("Not a walking distance table: " + path);
+            }
+
+            int size = buffer.getInt();
+            int count = buffer.getInt();
+            LongBuffer patterns = buffer.slice(buffer.position(), count * Long.BYTES)
+                    .asLongBuffer();
+            buffer.position(buffer.position() + count * Long.BYTES);
+            ByteBuffer distances = buffer.slice(buffer.position(), count);
+            return new WalkingDistance(size, patterns, distances);
+        }
+    }
+
+    /**
+     * Enregistre cette table dans un fichier.
+     * Le fichier est d'abord écrit à côté de sa destination, puis renommé, afin qu'un
+     * fichier incomplet ne soit jamais lu.
+     *
+     * @param path Le chemin du fichier.
+     *
+     * @throws IOException Si une erreur se produit lors de l'écriture.
+     */
+    public void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "wd", ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(size);
+            output.writeInt(count());
+            for (int i = 0; i < count(); i++) {
+                output.writeLong(patterns.get(i));
+            }
+            for (int i = 0; i < count(); i++) {
+                output.writeByte(distances.get(i));
+            }
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Donne la taille des grilles décrites par cette table.
+     *
+     * @return La taille des grilles.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Donne le nombre de résumés atteignables.
+     *
+     * @return Le nombre de résumés de cette table.
+     */
+    public int count() {
+        return patterns.limit();
+    }
+
+    /**
+     * Donne le rang d'un résumé dans cette table.
+     *
+     * @param code Le code du résumé.
+     *
+     * @return Le rang du résumé, ou un nombre négatif s'il n'est pas atteignable.
+     */
+    public int indexOf(long code) {
+        int low = 0;
+        int high = count() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long pattern = patterns.get(middle);
+            if (pattern < code) {
+                low = middle + 1;
+            } else if (pattern > code) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Donne le code d'un résumé de cette table.
+     *
+     * @param index Le rang du résumé.
+     *
+     * @return Le code du résumé.
+     */
+    public long pattern(int index) {
+        return patterns.get(index);
+    }
+
+    /**
+     * Donne la distance de marche d'un résumé.
+     *
+     * @param index Le rang du résumé.
+     *
+     * @return Le nombre minimal de déplacements (verticaux) pour ordonner le résumé.
+     */
+    public int distance(int index) {
+        return distances.get(index) & 0xFF;
+    }
+
+    /**
+     * Calcule le code d'un résumé à partir du nombre de tuiles de chaque ligne finale
+     * présentes sur chaque ligne.
+     *
+     * @param size La taille des grilles.
+     * @param counts Le nombre de tuiles de chaque ligne finale, indexé par
+     *        {@code ligne * size + ligne finale}.
+     * @param blank La ligne de la case vide.
+     *
+     * @return Le code du résumé.
+     */
+    public static long encode(int size, int[] counts, int blank) {
+        long code = blank;
+        for (int line = 0; line < size; line++) {
+            for (int group = 0; group < size - 1; group++) {
+                code |= ((long) counts[line * size + group]) << shift(size, line, group);
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Calcule le code du résumé obtenu en échangeant la case vide avec une tuile d'une
+     * ligne voisine.
+     *
+     * @param size La taille des grilles.
+     * @param code Le code du résumé avant le déplacement.
+     * @param from La ligne d'où provient la tuile (où se trouve désormais la case vide).
+     * @param to La ligne où se trouve désormais la tuile.
+     * @param group La ligne finale de la tuile.
+     *
+     * @return Le code du résumé après le déplacement.
+     */
+    public static long move(int size, long code, int from, int to, int group) {
+        if (group < size - 1) {
+            // Les tuiles de la dernière ligne finale ne sont pas comptées.
+            code += (1L << shift(size, to, group)) - (1L << shift(size, from, group));
+        }
+        return (code & ~COUNT_MASK) | from;
+    }
+
+    /**
+     * Calcule le code du résumé de la configuration ordonnée.
+     *
+     * @param size La taille des grilles.
+     *
+     * @return Le code du résumé ordonné.
+     */
+    private static long goal(int size) {
+        int[] counts = new int[size * size];
+        for (int line = 0; line < size - 1; line++) {
+            counts[line * size + line] = size;
+        }
+        return encode(size, counts, size - 1);
+    }
+
+    /**
+     * Décode un résumé.
+     *
+     * @param size La taille des grilles.
+     * @param code Le code du résumé.
+     * @param counts Le tableau dans lequel écrire le nombre de tuiles de chaque ligne
+     *        finale, indexé par {@code ligne * size + ligne finale}.
+     */
+    private static void decode(int size, long code, int[] counts) {
+        int blank = (int) (code & COUNT_MASK);
+        for (int line = 0; line < size; line++) {
+            int remaining = (line == blank) ? (size - 1) : size;
+            for (int group = 0; group < size - 1; group++) {
+                int count = (int) ((code >>> shift(size, line, group)) & COUNT_MASK);
+                counts[line * size + group] = count;
+                remaining -= count;
+            }
+            counts[line * size + size - 1] = remaining;
+        }
+    }
+
+    /**
+     * Donne la position d'un compteur dans le code d'un résumé.
+     *
+     * @param size La taille des grilles.
+     * @param line La ligne du compteur.
+     * @param group La ligne finale des tuiles comptées.
+     *
+     * @return La position du compteur.
+     */
+    private static int shift(int size, int line, int group) {
+        return COUNT_BITS * (1 + line * (size - 1) + group);
+    }
+
+}
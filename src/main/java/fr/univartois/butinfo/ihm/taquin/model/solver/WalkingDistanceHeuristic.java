@@ -0,0 +1,199 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * La classe WalkingDistanceHeuristic estime le nombre de déplacements restants en
+ * additionnant les distances de marche des lignes et des colonnes (voir
+ * {@link WalkingDistance}).
+ *
+ * L'état de l'heuristique conserve le rang du résumé des lignes et celui du résumé des
+ * colonnes : un déplacement vertical ne modifie que le premier, et un déplacement
+ * horizontal que le second, qui est alors retrouvé par dichotomie dans la table.
+ * Cette heuristique est le plus souvent combinée aux conflits linéaires à l'aide d'une
+ * {@link MaxHeuristic} (voir {@link #withLinearConflict(int)}).
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+public final class WalkingDistanceHeuristic implements IHeuristic {
+
+    /**
+     * Le nombre de bits utilisés pour coder le rang d'un résumé dans l'état de
+     * l'heuristique.
+     */
+    private static final int INDEX_BITS = 16;
+
+    /**
+     * Le masque permettant d'extraire le rang d'un résumé.
+     */
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    /**
+     * Les heuristiques utilisant les tables enregistrées, indexées par taille de grille
+     * et chargées à la première demande.
+     */
+    private static final WalkingDistanceHeuristic[] STANDARD =
+            new WalkingDistanceHeuristic[WalkingDistance.MAX_SIZE + 1];
+
+    /**
+     * La table des distances de marche utilisée.
+     */
+    private final WalkingDistance table;
+
+    /**
+     * Construit une nouvelle instance de WalkingDistanceHeuristic.
+     *
+     * @param table La table des distances de marche à utiliser.
+     *
+     * @throws IllegalArgumentException Si la table contient trop de résumés.
+     */
+    public WalkingDistanceHeuristic(WalkingDistance table) {
+        if (table.count() > (1 << INDEX_BITS)) {
+            throw new IllegalArgumentException("Too many patterns: " + table.count());
+        }
+        this.table = table;
+    }
+
+    /**
+     * Donne l'heuristique utilisant la table des grilles d'une taille donnée.
+     * Cette table est calculée lors du premier appel sur la machine, puis projetée en
+     * mémoire depuis le répertoire des tables.
+     *
+     * @param size La taille des grilles.
+     *
+     * @return L'heuristique utilisant la table des grilles de cette taille.
+     *
+     * @throws IllegalArgumentException Si la taille n'est pas supportée.
+     * @throws UncheckedIOException Si la table ne peut être ni lue ni enregistrée.
+     */
+    public static synchronized WalkingDistanceHeuristic standard(int size) {
+        if ((size < 2) || (size > WalkingDistance.MAX_SIZE)) {
+            throw new IllegalArgumentException("Unsupported size: " + size);
+        }
+
+        if (STANDARD[size] == null) {
+            try {
+                STANDARD[size] = new WalkingDistanceHeuristic(WalkingDistance.loadOrGenerate(
+                        CacheFiles.resolve("wd-" + size + "x" + size + ".bin"), size));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return STANDARD[size];
+    }
+
+    /**
+     * Donne l'heuristique retenant la plus grande estimation entre la distance de marche
+     * et les conflits linéaires, pour les grilles d'une taille donnée.
+     *
+     * @param size La taille des grilles.
+     *
+     * @return L'heuristique combinée.
+     *
+     * @throws IllegalArgumentException Si la taille n'est pas supportée.
+     * @throws UncheckedIOException Si la table ne peut être ni lue ni enregistrée.
+     */
+    public static IHeuristic withLinearConflict(int size) {
+        return new MaxHeuristic(new LinearConflictHeuristic(), standard(size));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#supports(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology)
+     */
+    @Override
+    public boolean supports(Topology topology) {
+        return topology.isStandard(table.size());
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#stateBits()
+     */
+    @Override
+    public int stateBits() {
+        return 2 * INDEX_BITS;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#initialize(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology, int[])
+     */
+    @Override
+    public long initialize(Topology topology, int[] cells) {
+        int size = topology.size();
+        int[] rows = new int[size * size];
+        int[] columns = new int[size * size];
+        int empty = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == 0) {
+                empty = i;
+            } else {
+                int goal = topology.goalIndex(cells[i]);
+                rows[topology.row(i) * size + topology.row(goal)]++;
+                columns[topology.column(i) * size + topology.column(goal)]++;
+            }
+        }
+
+        long rowIndex = table.indexOf(
+                WalkingDistance.encode(size, rows, topology.row(empty)));
+        long columnIndex = table.indexOf(
+                WalkingDistance.encode(size, columns, topology.column(empty)));
+        return rowIndex | (columnIndex << INDEX_BITS);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#update(fr.univartois.
+     * butinfo.ihm.taquin.model.board.Topology, long, int[], int, int)
+     */
+    @Override
+    public long update(Topology topology, long state, int[] cells, int from, int to) {
+        int goal = topology.goalIndex(cells[to]);
+        int size = topology.size();
+
+        if (topology.row(from) != topology.row(to)) {
+            // La tuile change de ligne : seul le résumé des lignes est modifié.
+            long code = WalkingDistance.move(size, table.pattern((int) (state & INDEX_MASK)),
+                    topology.row(from), topology.row(to), topology.row(goal));
+            return (state & ~INDEX_MASK) | table.indexOf(code);
+        }
+
+        long code = WalkingDistance.move(size, table.pattern((int) (state >>> INDEX_BITS)),
+                topology.column(from), topology.column(to), topology.column(goal));
+        return (state & INDEX_MASK) | (((long) table.indexOf(code)) << INDEX_BITS);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see fr.univartois.butinfo.ihm.taquin.model.solver.IHeuristic#value(long)
+     */
+    @Override
+    public int value(long state) {
+        return table.distance((int) (state & INDEX_MASK))
+                + table.distance((int) (state >>> INDEX_BITS));
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * La classe BoardCodecTest vérifie que le rang d'une grille permet de la retrouver,
+ * que le rang tienne dans un {@code long} ou non.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+class BoardCodecTest {
+
+    /**
+     * Le nombre de grilles tirées au hasard pour chaque topologie.
+     */
+    private static final int NB_BOARDS = 500;
+
+    /**
+     * Vérifie que les grilles d'au plus 16 cases sont retrouvées à partir de leur rang.
+     */
+    @Test
+    void testRankUnrankCompact() {
+        for (Topology topology : new Topology[] {
+                Topology.of(2), Topology.of(3), Topology.of(4), Topology.of(2, 3),
+                Topology.of(3, 5) }) {
+            BoardCodec codec = new BoardCodec(topology);
+            assertTrue(codec.isCompact());
+
+            SplittableRandom random = new SplittableRandom(topology.cells());
+            for (int i = 0; i < NB_BOARDS; i++) {
+                IBoard board = shuffled(topology, random);
+                IBoard decoded = IBoard.create(topology);
+                codec.unrank(codec.rank(board), decoded);
+                assertArrayEquals(cells(board), cells(decoded));
+            }
+        }
+    }
+
+    /**
+     * Vérifie que le rang des grilles d'au plus 16 cases est une bijection sur
+     * l'intervalle des permutations.
+     */
+    @Test
+    void testRankIsBijective() {
+        Topology topology = Topology.of(2, 3);
+        BoardCodec codec = new BoardCodec(topology);
+        IBoard board = IBoard.create(topology);
+        Set<Long> packed = new HashSet<>();
+        for (long rank = 0; rank < 720; rank++) {
+            long cells = codec.unrankPacked(rank);
+            assertTrue(packed.add(cells));
+            assertEquals(rank, codec.rankPacked(cells));
+        }
+
+        codec.unrank(0, board);
+        assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5 }, cells(board));
+        codec.unrank(719, board);
+        assertArrayEquals(new int[] { 5, 4, 3, 2, 1, 0 }, cells(board));
+    }
+
+    /**
+     * Vérifie que les grilles de plus de 16 cases sont retrouvées à partir de leur
+     * rang, et que ce rang ne peut pas être donné sous forme de {@code long}.
+     */
+    @Test
+    void testRankUnrankLarge() {
+        for (Topology topology : new Topology[] {
+                Topology.of(5), Topology.of(8), Topology.of(3, 7), Topology.of(12) }) {
+            BoardCodec codec = new BoardCodec(topology);
+            assertFalse(codec.isCompact());
+            assertThrows(IllegalStateException.class,
+                    () -> codec.rank(IBoard.create(topology)));
+
+            SplittableRandom random = new SplittableRandom(topology.cells());
+            byte[] rank = new byte[codec.rankBytes()];
+            for (int i = 0; i < NB_BOARDS; i++) {
+                IBoard board = shuffled(topology, random);
+                IBoard decoded = IBoard.create(topology);
+                codec.rank(board, rank);
+                codec.unrank(rank, decoded);
+                assertArrayEquals(cells(board), cells(decoded));
+            }
+        }
+    }
+
+    /**
+     * Vérifie que les grilles écrites dans un tampon sont relues à l'identique, et que
+     * leur rang occupe exactement le nombre d'octets annoncé.
+     */
+    @Test
+    void testWriteRead() {
+        for (Topology topology : new Topology[] {
+                Topology.of(3), Topology.of(4), Topology.of(6), Topology.of(4, 5) }) {
+            BoardCodec codec = new BoardCodec(topology);
+            ByteBuffer buffer = ByteBuffer.allocate(NB_BOARDS * codec.rankBytes());
+            IBoard[] boards = new IBoard[NB_BOARDS];
+
+            SplittableRandom random = new SplittableRandom(topology.cells());
+            for (int i = 0; i < NB_BOARDS; i++) {
+                boards[i] = shuffled(topology, random);
+                codec.write(boards[i], buffer);
+                assertEquals((i + 1) * codec.rankBytes(), buffer.position());
+            }
+
+            buffer.flip();
+            for (int i = 0; i < NB_BOARDS; i++) {
+                IBoard decoded = IBoard.create(topology);
+                codec.read(buffer, decoded);
+                assertArrayEquals(cells(boards[i]), cells(decoded));
+            }
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    /**
+     * Vérifie que le nombre d'octets d'un rang est le plus petit permettant de
+     * représenter toutes les permutations des cases.
+     */
+    @Test
+    void testRankBytes() {
+        // 4! - 1 = 23, 9! - 1 = 362879, 16! - 1 < 2^45, 25! - 1 < 2^84.
+        assertEquals(1, new BoardCodec(Topology.of(2)).rankBytes());
+        assertEquals(3, new BoardCodec(Topology.of(3)).rankBytes());
+        assertEquals(6, new BoardCodec(Topology.of(4)).rankBytes());
+        assertEquals(11, new BoardCodec(Topology.of(5)).rankBytes());
+    }
+
+    /**
+     * Crée une grille résoluble tirée uniformément au hasard.
+     *
+     * @param topology La topologie de la grille.
+     * @param random Le générateur de nombres aléatoires à utiliser.
+     *
+     * @return La grille créée.
+     */
+    private static IBoard shuffled(Topology topology, SplittableRandom random) {
+        IBoard board = IBoard.create(topology);
+        Shuffler.permute(board, random);
+        return board;
+    }
+
+    /**
+     * Donne les valeurs des cases d'une grille.
+     *
+     * @param board La grille à considérer.
+     *
+     * @return Les valeurs des cases.
+     */
+    private static int[] cells(IBoard board) {
+        int[] cells = new int[board.topology().cells()];
+        board.copyTo(cells);
+        return cells;
+    }
+
+}
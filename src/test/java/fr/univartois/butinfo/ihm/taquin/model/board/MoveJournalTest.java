@@ -0,0 +1,132 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.board;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * La classe MoveJournalTest vérifie la forme binaire des journaux de déplacements, et
+ * le remplacement de leur fin sur lequel reposent les enregistrements incrémentaux.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+class MoveJournalTest {
+
+    /**
+     * Vérifie que les journaux écrits sous forme binaire sont relus à l'identique,
+     * y compris leurs déplacements annulés, quel que soit leur nombre de mots.
+     */
+    @Test
+    void testWriteReadFrom() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int length : new int[] { 0, 1, 31, 32, 33, 64, 1000 }) {
+            MoveJournal journal = randomJournal(length, random);
+            for (int undo = 0; undo < length / 3; undo++) {
+                journal.undo();
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(journal.binarySize() + 1);
+            journal.writeTo(buffer);
+            assertEquals(journal.binarySize(), buffer.position());
+
+            buffer.flip();
+            MoveJournal read = MoveJournal.readFrom(buffer);
+            assertFalse(buffer.hasRemaining());
+            assertJournalEquals(journal, read);
+            assertEquals(read.size(), read.unsaved());
+        }
+    }
+
+    /**
+     * Vérifie que la lecture d'un journal tronqué ou incohérent est refusée.
+     */
+    @Test
+    void testReadFromInvalid() {
+        MoveJournal journal = randomJournal(40, new SplittableRandom(1));
+        ByteBuffer buffer = ByteBuffer.allocate(journal.binarySize());
+        journal.writeTo(buffer);
+
+        ByteBuffer truncated = buffer.duplicate().flip().limit(journal.binarySize() - 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> MoveJournal.readFrom(truncated));
+
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        assertThrows(IllegalArgumentException.class,
+                () -> MoveJournal.readFrom(header.putInt(0).flip()));
+
+        ByteBuffer position = ByteBuffer.allocate(2 * Integer.BYTES).putInt(0).putInt(1);
+        assertThrows(IllegalArgumentException.class,
+                () -> MoveJournal.readFrom(position.flip()));
+    }
+
+    /**
+     * Vérifie que la fin d'un journal, copiée puis raccordée à une copie plus
+     * ancienne, redonne le journal complet, même après des annulations.
+     */
+    @Test
+    void testTailSplice() {
+        SplittableRandom random = new SplittableRandom(7);
+        MoveJournal journal = randomJournal(50, random);
+        MoveJournal saved = journal.tail(0);
+        journal.markSaved();
+
+        for (int undo = 0; undo < 10; undo++) {
+            journal.undo();
+        }
+        journal.redo();
+        journal.record(Move.values()[random.nextInt(4)]);
+        journal.record(Move.values()[random.nextInt(4)]);
+        journal.undo();
+        assertEquals(41, journal.unsaved());
+
+        MoveJournal tail = journal.tail(journal.unsaved());
+        saved.splice(journal.unsaved(), tail, journal.position());
+        assertJournalEquals(journal, saved);
+    }
+
+    /**
+     * Crée un journal contenant des déplacements tirés au hasard.
+     *
+     * @param length Le nombre de déplacements du journal.
+     * @param random Le générateur de nombres aléatoires à utiliser.
+     *
+     * @return Le journal créé.
+     */
+    private static MoveJournal randomJournal(int length, SplittableRandom random) {
+        MoveJournal journal = new MoveJournal();
+        for (int i = 0; i < length; i++) {
+            journal.record(Move.values()[random.nextInt(4)]);
+        }
+        return journal;
+    }
+
+    /**
+     * Vérifie que deux journaux contiennent les mêmes déplacements, et ont la même
+     * position courante.
+     *
+     * @param expected Le journal attendu.
+     * @param actual Le journal obtenu.
+     */
+    private static void assertJournalEquals(MoveJournal expected, MoveJournal actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.position(), actual.position());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i), "Move " + i);
+        }
+    }
+
+}
@@ -0,0 +1,370 @@
+/**
+ * Ce logiciel est distribué à des fins éducatives.
+ *
+ * (c) 2022 Romain Wallon - Université d'Artois.
+ * Tous droits réservés.
+ */
+
+package fr.univartois.butinfo.ihm.taquin.model.save;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.univartois.butinfo.ihm.taquin.model.board.IBoard;
+import fr.univartois.butinfo.ihm.taquin.model.board.Move;
+import fr.univartois.butinfo.ihm.taquin.model.board.MoveJournal;
+import fr.univartois.butinfo.ihm.taquin.model.board.Topology;
+
+/**
+ * La classe GameLogTest vérifie que l'état des parties est retrouvé à la réouverture
+ * d'un journal, lorsque leurs enregistrements ne contiennent que la fin modifiée de leur
+ * historique.
+ *
+ * Les enregistrements sont ajoutés comme le fait {@link GameSaver} : les copies prises
+ * entre deux écritures sont combinées, puis ajoutées ensemble avant d'être écrites sur
+ * disque.
+ *
+ * @author Theo Journee
+ *
+ * @version 0.1.0
+ */
+class GameLogTest {
+
+    /**
+     * Le répertoire dans lequel les journaux sont créés.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Vérifie que l'historique et la grille de parties dont les déplacements sont
+     * annulés et rejoués sont retrouvés après plusieurs écritures groupées, y compris
+     * lorsque le journal est refermé et rouvert entre deux écritures.
+     *
+     * @throws IOException Si le journal ne peut pas être écrit.
+     */
+    @Test
+    void testReopenAcrossGroupCommits() throws IOException {
+        Path path = directory.resolve("games.log");
+        SplittableRandom random = new SplittableRandom(2022);
+        Game[] games = { new Game(0, Topology.of(4)), new Game(1, Topology.of(6)),
+                new Game(2, Topology.of(3, 5)) };
+        Map<Long, GameCheckpoint> pending = new HashMap<>();
+
+        GameLog log = GameLog.open(path);
+        for (int commit = 0; commit < 60; commit++) {
+            for (int step = 0; step < 50; step++) {
+                Game game = games[random.nextInt(games.length)];
+                game.play(random);
+                if (random.nextInt(4) == 0) {
+                    pending.merge(game.id, game.checkpoint(),
+                            (old, next) -> next.after(old));
+                }
+            }
+            for (GameCheckpoint checkpoint : pending.values()) {
+                log.append(checkpoint);
+            }
+            pending.clear();
+            log.force();
+
+            if (commit % 20 == 19) {
+                log.close();
+                log = GameLog.open(path);
+            }
+        }
+        for (Game game : games) {
+            log.append(game.checkpoint());
+        }
+        log.close();
+
+        try (GameLog reopened = GameLog.open(path)) {
+            assertEquals(2, reopened.getMaxGameId());
+            for (Game game : games) {
+                assertLatestEquals(game, reopened);
+            }
+        }
+    }
+
+    /**
+     * Vérifie qu'un enregistrement interrompu avant que sa longueur ne soit écrite est
+     * ignoré à la réouverture, que la partie est alors retrouvée dans l'état de son
+     * enregistrement précédent, et que le journal peut ensuite être complété par des
+     * enregistrements plus courts que celui qui a été interrompu.
+     *
+     * @throws IOException Si le journal ne peut pas être écrit.
+     */
+    @Test
+    void testInterruptedLastRecord() throws IOException {
+        Path path = directory.resolve("games.log");
+        SplittableRandom random = new SplittableRandom(1);
+        Game game = new Game(5, Topology.of(4));
+
+        Game saved = null;
+        try (GameLog log = GameLog.open(path)) {
+            for (int commit = 0; commit < 3; commit++) {
+                for (int step = 0; step < 40; step++) {
+                    game.play(random);
+                }
+                if (commit == 1) {
+                    saved = game.copy();
+                }
+                log.append(game.checkpoint());
+                log.force();
+            }
+        }
+        assertNotNull(saved);
+
+        // On simule un arrêt brutal pendant l'écriture du dernier enregistrement : son
+        // contenu est sur disque, mais pas sa longueur.
+        int last = lastRecordPosition(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES), last);
+        }
+
+        Game other = new Game(6, Topology.of(4));
+        try (GameLog log = GameLog.open(path)) {
+            assertLatestEquals(saved, log);
+
+            // Une nouvelle partie, sans historique, a un enregistrement plus court que
+            // celui qui a été interrompu, et n'en recouvre donc pas tous les octets.
+            log.append(other.checkpoint());
+        }
+
+        try (GameLog log = GameLog.open(path)) {
+            assertEquals(other.id, log.latest().getGameId());
+            assertLatestEquals(saved, log);
+            assertLatestEquals(other, log);
+
+            // Son dernier enregistrement ayant été perdu, la partie est enregistrée
+            // complètement à la suite.
+            game.journal.markUnsaved();
+            log.append(game.checkpoint());
+        }
+
+        try (GameLog log = GameLog.open(path)) {
+            assertLatestEquals(game, log);
+            assertLatestEquals(other, log);
+            assertEquals(game.id, log.latest().getGameId());
+        }
+    }
+
+    /**
+     * Vérifie qu'un journal vide ne contient aucun enregistrement, et qu'une partie ne
+     * peut pas être enregistrée en partie si elle n'a jamais été enregistrée.
+     *
+     * @throws IOException Si le journal ne peut pas être écrit.
+     */
+    @Test
+    void testMissingPreviousRecord() throws IOException {
+        try (GameLog log = GameLog.open(directory.resolve("games.log"))) {
+            assertNull(log.latest());
+            assertEquals(-1, log.getMaxGameId());
+
+            Game game = new Game(3, Topology.of(3));
+            SplittableRandom random = new SplittableRandom(3);
+            while (game.journal.size() < 10) {
+                game.play(random);
+            }
+            game.checkpoint();
+            assertThrows(IllegalArgumentException.class,
+                    () -> log.append(game.checkpoint()));
+        }
+    }
+
+    /**
+     * Vérifie que le dernier enregistrement d'une partie décrit son état courant.
+     *
+     * @param expected La partie attendue.
+     * @param log Le journal à parcourir.
+     */
+    private static void assertLatestEquals(Game expected, GameLog log) {
+        // Le même accès étant repositionné sur chaque enregistrement, on compte les
+        // enregistrements de la partie pour s'arrêter sur le dernier au second parcours.
+        int[] count = new int[2];
+        log.forEach(record -> {
+            if (record.getGameId() == expected.id) {
+                count[0]++;
+            }
+        });
+        assertTrue(count[0] > 0, "No record for game " + expected.id);
+
+        log.forEach(record -> {
+            if ((record.getGameId() == expected.id) && (++count[1] == count[0])) {
+                assertRecordEquals(expected, record);
+            }
+        });
+    }
+
+    /**
+     * Vérifie qu'un enregistrement décrit l'état courant d'une partie.
+     *
+     * @param expected La partie attendue.
+     * @param record L'enregistrement obtenu.
+     */
+    private static void assertRecordEquals(Game expected, GameRecord record) {
+        assertEquals(expected.id, record.getGameId());
+        assertEquals(expected.board.topology(), record.getTopology());
+        assertEquals(expected.nbMoves, record.getNbMoves());
+        assertEquals(expected.board.isOrdered(), record.isOrdered());
+        assertArrayEquals(cells(expected.board), cells(record.readBoard()));
+
+        MoveJournal journal = record.readJournal();
+        assertEquals(expected.journal.size(), journal.size());
+        assertEquals(expected.journal.position(), journal.position());
+        for (int i = 0; i < journal.size(); i++) {
+            assertEquals(expected.journal.get(i), journal.get(i), "Move " + i);
+        }
+    }
+
+    /**
+     * Donne la position du dernier enregistrement d'un journal, en suivant les
+     * longueurs des enregistrements depuis l'en-tête du fichier.
+     *
+     * @param path Le chemin du journal.
+     *
+     * @return La position du dernier enregistrement.
+     *
+     * @throws IOException Si le fichier ne peut pas être lu.
+     */
+    private static int lastRecordPosition(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer file = ByteBuffer.allocate((int) channel.size());
+            channel.read(file, 0);
+
+            int last = -1;
+            int position = 2 * Integer.BYTES;
+            while ((position + Integer.BYTES <= file.limit()) && (file.getInt(position) > 0)) {
+                last = position;
+                position += Integer.BYTES + file.getInt(position);
+            }
+            return last;
+        }
+    }
+
+    /**
+     * Donne les valeurs des cases d'une grille.
+     *
+     * @param board La grille à considérer.
+     *
+     * @return Les valeurs des cases.
+     */
+    private static int[] cells(IBoard board) {
+        int[] cells = new int[board.topology().cells()];
+        board.copyTo(cells);
+        return cells;
+    }
+
+    /**
+     * La classe Game représente une partie jouée au hasard, avec des annulations.
+     */
+    private static final class Game {
+
+        /**
+         * L'identifiant de la partie.
+         */
+        private final long id;
+
+        /**
+         * La grille de la partie.
+         */
+        private final IBoard board;
+
+        /**
+         * L'historique des déplacements de la partie.
+         */
+        private final MoveJournal journal;
+
+        /**
+         * Le nombre de déplacements réalisés.
+         */
+        private int nbMoves;
+
+        /**
+         * Construit une nouvelle partie, sur une grille ordonnée.
+         *
+         * @param id L'identifiant de la partie.
+         * @param topology La topologie de la grille.
+         */
+        private Game(long id, Topology topology) {
+            this(id, IBoard.create(topology), new MoveJournal(), 0);
+        }
+
+        /**
+         * Construit une nouvelle instance de Game.
+         *
+         * @param id L'identifiant de la partie.
+         * @param board La grille de la partie.
+         * @param journal L'historique des déplacements de la partie.
+         * @param nbMoves Le nombre de déplacements réalisés.
+         */
+        private Game(long id, IBoard board, MoveJournal journal, int nbMoves) {
+            this.id = id;
+            this.board = board;
+            this.journal = journal;
+            this.nbMoves = nbMoves;
+        }
+
+        /**
+         * Réalise un déplacement, ou annule ou rejoue un déplacement de l'historique.
+         *
+         * @param random Le générateur de nombres aléatoires à utiliser.
+         */
+        private void play(SplittableRandom random) {
+            int action = random.nextInt(10);
+            if ((action < 2) && journal.canUndo()) {
+                board.push(journal.undo().opposite());
+                nbMoves++;
+            } else if ((action < 3) && journal.canRedo()) {
+                board.push(journal.redo());
+                nbMoves++;
+            } else {
+                Move move = Move.values()[random.nextInt(4)];
+                if (board.push(move)) {
+                    journal.record(move);
+                    nbMoves++;
+                }
+            }
+        }
+
+        /**
+         * Copie l'état de cette partie, en ne copiant que la fin de l'historique modifiée
+         * depuis la copie précédente.
+         *
+         * @return La copie de la partie.
+         */
+        private GameCheckpoint checkpoint() {
+            return new GameCheckpoint(id, board, nbMoves, journal);
+        }
+
+        /**
+         * Copie cette partie, sans modifier ce qui est considéré comme enregistré.
+         *
+         * @return La copie de la partie.
+         */
+        private Game copy() {
+            MoveJournal copy = journal.tail(0);
+            for (int i = journal.position(); i < journal.size(); i++) {
+                copy.undo();
+            }
+            return new Game(id, board.copy(), copy, nbMoves);
+        }
+
+    }
+
+}